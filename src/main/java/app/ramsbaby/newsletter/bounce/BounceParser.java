@@ -0,0 +1,194 @@
+package app.ramsbaby.newsletter.bounce;
+
+import jakarta.mail.BodyPart;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.ContentType;
+import jakarta.mail.internet.InternetHeaders;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 반송 보고서(DSN, RFC 3464) 및 스팸 신고(ARF, RFC 5965) 파서
+ *
+ * multipart/report 메시지만 처리하며, 본문 전체를 객체로 만들지 않고
+ * 보고서 파트를 스트림으로 읽어 필요한 필드만 추출합니다.
+ */
+@Component
+public class BounceParser {
+    private final Session session = Session.getInstance(new Properties());
+
+    /**
+     * 메시지 하나를 파싱
+     *
+     * @param in 원본 메시지 스트림 (SharedInputStream이면 본문을 필요할 때만 읽음)
+     * @return 수신자별 결과 (보고서가 아니면 빈 리스트)
+     */
+    public List<BounceReport> parse(InputStream in) throws MessagingException, IOException {
+        MimeMessage message = new MimeMessage(session, in);
+        if (!message.isMimeType("multipart/report")) {
+            return List.of();
+        }
+
+        String reportType = new ContentType(message.getContentType()).getParameter("report-type");
+        MimeMultipart multipart = new MimeMultipart(message.getDataHandler().getDataSource());
+
+        if ("delivery-status".equalsIgnoreCase(reportType)) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart part = multipart.getBodyPart(i);
+                if (part.isMimeType("message/delivery-status")) {
+                    return parseDeliveryStatus(part);
+                }
+            }
+        } else if ("feedback-report".equalsIgnoreCase(reportType)) {
+            return parseFeedbackReport(multipart);
+        }
+        return List.of();
+    }
+
+    /**
+     * message/delivery-status 파트 파싱
+     *
+     * 첫 블록은 메시지 단위 필드, 빈 줄로 구분된 이후 블록은 수신자 단위 필드입니다.
+     */
+    private List<BounceReport> parseDeliveryStatus(Part part) throws MessagingException, IOException {
+        List<BounceReport> reports = new ArrayList<>();
+        for (Map<String, String> fields : readFieldBlocks(part)) {
+            String recipient = fields.getOrDefault("final-recipient", fields.get("original-recipient"));
+            if (recipient == null) {
+                continue; // 메시지 단위 블록
+            }
+            String email = addressOf(recipient);
+            String action = fields.getOrDefault("action", "").toLowerCase(Locale.ROOT);
+            String status = fields.get("status");
+            BounceReport.Kind kind = classify(action, status);
+            if (email != null && kind != null) {
+                reports.add(new BounceReport(email, kind, status));
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * 반송 분류
+     *
+     * - 5.x.x 또는 상태 없는 failed → 영구 반송
+     * - 4.x.x → 일시 반송
+     * - delayed → 무시 (MTA가 아직 재시도 중인 같은 메시지에 대한 경고로, 여러 번 와도 반송이 아님)
+     * - delivered/relayed/expanded → 무시
+     */
+    private static BounceReport.Kind classify(String action, String status) {
+        if (action.equals("delayed")) {
+            return null;
+        }
+        if (status != null && status.startsWith("5")) {
+            return BounceReport.Kind.HARD;
+        }
+        if (status != null && status.startsWith("4")) {
+            return BounceReport.Kind.SOFT;
+        }
+        if (action.equals("failed")) {
+            return BounceReport.Kind.HARD;
+        }
+        return null;
+    }
+
+    /**
+     * ARF 스팸 신고 파싱
+     *
+     * 신고 파트의 Original-Rcpt-To/Removal-Recipient를 우선 사용하고,
+     * 없으면 첨부된 원본 메시지 헤더의 To를 사용합니다.
+     */
+    private List<BounceReport> parseFeedbackReport(MimeMultipart multipart) throws MessagingException, IOException {
+        String email = null;
+        for (int i = 0; i < multipart.getCount() && email == null; i++) {
+            BodyPart part = multipart.getBodyPart(i);
+            if (part.isMimeType("message/feedback-report")) {
+                for (Map<String, String> fields : readFieldBlocks(part)) {
+                    String rcpt = fields.getOrDefault("original-rcpt-to", fields.get("removal-recipient"));
+                    if (rcpt != null) {
+                        email = addressOf(rcpt);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < multipart.getCount() && email == null; i++) {
+            BodyPart part = multipart.getBodyPart(i);
+            if (part.isMimeType("message/rfc822") || part.isMimeType("text/rfc822-headers")) {
+                try (InputStream in = part.getInputStream()) {
+                    String to = new InternetHeaders(in).getHeader("To", ",");
+                    if (to != null) {
+                        email = addressOf(to);
+                    }
+                }
+            }
+        }
+        return email == null ? List.of() : List.of(new BounceReport(email, BounceReport.Kind.COMPLAINT, null));
+    }
+
+    /**
+     * "Name: value" 형식 필드를 빈 줄 단위 블록으로 읽음 (이름은 소문자, 접힌 줄은 이어 붙임)
+     */
+    private static List<Map<String, String>> readFieldBlocks(Part part) throws MessagingException, IOException {
+        List<Map<String, String>> blocks = new ArrayList<>();
+        Map<String, String> current = new HashMap<>();
+        String lastName = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(part.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    if (!current.isEmpty()) {
+                        blocks.add(current);
+                        current = new HashMap<>();
+                    }
+                    lastName = null;
+                } else if ((line.startsWith(" ") || line.startsWith("\t")) && lastName != null) {
+                    current.merge(lastName, " " + line.trim(), String::concat);
+                } else {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        lastName = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                        current.put(lastName, line.substring(colon + 1).trim());
+                    }
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            blocks.add(current);
+        }
+        return blocks;
+    }
+
+    /**
+     * "rfc822; User <user@example.com>" 형식에서 주소만 추출 (소문자)
+     */
+    private static String addressOf(String value) {
+        String v = value;
+        int semicolon = v.indexOf(';');
+        if (semicolon >= 0) {
+            v = v.substring(semicolon + 1);
+        }
+        int lt = v.indexOf('<');
+        int gt = v.indexOf('>', lt + 1);
+        if (lt >= 0 && gt > lt) {
+            v = v.substring(lt + 1, gt);
+        }
+        v = v.trim().toLowerCase(Locale.ROOT);
+        return v.contains("@") ? v : null;
+    }
+}
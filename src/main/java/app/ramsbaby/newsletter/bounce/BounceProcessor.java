@@ -0,0 +1,323 @@
+package app.ramsbaby.newsletter.bounce;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.suppression.SuppressionList;
+import jakarta.mail.util.SharedFileInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 반송/스팸 신고 처리 작업
+ *
+ * MTA가 로컬에 떨궈주는 Maildir 또는 mbox에서 DSN/ARF 보고서를 한 통씩 읽어
+ * 구독자 상태를 일괄 변경합니다. 상태가 active가 아닌 구독자는 팬아웃 대상에서 빠지고,
+ * 이미 큐잉된 메시지도 발송 시점에 건너뜁니다.
+ *
+ * - 영구 반송(5.x.x): bounced
+ * - 스팸 신고(ARF): complained
+ * - 일시 반송(4.x.x): soft_bounce_count 증가, 한도에 도달하면 bounced
+ *   (직전 반송이 softBounceWindowDays 보다 오래되었으면 1부터 다시 셈)
+ */
+@Component
+public class BounceProcessor {
+    private static final Logger log = LoggerFactory.getLogger(BounceProcessor.class);
+
+    // 한 번에 DB에 반영할 보고서 개수
+    private static final int BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BounceParser parser;
+    private final SuppressionList suppressionList;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProps.Bounce props;
+
+    public BounceProcessor(JdbcTemplate jdbcTemplate, BounceParser parser, SuppressionList suppressionList,
+                           TransactionTemplate transactionTemplate, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.parser = parser;
+        this.suppressionList = suppressionList;
+        this.transactionTemplate = transactionTemplate;
+        this.props = props.getBounce();
+    }
+
+    /**
+     * 반송 보고서 처리 (10분마다)
+     *
+     * - 초기 지연: 3분
+     * - 반복 간격: 10분 (600,000ms)
+     */
+    @Scheduled(fixedDelay = 600_000, initialDelay = 180_000)
+    public void processBounces() {
+        try {
+            if (props.getMaildir() != null && !props.getMaildir().isBlank()) {
+                processMaildir(Paths.get(props.getMaildir()));
+            }
+            if (props.getMbox() != null && !props.getMbox().isBlank()) {
+                processMbox(Paths.get(props.getMbox()));
+            }
+        } catch (Exception e) {
+            log.error("Bounce processing failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Maildir 처리
+     *
+     * new/ 의 메시지를 읽고 DB 반영이 끝난 파일만 cur/ 로 옮깁니다.
+     * (반영 전에 중단되면 다음 실행에서 다시 처리됨)
+     */
+    private void processMaildir(Path maildir) throws IOException {
+        Path newDir = maildir.resolve("new");
+        Path curDir = maildir.resolve("cur");
+        if (!Files.isDirectory(newDir)) {
+            return;
+        }
+        Files.createDirectories(curDir);
+
+        List<BounceReport> pending = new ArrayList<>();
+        List<Path> pendingFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(newDir)) {
+            for (Path file : files) {
+                // 본문은 필요한 파트만 파일에서 직접 읽음
+                try (SharedFileInputStream in = new SharedFileInputStream(file.toFile())) {
+                    pending.addAll(parseQuietly(in, file.getFileName().toString()));
+                }
+                pendingFiles.add(file);
+                if (pending.size() >= BATCH_SIZE) {
+                    apply(pending, null);
+                    moveToCur(pendingFiles, curDir);
+                }
+            }
+        }
+        apply(pending, null);
+        moveToCur(pendingFiles, curDir);
+    }
+
+    private static void moveToCur(List<Path> files, Path curDir) throws IOException {
+        for (Path file : files) {
+            Files.move(file, curDir.resolve(file.getFileName() + ":2,S"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        files.clear();
+    }
+
+    /**
+     * mbox 처리
+     *
+     * MTA가 계속 덧붙일 수 있도록 파일을 먼저 .processing 으로 옮긴 뒤,
+     * "From " 구분 줄 단위로 한 통씩 잘라 파싱하고 끝나면 .done 으로 보관합니다.
+     *
+     * 배치를 반영할 때마다 반영이 끝난 위치를 같은 트랜잭션으로 bounce_checkpoints 에 기록하고,
+     * 도중에 종료되었다면 다음 실행은 그 위치부터 이어서 읽습니다 (일시 반송을 두 번 세지 않도록).
+     */
+    private void processMbox(Path mbox) throws IOException {
+        Path processing = mbox.resolveSibling(mbox.getFileName() + ".processing");
+        if (!Files.exists(processing)) {
+            if (!Files.exists(mbox) || Files.size(mbox) == 0) {
+                return;
+            }
+            Files.move(mbox, processing, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        // .processing 은 더 이상 덧붙여지지 않으므로 크기와 수정 시각으로 같은 파일인지 구분
+        String mboxKey = mbox.toString();
+        String fileKey = Files.size(processing) + ":" + Files.getLastModifiedTime(processing).toMillis();
+        List<Long> checkpoint = jdbcTemplate.queryForList(
+            "SELECT byte_offset FROM bounce_checkpoints WHERE mbox = ? AND file_key = ?",
+            Long.class,
+            mboxKey, fileKey
+        );
+        long position = checkpoint.isEmpty() ? 0 : checkpoint.get(0);
+        if (position > 0) {
+            log.info("Resuming mbox {} at byte {}", mbox, position);
+        }
+
+        List<BounceReport> pending = new ArrayList<>();
+        int count = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(processing))) {
+            in.skipNBytes(position);
+            ByteArrayOutputStream current = new ByteArrayOutputStream();
+            byte[] line;
+            while ((line = readLine(in)) != null) {
+                long lineStart = position;
+                position += line.length;
+                if (startsWith(line, "From ")) {
+                    if (current.size() > 0) {
+                        pending.addAll(parseQuietly(new ByteArrayInputStream(current.toByteArray()), "mbox#" + count++));
+                        current.reset();
+                    }
+                    // 이 줄 앞까지의 메시지는 모두 pending 에 들어 있음
+                    if (pending.size() >= BATCH_SIZE) {
+                        apply(pending, new Checkpoint(mboxKey, fileKey, lineStart));
+                    }
+                    continue;
+                }
+                // mboxrd 이스케이프 해제 (">From " → "From ")
+                if (line.length > 5 && line[0] == '>' && unescapedFrom(line)) {
+                    current.write(line, 1, line.length - 1);
+                } else {
+                    current.write(line);
+                }
+            }
+            if (current.size() > 0) {
+                pending.addAll(parseQuietly(new ByteArrayInputStream(current.toByteArray()), "mbox#" + count++));
+            }
+        }
+        apply(pending, new Checkpoint(mboxKey, fileKey, position));
+
+        Path done = mbox.resolveSibling(mbox.getFileName() + ".done");
+        Files.move(processing, done, StandardCopyOption.REPLACE_EXISTING);
+        // 남은 행은 file_key 가 달라 무시되므로, 여기서 지우지 못하고 종료되어도 다음 파일에 영향 없음
+        jdbcTemplate.update("DELETE FROM bounce_checkpoints WHERE mbox = ?", mboxKey);
+        log.info("Processed {} messages from mbox {}", count, mbox);
+    }
+
+    /**
+     * 줄 단위 읽기 (줄바꿈 포함, 파일 끝이면 null)
+     */
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            line.write(b);
+            if (b == '\n') {
+                break;
+            }
+        }
+        return line.size() == 0 ? null : line.toByteArray();
+    }
+
+    private static boolean startsWith(byte[] line, String prefix) {
+        byte[] p = prefix.getBytes(StandardCharsets.US_ASCII);
+        if (line.length < p.length) {
+            return false;
+        }
+        for (int i = 0; i < p.length; i++) {
+            if (line[i] != p[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean unescapedFrom(byte[] line) {
+        int i = 0;
+        while (i < line.length && line[i] == '>') {
+            i++;
+        }
+        return line.length - i >= 5
+            && new String(line, i, 5, StandardCharsets.US_ASCII).equals("From ");
+    }
+
+    /**
+     * 메시지 하나 파싱 (깨진 메시지는 건너뜀)
+     */
+    private List<BounceReport> parseQuietly(InputStream in, String name) {
+        try {
+            return parser.parse(in);
+        } catch (Exception e) {
+            log.warn("Skipping unparsable bounce message {}: {}", name, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 보고서를 구독자 상태에 일괄 반영
+     *
+     * 이미 수신 거부했거나 반송/신고 처리된 구독자는 상태를 바꾸지 않습니다.
+     * checkpoint 가 있으면 같은 트랜잭션에서 mbox 진행 위치도 기록합니다.
+     */
+    private void apply(List<BounceReport> reports, Checkpoint checkpoint) {
+        transactionTemplate.executeWithoutResult(status -> {
+            applyReports(reports);
+            if (checkpoint != null) {
+                jdbcTemplate.update(
+                    "INSERT INTO bounce_checkpoints(mbox, file_key, byte_offset, updated_at) VALUES(?, ?, ?, ?) " +
+                    "ON CONFLICT (mbox) DO UPDATE SET file_key = EXCLUDED.file_key, " +
+                    "byte_offset = EXCLUDED.byte_offset, updated_at = EXCLUDED.updated_at",
+                    checkpoint.mbox(), checkpoint.fileKey(), checkpoint.offset(), Timestamp.from(Instant.now())
+                );
+            }
+        });
+        reports.clear();
+    }
+
+    private void applyReports(List<BounceReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        Timestamp softWindowStart = Timestamp.from(Instant.now().minus(Duration.ofDays(Math.max(1, props.getSoftBounceWindowDays()))));
+        List<Object[]> hard = new ArrayList<>();
+        List<Object[]> soft = new ArrayList<>();
+        List<Object[]> complaints = new ArrayList<>();
+        List<String> complainedEmails = new ArrayList<>();
+        for (BounceReport report : reports) {
+            switch (report.kind()) {
+                case HARD -> hard.add(new Object[]{now, report.email()});
+                case SOFT -> soft.add(new Object[]{softWindowStart, softWindowStart, props.getSoftBounceLimit(), now, report.email()});
+                case COMPLAINT -> {
+                    complaints.add(new Object[]{now, report.email()});
+                    complainedEmails.add(report.email());
+                }
+            }
+        }
+
+        if (!complaints.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "UPDATE newsletter_subscribers SET status = 'complained', bounced_at = ? " +
+                "WHERE lower(email) = ? AND status IN ('pending', 'active', 'bounced')",
+                complaints
+            );
+            // 스팸 신고 주소는 재구독하더라도 발송하지 않도록 전역 억제 목록에도 등록
+            suppressionList.suppressAddresses(complainedEmails, "complaint");
+        }
+        if (!hard.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "UPDATE newsletter_subscribers SET status = 'bounced', bounced_at = ? " +
+                "WHERE lower(email) = ? AND status IN ('pending', 'active')",
+                hard
+            );
+        }
+        if (!soft.isEmpty()) {
+            // 일시 반송은 누적 횟수가 한도에 도달했을 때만 반송 처리
+            // (bounced_at 은 마지막 반송 시각이므로, 그 뒤로 오래 반송이 없었으면 누적을 새로 시작)
+            jdbcTemplate.batchUpdate(
+                "UPDATE newsletter_subscribers SET " +
+                "soft_bounce_count = CASE WHEN bounced_at IS NULL OR bounced_at < ? THEN 1 ELSE soft_bounce_count + 1 END, " +
+                "status = CASE WHEN (CASE WHEN bounced_at IS NULL OR bounced_at < ? THEN 1 ELSE soft_bounce_count + 1 END) >= ? " +
+                "THEN 'bounced' ELSE status END, " +
+                "bounced_at = ? " +
+                "WHERE lower(email) = ? AND status IN ('pending', 'active')",
+                soft
+            );
+        }
+
+        log.info("Applied bounce reports: {} hard, {} soft, {} complaints", hard.size(), soft.size(), complaints.size());
+    }
+
+    /**
+     * mbox 진행 위치 (offset: 반영이 끝난 다음 메시지의 시작 바이트)
+     */
+    private record Checkpoint(String mbox, String fileKey, long offset) {}
+}
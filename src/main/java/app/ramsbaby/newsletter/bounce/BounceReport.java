@@ -0,0 +1,16 @@
+package app.ramsbaby.newsletter.bounce;
+
+/**
+ * 반송/신고 보고서에서 추출한 수신자별 결과
+ *
+ * @param email 수신자 이메일
+ * @param kind 분류 (HARD: 영구 반송, SOFT: 일시 반송, COMPLAINT: 스팸 신고)
+ * @param status DSN 상태 코드 (예: 5.1.1, 신고는 null)
+ */
+public record BounceReport(
+        String email,
+        Kind kind,
+        String status
+) {
+    public enum Kind { HARD, SOFT, COMPLAINT }
+}
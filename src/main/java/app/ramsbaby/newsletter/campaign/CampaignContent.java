@@ -0,0 +1,16 @@
+package app.ramsbaby.newsletter.campaign;
+
+/**
+ * 발송용 캠페인 본문
+ *
+ * @param id 캠페인 ID
+ * @param subject 이메일 제목
+ * @param html 이메일 HTML 본문 (추적 링크/픽셀 포함, 구독자 ID와 구독 해제 링크는 수신자별로 치환)
+ * @param text HTML 태그를 제거한 텍스트 본문
+ */
+public record CampaignContent(
+        long id,
+        String subject,
+        String html,
+        String text
+) {}
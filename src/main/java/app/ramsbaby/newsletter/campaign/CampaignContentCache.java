@@ -0,0 +1,96 @@
+package app.ramsbaby.newsletter.campaign;
+
+import app.ramsbaby.newsletter.tracking.TrackedLinks;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 캠페인 본문 LRU 캐시
+ *
+ * 발송 대기열 조회 시 캠페인 HTML을 행마다 JOIN 하지 않고,
+ * 캠페인당 한 번만 읽어 재사용합니다. 캠페인 발송이 끝나면 제거됩니다.
+ * 오픈/클릭 추적 링크도 읽을 때 한 번만 넣어둡니다.
+ */
+@Component
+public class CampaignContentCache {
+    // 동시에 발송 중인 캠페인은 많지 않으므로 작게 유지
+    private static final int MAX_ENTRIES = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrackedLinks trackedLinks;
+    private final Map<Long, CampaignContent> cache = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CampaignContent> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public CampaignContentCache(JdbcTemplate jdbcTemplate, TrackedLinks trackedLinks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trackedLinks = trackedLinks;
+    }
+
+    /**
+     * 캠페인 본문 조회 (캐시에 없으면 DB에서 읽어 저장)
+     *
+     * @param campaignId 캠페인 ID
+     * @return 캠페인 본문 (캠페인이 없으면 null)
+     */
+    public CampaignContent get(long campaignId) {
+        synchronized (cache) {
+            CampaignContent content = cache.get(campaignId);
+            if (content != null) {
+                return content;
+            }
+        }
+
+        CampaignContent loaded = load(campaignId);
+        if (loaded != null) {
+            synchronized (cache) {
+                cache.put(campaignId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 캐시에서 제거 (캠페인 발송 완료 시)
+     */
+    public void evict(long campaignId) {
+        synchronized (cache) {
+            cache.remove(campaignId);
+        }
+    }
+
+    private CampaignContent load(long campaignId) {
+        List<CampaignContent> rows = jdbcTemplate.query(
+            "SELECT id, subject, html FROM campaigns WHERE id = ?",
+            (rs, rowNum) -> new CampaignContent(
+                rs.getLong("id"),
+                rs.getString("subject"),
+                rs.getString("html"),
+                stripHtml(rs.getString("html"))
+            ),
+            campaignId
+        );
+        if (rows.isEmpty()) {
+            return null;
+        }
+        CampaignContent row = rows.get(0);
+        return new CampaignContent(row.id(), row.subject(), trackedLinks.instrument(campaignId, row.html()), row.text());
+    }
+
+    /**
+     * HTML 태그 제거 (multipart/alternative 의 text/plain 파트용, 간단한 구현)
+     *
+     * 링크 주소는 남기지 않고 HTML 엔티티(&amp;amp; 등)와 공백도 정리하지 않으므로,
+     * 텍스트 파트에서는 링크를 따라갈 수 없고 문단 구분이 HTML 원본의 줄바꿈을 따릅니다.
+     */
+    private static String stripHtml(String html) {
+        return html.replaceAll("<[^>]*>", "").trim();
+    }
+}
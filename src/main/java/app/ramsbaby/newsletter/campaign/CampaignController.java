@@ -0,0 +1,73 @@
+package app.ramsbaby.newsletter.campaign;
+
+import app.ramsbaby.newsletter.message.FanOutJob;
+import app.ramsbaby.newsletter.message.FanOutRunner;
+import app.ramsbaby.newsletter.tracking.EngagementTracker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/campaigns")
+public class CampaignController {
+
+    private final CampaignService campaignService;
+    private final EngagementTracker engagementTracker;
+    private final FanOutRunner fanOutRunner;
+
+    public CampaignController(CampaignService campaignService, EngagementTracker engagementTracker,
+                              FanOutRunner fanOutRunner) {
+        this.campaignService = campaignService;
+        this.engagementTracker = engagementTracker;
+        this.fanOutRunner = fanOutRunner;
+    }
+
+    /**
+     * 캠페인 진행 상황 조회
+     *
+     * GET /api/campaigns/123/progress
+     *
+     * @param id 캠페인 ID
+     * @return 200 OK (진행 상황), 404 Not Found (없음)
+     */
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<?> progress(@PathVariable long id) {
+        return campaignService.findProgress(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 캠페인 오픈/클릭 집계 조회
+     *
+     * GET /api/campaigns/123/engagement
+     *
+     * @param id 캠페인 ID
+     * @return 200 OK (오픈/클릭 수, 고유 수신자 근사치, 링크별 클릭), 404 Not Found (없음)
+     */
+    @GetMapping("/{id}/engagement")
+    public ResponseEntity<?> engagement(@PathVariable long id) {
+        if (campaignService.findProgress(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(engagementTracker.findEngagement(id));
+    }
+
+    /**
+     * 캠페인 팬아웃 작업 진행 상황 조회
+     *
+     * GET /api/campaigns/123/fanout
+     *
+     * @param id 캠페인 ID
+     * @return 200 OK (수신 방식별 작업: 상태, 처리 위치, 큐잉/억제 수, 청크 크기, 임대), 404 Not Found (작업 없음)
+     */
+    @GetMapping("/{id}/fanout")
+    public ResponseEntity<?> fanOut(@PathVariable long id) {
+        List<FanOutJob> jobs = fanOutRunner.findJobs(id);
+        if (jobs.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(jobs);
+    }
+}
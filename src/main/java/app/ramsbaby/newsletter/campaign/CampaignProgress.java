@@ -0,0 +1,16 @@
+package app.ramsbaby.newsletter.campaign;
+
+/**
+ * 캠페인 진행 상황 응답용 DTO
+ */
+public record CampaignProgress(
+        long id,
+        String source,
+        String status,
+        int queued,
+        int sent,
+        int failed,
+        int dead,
+        String createdAt,
+        String completedAt
+) {}
@@ -1,5 +1,6 @@
 package app.ramsbaby.newsletter.campaign;
 
+import app.ramsbaby.newsletter.jfr.CampaignCreateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -11,6 +12,7 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,9 +24,11 @@ import java.util.Optional;
 public class CampaignService {
     private static final Logger log = LoggerFactory.getLogger(CampaignService.class);
     private final JdbcTemplate jdbcTemplate;
+    private final CampaignContentCache contentCache;
 
-    public CampaignService(JdbcTemplate jdbcTemplate) {
+    public CampaignService(JdbcTemplate jdbcTemplate, CampaignContentCache contentCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.contentCache = contentCache;
     }
 
     /**
@@ -38,16 +42,41 @@ public class CampaignService {
      * @return 생성된 또는 기존 캠페인 ID
      */
     public long createCampaign(String source, String subject, String htmlBody) {
+        return createCampaign(source, subject, htmlBody, null);
+    }
+
+    /**
+     * 대상 세그먼트를 지정해 새 캠페인 생성
+     * 
+     * 세그먼트는 처음 생성할 때만 기록됩니다 (이미 있는 캠페인은 그대로).
+     * 
+     * @param segment 세그먼트 식 (null 이면 전체 활성 구독자)
+     * @return 생성된 또는 기존 캠페인 ID
+     */
+    public long createCampaign(String source, String subject, String htmlBody, String segment) {
+        CampaignCreateEvent event = new CampaignCreateEvent();
+        event.begin();
+        event.source = source;
+        try {
+            long campaignId = upsertCampaign(source, subject, htmlBody, segment);
+            event.campaignId = campaignId;
+            return campaignId;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private long upsertCampaign(String source, String subject, String htmlBody, String segment) {
         try {
             // PostgreSQL: INSERT ... ON CONFLICT ... DO UPDATE ... RETURNING id
             // 중복 시에도 항상 ID를 반환 (새 캠페인 or 기존 캠페인)
             Long campaignId = jdbcTemplate.queryForObject(
-                "INSERT INTO campaigns(source, subject, html, status, scheduled_at) " +
-                "VALUES(?, ?, ?, 'scheduled', ?) " +
+                "INSERT INTO campaigns(source, subject, html, status, scheduled_at, segment) " +
+                "VALUES(?, ?, ?, 'scheduled', ?, ?) " +
                 "ON CONFLICT (source) DO UPDATE SET source = EXCLUDED.source " +
                 "RETURNING id",
                 Long.class,
-                source, subject, htmlBody, Timestamp.from(Instant.now())
+                source, subject, htmlBody, Timestamp.from(Instant.now()), segment
             );
             
             if (campaignId == null) {
@@ -88,7 +117,7 @@ public class CampaignService {
      * 캠페인 상태 업데이트
      * 
      * @param campaignId 캠페인 ID
-     * @param status 새 상태 (scheduled, sent, failed)
+     * @param status 새 상태 (scheduled, sending, sent, failed)
      */
     public void updateStatus(long campaignId, String status) {
         jdbcTemplate.update(
@@ -98,12 +127,131 @@ public class CampaignService {
         log.info("Updated campaign ID={} status={}", campaignId, status);
     }
 
+    /**
+     * 팬아웃으로 큐잉된 메시지 수를 카운터에 반영
+     *
+     * @param campaignId 캠페인 ID
+     * @param count 새로 큐잉된 메시지 개수
+     */
+    public void addQueued(long campaignId, int count) {
+        if (count == 0) {
+            return;
+        }
+        jdbcTemplate.update(
+            "UPDATE campaigns SET queued_count = queued_count + ? WHERE id = ?",
+            count, campaignId
+        );
+    }
+
+    /**
+     * 팬아웃 완료 처리 (scheduled → sending)
+     *
+     * 팬아웃이 끝난 뒤에만 sending으로 전환하므로,
+     * 팬아웃 도중 대기열이 잠시 비더라도 발송 완료로 오판하지 않습니다.
+     * 대기열이 이미 비어 있으면 바로 발송 완료 처리합니다.
+     *
+     * @param campaignId 캠페인 ID
+     */
+    public void markSending(long campaignId) {
+        int updated = jdbcTemplate.update(
+            "UPDATE campaigns SET status = 'sending' WHERE id = ? AND status = 'scheduled'",
+            campaignId
+        );
+        if (updated > 0) {
+            log.info("Updated campaign ID={} status=sending", campaignId);
+        }
+        completeIfDrained(campaignId);
+    }
+
+    /**
+     * 발송 결과를 캠페인 카운터에 일괄 반영
+     *
+     * 발송 스케줄러가 배치마다 캠페인별로 한 번만 호출합니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @param sent 발송 완료 메시지 수
+     * @param failed 실패한 발송 시도 수 (재시도 대상 포함)
+     * @param dead 최종 실패 처리된 메시지 수
+     */
+    public void applyDeliveryCounts(long campaignId, int sent, int failed, int dead) {
+        jdbcTemplate.update(
+            "UPDATE campaigns SET queued_count = queued_count - ?, sent_count = sent_count + ?, " +
+            "failed_count = failed_count + ?, dead_count = dead_count + ? WHERE id = ?",
+            sent + dead, sent, failed, dead, campaignId
+        );
+    }
+
+    /**
+     * 대기열이 비었으면 캠페인을 발송 완료(sent)로 전환
+     *
+     * 발송 완료된 캠페인의 본문은 더 이상 필요 없으므로 캐시에서 제거합니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @return 이번 호출로 발송 완료 처리되었는지 여부
+     */
+    public boolean completeIfDrained(long campaignId) {
+        int updated = jdbcTemplate.update(
+            "UPDATE campaigns SET status = 'sent', completed_at = ? " +
+            "WHERE id = ? AND status = 'sending' AND queued_count <= 0",
+            Timestamp.from(Instant.now()), campaignId
+        );
+        if (updated > 0) {
+            contentCache.evict(campaignId);
+            log.info("Campaign ID={} completed", campaignId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 캠페인 진행 상황 조회
+     *
+     * 카운터 컬럼만 읽으므로 messages 테이블을 스캔하지 않습니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @return 진행 상황 (캠페인이 없으면 empty)
+     */
+    public Optional<CampaignProgress> findProgress(long campaignId) {
+        List<CampaignProgress> rows = jdbcTemplate.query(
+            "SELECT id, source, status, queued_count, sent_count, failed_count, dead_count, created_at, completed_at " +
+            "FROM campaigns WHERE id = ?",
+            (rs, rowNum) -> new CampaignProgress(
+                rs.getLong("id"),
+                rs.getString("source"),
+                rs.getString("status"),
+                rs.getInt("queued_count"),
+                rs.getInt("sent_count"),
+                rs.getInt("failed_count"),
+                rs.getInt("dead_count"),
+                rs.getString("created_at"),
+                rs.getString("completed_at")
+            ),
+            campaignId
+        );
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * 캠페인 대상 세그먼트 조회
+     *
+     * @param campaignId 캠페인 ID
+     * @return 세그먼트 식 (전체 대상이거나 캠페인이 없으면 null)
+     */
+    public String findSegment(long campaignId) {
+        List<String> rows = jdbcTemplate.queryForList(
+            "SELECT segment FROM campaigns WHERE id = ?",
+            String.class,
+            campaignId
+        );
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
     /**
      * 예약된 캠페인 목록 조회
      * 
      * @return 'scheduled' 상태인 캠페인 ID 리스트
      */
-    public java.util.List<Long> getScheduledCampaignIds() {
+    public List<Long> getScheduledCampaignIds() {
         return jdbcTemplate.queryForList(
             "SELECT id FROM campaigns WHERE status = 'scheduled' ORDER BY created_at ASC",
             Long.class
@@ -10,6 +10,18 @@ public class AppProps {
     private String apiBaseUrl;
     private String rssUrl;
     private Mail mail = new Mail();
+    private Release release = new Release();
+    private Delivery delivery = new Delivery();
+    private Wakeup wakeup = new Wakeup();
+    private Ingest ingest = new Ingest();
+    private Bounce bounce = new Bounce();
+    private Queue queue = new Queue();
+    private Leader leader = new Leader();
+    private Digest digest = new Digest();
+    private Tracking tracking = new Tracking();
+    private Jfr jfr = new Jfr();
+    private Dkim dkim = new Dkim();
+    private FanOut fanOut = new FanOut();
 
     public String getSiteUrl() { return siteUrl; }
     public void setSiteUrl(String siteUrl) { this.siteUrl = siteUrl; }
@@ -19,11 +31,346 @@ public class AppProps {
     public void setRssUrl(String rssUrl) { this.rssUrl = rssUrl; }
     public Mail getMail() { return mail; }
     public void setMail(Mail mail) { this.mail = mail; }
+    public Release getRelease() { return release; }
+    public void setRelease(Release release) { this.release = release; }
+    public Delivery getDelivery() { return delivery; }
+    public void setDelivery(Delivery delivery) { this.delivery = delivery; }
+    public Wakeup getWakeup() { return wakeup; }
+    public void setWakeup(Wakeup wakeup) { this.wakeup = wakeup; }
+    public Ingest getIngest() { return ingest; }
+    public void setIngest(Ingest ingest) { this.ingest = ingest; }
+    public Bounce getBounce() { return bounce; }
+    public void setBounce(Bounce bounce) { this.bounce = bounce; }
+    public Queue getQueue() { return queue; }
+    public void setQueue(Queue queue) { this.queue = queue; }
+    public Leader getLeader() { return leader; }
+    public void setLeader(Leader leader) { this.leader = leader; }
+    public Digest getDigest() { return digest; }
+    public void setDigest(Digest digest) { this.digest = digest; }
+    public Tracking getTracking() { return tracking; }
+    public void setTracking(Tracking tracking) { this.tracking = tracking; }
+    public Jfr getJfr() { return jfr; }
+    public void setJfr(Jfr jfr) { this.jfr = jfr; }
+    public Dkim getDkim() { return dkim; }
+    public void setDkim(Dkim dkim) { this.dkim = dkim; }
+    public FanOut getFanOut() { return fanOut; }
+    public void setFanOut(FanOut fanOut) { this.fanOut = fanOut; }
 
+    /**
+     * 메일 발송 설정
+     *
+     * ratePerSecond: SMTP 발송 한도 (초당 메시지 수, 0이면 제한 없음)
+     * burst: 한도 내에서 한 번에 보낼 수 있는 최대 메시지 수
+     * transactionalReserve: 트랜잭션 메일(구독 확인 등) 전용으로 남겨두는 메시지 수
+     * transactionalMinSharePercent: 전용 몫이 다시 채워지는 비율 (한도 대비 %, 전용 버킷이 가득 차면 대량 발송에 넘김)
+     * transactionalQueueCapacity: 트랜잭션 메일 대기열 최대 길이 (넘치는 요청은 버리고 로그)
+     * maxPreemptMs: 트랜잭션 메일 대기로 대량 발송 청크가 연속으로 기다리는 최대 시간
+     */
     public static class Mail {
         private String from;
+        private double ratePerSecond = 0;
+        private int burst = 20;
+        private int transactionalReserve = 5;
+        private int transactionalMinSharePercent = 10;
+        private int transactionalQueueCapacity = 1000;
+        private long maxPreemptMs = 2000;
+
         public String getFrom() { return from; }
         public void setFrom(String from) { this.from = from; }
+        public double getRatePerSecond() { return ratePerSecond; }
+        public void setRatePerSecond(double ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+        public int getTransactionalReserve() { return transactionalReserve; }
+        public void setTransactionalReserve(int transactionalReserve) { this.transactionalReserve = transactionalReserve; }
+        public int getTransactionalMinSharePercent() { return transactionalMinSharePercent; }
+        public void setTransactionalMinSharePercent(int transactionalMinSharePercent) { this.transactionalMinSharePercent = transactionalMinSharePercent; }
+        public int getTransactionalQueueCapacity() { return transactionalQueueCapacity; }
+        public void setTransactionalQueueCapacity(int transactionalQueueCapacity) { this.transactionalQueueCapacity = transactionalQueueCapacity; }
+        public long getMaxPreemptMs() { return maxPreemptMs; }
+        public void setMaxPreemptMs(long maxPreemptMs) { this.maxPreemptMs = maxPreemptMs; }
+    }
+
+    /**
+     * 캠페인 분산 발송 설정
+     *
+     * 팬아웃 시 수신자를 rampPercent 비율씩 rampIntervalMinutes 간격으로 나누어 발송 가능 시각을 지정합니다.
+     * windowMinutes가 설정되면 전체 발송이 그 시간 안에 끝나도록 간격당 비율을 늘리고,
+     * 방해 금지 시간(quietStartHour ~ quietEndHour)에는 발송 시각을 배정하지 않습니다.
+     */
+    public static class Release {
+        private String zone = "Asia/Seoul";
+        private int rampPercent = 100;
+        private int rampIntervalMinutes = 10;
+        private Integer windowMinutes;
+        private Integer quietStartHour;
+        private Integer quietEndHour;
+
+        public String getZone() { return zone; }
+        public void setZone(String zone) { this.zone = zone; }
+        public int getRampPercent() { return rampPercent; }
+        public void setRampPercent(int rampPercent) { this.rampPercent = rampPercent; }
+        public int getRampIntervalMinutes() { return rampIntervalMinutes; }
+        public void setRampIntervalMinutes(int rampIntervalMinutes) { this.rampIntervalMinutes = rampIntervalMinutes; }
+        public Integer getWindowMinutes() { return windowMinutes; }
+        public void setWindowMinutes(Integer windowMinutes) { this.windowMinutes = windowMinutes; }
+        public Integer getQuietStartHour() { return quietStartHour; }
+        public void setQuietStartHour(Integer quietStartHour) { this.quietStartHour = quietStartHour; }
+        public Integer getQuietEndHour() { return quietEndHour; }
+        public void setQuietEndHour(Integer quietEndHour) { this.quietEndHour = quietEndHour; }
+    }
+
+    /**
+     * 수신 도메인별 발송 설정
+     *
+     * 도메인마다 perDomainConcurrency 개의 SMTP 연결로 perDomainBatchSize 건씩 묶어 발송하고,
+     * 일시 거부된 도메인은 backoffSeconds 부터 maxBackoffMinutes 까지 2배씩 늘려가며 쉬게 합니다.
+     */
+    public static class Delivery {
+        private int maxConcurrency = 4;
+        private int perDomainConcurrency = 2;
+        private int perDomainBatchSize = 10;
+        private int backoffSeconds = 60;
+        private int maxBackoffMinutes = 30;
+
+        public int getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+        public int getPerDomainConcurrency() { return perDomainConcurrency; }
+        public void setPerDomainConcurrency(int perDomainConcurrency) { this.perDomainConcurrency = perDomainConcurrency; }
+        public int getPerDomainBatchSize() { return perDomainBatchSize; }
+        public void setPerDomainBatchSize(int perDomainBatchSize) { this.perDomainBatchSize = perDomainBatchSize; }
+        public int getBackoffSeconds() { return backoffSeconds; }
+        public void setBackoffSeconds(int backoffSeconds) { this.backoffSeconds = backoffSeconds; }
+        public int getMaxBackoffMinutes() { return maxBackoffMinutes; }
+        public void setMaxBackoffMinutes(int maxBackoffMinutes) { this.maxBackoffMinutes = maxBackoffMinutes; }
+    }
+
+    /**
+     * 발송 즉시 깨우기 설정
+     *
+     * listen=true이면 PostgreSQL LISTEN 전용 연결을 열어 다른 인스턴스의 팬아웃 알림을 받습니다.
+     */
+    public static class Wakeup {
+        private boolean listen = true;
+
+        public boolean isListen() { return listen; }
+        public void setListen(boolean listen) { this.listen = listen; }
+    }
+
+    /**
+     * 발행 알림(ingest) 설정
+     *
+     * secret: 요청 본문 HMAC-SHA256 서명 검증용 공유 비밀 (비어 있으면 엔드포인트 비활성화)
+     * fallbackPollMs: 발행 알림이 누락될 경우를 대비한 RSS 폴링 간격
+     */
+    public static class Ingest {
+        private String secret;
+        private long fallbackPollMs = 900_000;
+
+        public String getSecret() { return secret; }
+        public void setSecret(String secret) { this.secret = secret; }
+        public long getFallbackPollMs() { return fallbackPollMs; }
+        public void setFallbackPollMs(long fallbackPollMs) { this.fallbackPollMs = fallbackPollMs; }
+    }
+
+    /**
+     * 반송/스팸 신고 처리 설정
+     *
+     * maildir: MTA가 반송 보고서를 떨궈주는 Maildir 경로 (new/ 를 읽고 cur/ 로 이동)
+     * mbox: 반송 보고서가 쌓이는 mbox 파일 경로
+     * softBounceLimit: 일시 반송이 이 횟수에 도달하면 bounced 처리
+     * softBounceWindowDays: 직전 반송 후 이 기간 동안 반송이 없으면 일시 반송 횟수를 다시 셈
+     */
+    public static class Bounce {
+        private String maildir;
+        private String mbox;
+        private int softBounceLimit = 3;
+        private int softBounceWindowDays = 30;
+
+        public String getMaildir() { return maildir; }
+        public void setMaildir(String maildir) { this.maildir = maildir; }
+        public String getMbox() { return mbox; }
+        public void setMbox(String mbox) { this.mbox = mbox; }
+        public int getSoftBounceLimit() { return softBounceLimit; }
+        public void setSoftBounceLimit(int softBounceLimit) { this.softBounceLimit = softBounceLimit; }
+        public int getSoftBounceWindowDays() { return softBounceWindowDays; }
+        public void setSoftBounceWindowDays(int softBounceWindowDays) { this.softBounceWindowDays = softBounceWindowDays; }
+    }
+
+    /**
+     * 발송 메시지 큐 설정
+     *
+     * mode: jdbc (messages 테이블, 기본) 또는 mmap (로컬 로그 파일, 단일 인스턴스 전용)
+     * dir: mmap 세그먼트 파일 디렉터리
+     * segmentSizeMb: 세그먼트 파일 크기
+     * fsyncIntervalMs: 로그 변경을 디스크에 기록하는 간격
+     * checkpointIntervalMs: 최종 발송 결과를 DB에 기록하는 간격
+     */
+    public static class Queue {
+        private String mode = "jdbc";
+        private String dir = "./data/queue";
+        private int segmentSizeMb = 64;
+        private long fsyncIntervalMs = 200;
+        private long checkpointIntervalMs = 10_000;
+
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+        public String getDir() { return dir; }
+        public void setDir(String dir) { this.dir = dir; }
+        public int getSegmentSizeMb() { return segmentSizeMb; }
+        public void setSegmentSizeMb(int segmentSizeMb) { this.segmentSizeMb = segmentSizeMb; }
+        public long getFsyncIntervalMs() { return fsyncIntervalMs; }
+        public void setFsyncIntervalMs(long fsyncIntervalMs) { this.fsyncIntervalMs = fsyncIntervalMs; }
+        public long getCheckpointIntervalMs() { return checkpointIntervalMs; }
+        public void setCheckpointIntervalMs(long checkpointIntervalMs) { this.checkpointIntervalMs = checkpointIntervalMs; }
+    }
+
+    /**
+     * 스케줄러 리더 선출 설정
+     *
+     * leaseSeconds: 임대 유지 시간 (리더가 죽은 뒤 다른 인스턴스가 이어받기까지 걸리는 최대 시간)
+     * renewIntervalMs: 임대 갱신/획득 시도 간격 (leaseSeconds 보다 충분히 짧아야 함)
+     */
+    public static class Leader {
+        private boolean enabled = true;
+        private int leaseSeconds = 30;
+        private long renewIntervalMs = 10_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public int getLeaseSeconds() { return leaseSeconds; }
+        public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+        public long getRenewIntervalMs() { return renewIntervalMs; }
+        public void setRenewIntervalMs(long renewIntervalMs) { this.renewIntervalMs = renewIntervalMs; }
+    }
+
+    /**
+     * 다이제스트 발행 설정
+     *
+     * dailyCron/weeklyCron: 일간/주간 다이제스트 발행 시각 (release.zone 기준 cron)
+     */
+    public static class Digest {
+        private String dailyCron = "0 0 8 * * *";
+        private String weeklyCron = "0 0 8 * * MON";
+
+        public String getDailyCron() { return dailyCron; }
+        public void setDailyCron(String dailyCron) { this.dailyCron = dailyCron; }
+        public String getWeeklyCron() { return weeklyCron; }
+        public void setWeeklyCron(String weeklyCron) { this.weeklyCron = weeklyCron; }
+    }
+
+    /**
+     * 오픈/클릭 추적 설정
+     *
+     * secret: 수신자별 추적 토큰(HMAC) 서명 키 (비어 있으면 추적 링크를 넣지 않음)
+     * ringSize: 플러시 전까지 담아둘 수 있는 이벤트 수 (가득 차면 버림)
+     * flushIntervalMs: 모은 집계를 DB에 반영하는 간격
+     */
+    public static class Tracking {
+        private boolean enabled = true;
+        private String secret;
+        private int ringSize = 65_536;
+        private long flushIntervalMs = 10_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getSecret() { return secret; }
+        public void setSecret(String secret) { this.secret = secret; }
+        public int getRingSize() { return ringSize; }
+        public void setRingSize(int ringSize) { this.ringSize = ringSize; }
+        public long getFlushIntervalMs() { return flushIntervalMs; }
+        public void setFlushIntervalMs(long flushIntervalMs) { this.flushIntervalMs = flushIntervalMs; }
     }
-}
 
+    /**
+     * JFR(Flight Recorder) 상시 녹화 설정
+     *
+     * continuous: 기동 시 녹화 시작 (아니면 POST /api/jfr/start)
+     * settings: JDK 녹화 설정 이름 (default: 오버헤드 약 1%, profile: 더 상세)
+     * maxAgeMinutes/maxSizeMb: 디스크 버퍼에 유지할 최근 구간
+     * dir/maxDumps: 덤프 파일 위치와 보관 개수
+     * secret: 녹화 제어/덤프 요청 서명 검증용 HMAC 키 (비어 있으면 제어 API 비활성화)
+     * signatureMaxAgeSeconds: 서명에 포함된 X-Timestamp 허용 오차 (초, 이보다 오래된 요청은 재사용 불가)
+     */
+    public static class Jfr {
+        private boolean continuous = false;
+        private String secret;
+        private String settings = "default";
+        private int maxAgeMinutes = 60;
+        private int maxSizeMb = 64;
+        private String dir = "./data/jfr";
+        private int maxDumps = 3;
+        private long signatureMaxAgeSeconds = 300;
+
+        public boolean isContinuous() { return continuous; }
+        public void setContinuous(boolean continuous) { this.continuous = continuous; }
+        public String getSecret() { return secret; }
+        public void setSecret(String secret) { this.secret = secret; }
+        public String getSettings() { return settings; }
+        public void setSettings(String settings) { this.settings = settings; }
+        public int getMaxAgeMinutes() { return maxAgeMinutes; }
+        public void setMaxAgeMinutes(int maxAgeMinutes) { this.maxAgeMinutes = maxAgeMinutes; }
+        public int getMaxSizeMb() { return maxSizeMb; }
+        public void setMaxSizeMb(int maxSizeMb) { this.maxSizeMb = maxSizeMb; }
+        public String getDir() { return dir; }
+        public void setDir(String dir) { this.dir = dir; }
+        public int getMaxDumps() { return maxDumps; }
+        public void setMaxDumps(int maxDumps) { this.maxDumps = maxDumps; }
+        public long getSignatureMaxAgeSeconds() { return signatureMaxAgeSeconds; }
+        public void setSignatureMaxAgeSeconds(long signatureMaxAgeSeconds) { this.signatureMaxAgeSeconds = signatureMaxAgeSeconds; }
+    }
+
+    /**
+     * DKIM 서명 설정 (캠페인 메일)
+     *
+     * domain/selector: d=, s= 태그 (DNS TXT 레코드 selector._domainkey.domain 에 공개 키 등록)
+     * privateKey: PKCS#8 PEM 또는 base64 (없으면 privateKeyPath 파일에서 읽음)
+     */
+    public static class Dkim {
+        private boolean enabled = false;
+        private String domain;
+        private String selector;
+        private String privateKey;
+        private String privateKeyPath;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getDomain() { return domain; }
+        public void setDomain(String domain) { this.domain = domain; }
+        public String getSelector() { return selector; }
+        public void setSelector(String selector) { this.selector = selector; }
+        public String getPrivateKey() { return privateKey; }
+        public void setPrivateKey(String privateKey) { this.privateKey = privateKey; }
+        public String getPrivateKeyPath() { return privateKeyPath; }
+        public void setPrivateKeyPath(String privateKeyPath) { this.privateKeyPath = privateKeyPath; }
+    }
+
+    /**
+     * 팬아웃 작업 설정
+     *
+     * initialChunkSize: 첫 청크의 구독자 수 (이후 청크 처리 시간이 targetChunkMillis 에 맞도록 min~max 사이에서 조정)
+     * leaseSeconds: 작업 임대 시간 (실행 중인 인스턴스가 이 시간 안에 체크포인트를 남기지 않으면 다른 인스턴스가 이어받음)
+     * maxAttempts: 실패 후 재개를 시도할 최대 횟수 (초과 시 failed)
+     */
+    public static class FanOut {
+        private int initialChunkSize = 2000;
+        private int minChunkSize = 500;
+        private int maxChunkSize = 20_000;
+        private long targetChunkMillis = 2000;
+        private int leaseSeconds = 60;
+        private int maxAttempts = 5;
+
+        public int getInitialChunkSize() { return initialChunkSize; }
+        public void setInitialChunkSize(int initialChunkSize) { this.initialChunkSize = initialChunkSize; }
+        public int getMinChunkSize() { return minChunkSize; }
+        public void setMinChunkSize(int minChunkSize) { this.minChunkSize = minChunkSize; }
+        public int getMaxChunkSize() { return maxChunkSize; }
+        public void setMaxChunkSize(int maxChunkSize) { this.maxChunkSize = maxChunkSize; }
+        public long getTargetChunkMillis() { return targetChunkMillis; }
+        public void setTargetChunkMillis(long targetChunkMillis) { this.targetChunkMillis = targetChunkMillis; }
+        public int getLeaseSeconds() { return leaseSeconds; }
+        public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+    }
+}
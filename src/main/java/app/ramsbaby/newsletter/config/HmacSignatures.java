@@ -0,0 +1,62 @@
+package app.ramsbaby.newsletter.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * 요청 HMAC-SHA256 서명 검증 (X-Signature: sha256=&lt;hex&gt;)
+ *
+ * 발행 알림(/api/ingest)과 JFR 제어(/api/jfr) API가 함께 사용합니다.
+ * 무엇에 서명하는지(원본 본문, 경로+타임스탬프)는 호출하는 쪽이 정합니다.
+ */
+public final class HmacSignatures {
+
+    public static final String SIGNATURE_HEADER = "X-Signature";
+    public static final String SIGNATURE_PREFIX = "sha256=";
+
+    private HmacSignatures() {
+    }
+
+    /**
+     * 서명 검증
+     *
+     * @param secret       서명 키 (비어 있으면 해당 API 비활성화)
+     * @param signature    X-Signature 헤더 값
+     * @param payload      서명 대상 바이트
+     * @param disabledBody 키가 설정되지 않았을 때 503 응답 본문
+     * @return 검증 실패 시 응답 (503/401/500), 성공 시 null
+     */
+    public static ResponseEntity<?> verify(String secret, String signature, byte[] payload, String disabledBody) {
+        if (secret == null || secret.isBlank()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(disabledBody);
+        }
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            byte[] expected = sign(secret, payload);
+            byte[] actual = HexFormat.of().parseHex(signature.substring(SIGNATURE_PREFIX.length()));
+            // 상수 시간 비교 (타이밍 공격 방지)
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        return null;
+    }
+
+    private static byte[] sign(String secret, byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal(payload);
+    }
+}
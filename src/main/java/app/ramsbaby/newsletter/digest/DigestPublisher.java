@@ -0,0 +1,143 @@
+package app.ramsbaby.newsletter.digest;
+
+import app.ramsbaby.newsletter.campaign.CampaignProgress;
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.message.MessageService;
+import app.ramsbaby.newsletter.rss.PostPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 다이제스트 발행 처리
+ *
+ * 일간/주간 다이제스트 구독자에게 직전 다이제스트 이후 발행된 포스트를 모아 한 통으로 보냅니다.
+ * 다이제스트도 일반 캠페인(source = digest:모드:날짜)으로 만들어 기존 큐/발송 경로를 그대로 사용하므로,
+ * 포스트마다 구독자 수만큼 생기던 메시지 행과 SMTP 발송이 기간당 1건으로 줄어듭니다.
+ *
+ * source 기준으로 멱등하므로 같은 날 여러 번 실행되어도 한 번만 팬아웃됩니다.
+ * 세그먼트 대상 캠페인(campaigns.segment)은 대상이 아닌 구독자에게 가지 않도록 다이제스트에 넣지 않고,
+ * 대신 수신 방식과 무관하게 세그먼트 전체에 바로 발송됩니다 (MessageService.queueMessagesForCampaign).
+ */
+@Component
+public class DigestPublisher {
+    private static final Logger log = LoggerFactory.getLogger(DigestPublisher.class);
+
+    private static final String SOURCE_PREFIX = "digest:";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CampaignService campaignService;
+    private final MessageService messageService;
+    private final AppProps props;
+
+    public DigestPublisher(JdbcTemplate jdbcTemplate, CampaignService campaignService,
+                           MessageService messageService, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.campaignService = campaignService;
+        this.messageService = messageService;
+        this.props = props;
+    }
+
+    /**
+     * 다이제스트 발행
+     *
+     * @param mode 수신 방식 (daily, weekly)
+     * @return 큐잉된 메시지 수 (포스트가 없거나 이미 발행된 경우 0)
+     */
+    public int publish(String mode) {
+        Duration period = switch (mode) {
+            case "daily" -> Duration.ofDays(1);
+            case "weekly" -> Duration.ofDays(7);
+            default -> throw new IllegalArgumentException("Unknown digest mode: " + mode);
+        };
+        Instant now = Instant.now();
+        LocalDate date = LocalDate.ofInstant(now, ZoneId.of(props.getRelease().getZone()));
+        String source = SOURCE_PREFIX + mode + ":" + date;
+
+        // 기간의 양 끝은 모두 DB 시각 (포스트 campaigns.created_at 과 같은 시계)
+        // 이번 기간 끝을 다이제스트 캠페인에 기록해 두고 다음 기간의 시작으로 쓰므로 기간 사이에 빈틈이 없음
+        // (digest_until 이 없는 이전 다이제스트는 생성 시각으로 대신함)
+        Timestamp until = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+        Timestamp last = jdbcTemplate.queryForObject(
+            "SELECT MAX(COALESCE(digest_until, created_at)) FROM campaigns WHERE source LIKE ? AND source <> ?",
+            Timestamp.class,
+            SOURCE_PREFIX + mode + ":%", source
+        );
+        Timestamp since = last != null ? last : Timestamp.valueOf(until.toLocalDateTime().minus(period));
+
+        List<DigestItem> items = jdbcTemplate.query(
+            "SELECT source, subject FROM campaigns " +
+            "WHERE created_at > ? AND created_at <= ? AND source NOT LIKE ? AND segment IS NULL " +
+            "ORDER BY created_at",
+            (rs, rowNum) -> new DigestItem(rs.getString("source"), postTitle(rs.getString("subject"))),
+            since, until, SOURCE_PREFIX + "%"
+        );
+        if (items.isEmpty()) {
+            log.info("No posts since {} for {} digest, skipping", since, mode);
+            return 0;
+        }
+
+        String subject = ("daily".equals(mode) ? "[일간 다이제스트] " : "[주간 다이제스트] ")
+                + date + " 새 포스트 " + items.size() + "개";
+        long campaignId = campaignService.createCampaign(source, subject, buildEmailBody(mode, items));
+        // 이미 있던 다이제스트(재실행)는 처음 기록한 기간을 유지
+        jdbcTemplate.update("UPDATE campaigns SET digest_until = ? WHERE id = ? AND digest_until IS NULL",
+                until, campaignId);
+
+        // 이미 팬아웃이 끝난 다이제스트는 다시 큐잉하지 않음
+        String status = campaignService.findProgress(campaignId)
+                .map(CampaignProgress::status)
+                .orElse("scheduled");
+        if (!"scheduled".equals(status)) {
+            log.info("Digest campaign ID={} already {}, skipping fan-out", campaignId, status);
+            return 0;
+        }
+
+        int messageCount = messageService.queueMessagesForCampaign(campaignId, mode);
+        log.info("{} digest campaign created (ID={}) with {} posts, {} messages", mode, campaignId, items.size(), messageCount);
+        return messageCount;
+    }
+
+    private static String postTitle(String subject) {
+        return subject.startsWith(PostPublisher.SUBJECT_PREFIX)
+                ? subject.substring(PostPublisher.SUBJECT_PREFIX.length())
+                : subject;
+    }
+
+    /**
+     * 다이제스트 본문 생성 (포스트 이메일과 같은 스타일)
+     */
+    private String buildEmailBody(String mode, List<DigestItem> items) {
+        StringBuilder html = new StringBuilder();
+        html.append("<html><body style='font-family: sans-serif;'>");
+        html.append("<h2>").append("daily".equals(mode) ? "오늘의 새 포스트" : "이번 주 새 포스트").append("</h2>");
+
+        html.append("<ul style='padding-left:20px;'>");
+        for (DigestItem item : items) {
+            html.append("<li style='margin-bottom:12px;'>");
+            html.append("<a href='").append(item.link()).append("' style='color:#2563eb;'>");
+            html.append(item.title()).append("</a></li>");
+        }
+        html.append("</ul>");
+
+        html.append("<hr style='margin-top:32px;border:none;border-top:1px solid #e5e7eb;'>");
+        html.append("<p style='color:#6b7280;font-size:12px;'>");
+        html.append("이 이메일은 Ramsbaby 블로그 뉴스레터 다이제스트 구독자에게 발송되었습니다.<br>");
+        html.append("더 이상 받고 싶지 않으시면 <a href='{{unsubscribe_link}}'>구독 해제</a>를 클릭하세요.");
+        html.append("</p>");
+        html.append("</body></html>");
+
+        return html.toString();
+    }
+
+    private record DigestItem(String link, String title) {}
+}
@@ -0,0 +1,54 @@
+package app.ramsbaby.newsletter.digest;
+
+import app.ramsbaby.newsletter.leader.LeaderElection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 다이제스트 스케줄러
+ *
+ * 일간/주간 다이제스트를 정해진 시각(app.release.zone 기준)에 발행합니다.
+ * 여러 인스턴스가 떠 있어도 리더 인스턴스 하나만 실행합니다.
+ */
+@Component
+public class DigestScheduler {
+    private static final Logger log = LoggerFactory.getLogger(DigestScheduler.class);
+
+    private final DigestPublisher digestPublisher;
+    private final LeaderElection leaderElection;
+
+    public DigestScheduler(DigestPublisher digestPublisher, LeaderElection leaderElection) {
+        this.digestPublisher = digestPublisher;
+        this.leaderElection = leaderElection;
+    }
+
+    /**
+     * 일간 다이제스트 (기본 매일 08:00)
+     */
+    @Scheduled(cron = "${app.digest.dailyCron:0 0 8 * * *}", zone = "${app.release.zone:Asia/Seoul}")
+    public void daily() {
+        run("daily");
+    }
+
+    /**
+     * 주간 다이제스트 (기본 매주 월요일 08:00)
+     */
+    @Scheduled(cron = "${app.digest.weeklyCron:0 0 8 * * MON}", zone = "${app.release.zone:Asia/Seoul}")
+    public void weekly() {
+        run("weekly");
+    }
+
+    private void run(String mode) {
+        if (!leaderElection.isLeader()) {
+            log.debug("Not the scheduler leader, skipping {} digest", mode);
+            return;
+        }
+        try {
+            digestPublisher.publish(mode);
+        } catch (Exception e) {
+            log.error("{} digest failed: {}", mode, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 캠페인 생성(upsert) 구간
+ */
+@Name("app.ramsbaby.newsletter.CampaignCreate")
+@Label("Campaign Create")
+@Category({"Newsletter", "Campaign"})
+@Description("CampaignService.createCampaign 실행 시간")
+public class CampaignCreateEvent extends jdk.jfr.Event {
+    @Label("Campaign ID")
+    public long campaignId;
+
+    @Label("Source")
+    public String source;
+}
@@ -0,0 +1,34 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 커넥션 풀 대기
+ *
+ * Hikari 가 대기가 끝난 뒤에 알려주므로 이벤트 시간이 아닌 waitTime 필드에 대기 시간을 기록합니다.
+ */
+@Name("app.ramsbaby.newsletter.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Newsletter", "Database"})
+@Description("커넥션 풀에서 커넥션을 얻기까지 기다린 시간")
+public class ConnectionAcquireEvent extends jdk.jfr.Event {
+    @Label("Pool")
+    public String pool;
+
+    @Label("Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waitTime;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+
+    @Label("Active Connections")
+    public int activeConnections;
+
+    @Label("Pending Threads")
+    public int pendingThreads;
+}
@@ -0,0 +1,30 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 캠페인 팬아웃(메시지 큐잉) 구간
+ */
+@Name("app.ramsbaby.newsletter.FanOut")
+@Label("Fan-out")
+@Category({"Newsletter", "Campaign"})
+@Description("구독자 조회부터 메시지 큐잉까지 걸린 시간")
+public class FanOutEvent extends jdk.jfr.Event {
+    @Label("Campaign ID")
+    public long campaignId;
+
+    @Label("Delivery Mode")
+    public String deliveryMode;
+
+    @Label("Recipients")
+    public int recipients;
+
+    @Label("Suppressed")
+    public int suppressed;
+
+    @Label("Queued")
+    public int queued;
+}
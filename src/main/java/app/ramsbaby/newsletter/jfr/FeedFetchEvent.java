@@ -0,0 +1,24 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * RSS 피드 다운로드/파싱 구간
+ */
+@Name("app.ramsbaby.newsletter.FeedFetch")
+@Label("Feed Fetch")
+@Category({"Newsletter", "Ingest"})
+@Description("RSS 피드를 내려받아 파싱하는 데 걸린 시간")
+public class FeedFetchEvent extends jdk.jfr.Event {
+    @Label("URL")
+    public String url;
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,135 @@
+package app.ramsbaby.newsletter.jfr;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.config.HmacSignatures;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * JFR 녹화 제어
+ *
+ * 덤프에는 스레드/힙 정보 등이 담기므로 시작/중지/덤프 요청은 요청 경로와 타임스탬프에 대한
+ * HMAC-SHA256 서명(X-Signature: sha256=&lt;hex&gt;, 키는 app.jfr.secret)으로 인증합니다.
+ * X-Timestamp 는 epoch 초이며, app.jfr.signatureMaxAgeSeconds 보다 오래된 서명은 재사용할 수 없습니다.
+ * 예) POST /api/jfr/dump, X-Timestamp: 1792371600 은 "/api/jfr/dump\n1792371600" 에 대한 서명
+ */
+@RestController
+@RequestMapping("/api/jfr")
+public class JfrController {
+
+    private static final String TIMESTAMP_HEADER = "X-Timestamp";
+
+    private final JfrRecorder jfrRecorder;
+    private final AppProps props;
+
+    public JfrController(JfrRecorder jfrRecorder, AppProps props) {
+        this.jfrRecorder = jfrRecorder;
+        this.props = props;
+    }
+
+    /**
+     * 녹화 상태
+     *
+     * GET /api/jfr
+     */
+    @GetMapping
+    public ResponseEntity<?> status() {
+        return ResponseEntity.ok(Map.of("recording", jfrRecorder.isRecording()));
+    }
+
+    /**
+     * 상시 녹화 시작
+     *
+     * POST /api/jfr/start
+     *
+     * @return 201 Created (새로 시작), 200 OK (이미 녹화 중), 401 Unauthorized (서명 불일치)
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestHeader(value = HmacSignatures.SIGNATURE_HEADER, required = false) String signature,
+                                   @RequestHeader(value = TIMESTAMP_HEADER, required = false) String timestamp) {
+        ResponseEntity<?> denied = verify(signature, timestamp, "/api/jfr/start");
+        if (denied != null) {
+            return denied;
+        }
+        return jfrRecorder.start()
+                ? ResponseEntity.status(HttpStatus.CREATED).build()
+                : ResponseEntity.ok().build();
+    }
+
+    /**
+     * 녹화 중지
+     *
+     * POST /api/jfr/stop
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop(@RequestHeader(value = HmacSignatures.SIGNATURE_HEADER, required = false) String signature,
+                                  @RequestHeader(value = TIMESTAMP_HEADER, required = false) String timestamp) {
+        ResponseEntity<?> denied = verify(signature, timestamp, "/api/jfr/stop");
+        if (denied != null) {
+            return denied;
+        }
+        jfrRecorder.stop();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 최근 녹화 구간 덤프 및 다운로드
+     *
+     * POST /api/jfr/dump
+     *
+     * @return 200 OK (.jfr 파일), 401 Unauthorized (서명 불일치), 409 Conflict (녹화 중이 아님)
+     */
+    @PostMapping("/dump")
+    public ResponseEntity<?> dump(@RequestHeader(value = HmacSignatures.SIGNATURE_HEADER, required = false) String signature,
+                                  @RequestHeader(value = TIMESTAMP_HEADER, required = false) String timestamp)
+            throws IOException {
+        ResponseEntity<?> denied = verify(signature, timestamp, "/api/jfr/dump");
+        if (denied != null) {
+            return denied;
+        }
+        if (!jfrRecorder.isRecording()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("JFR 녹화 중이 아닙니다. POST /api/jfr/start 로 시작하세요.");
+        }
+        Path file = jfrRecorder.dump();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * 요청 서명 검증
+     *
+     * 서명 대상은 "경로\n타임스탬프" 이고, 타임스탬프가 허용 범위를 벗어나면 서명이 맞아도 거부합니다.
+     *
+     * @return 검증 실패 시 응답, 성공 시 null
+     */
+    private ResponseEntity<?> verify(String signature, String timestamp, String path) {
+        ResponseEntity<?> denied = HmacSignatures.verify(props.getJfr().getSecret(), signature,
+                (path + "\n" + timestamp).getBytes(StandardCharsets.UTF_8), "JFR 제어 API가 설정되지 않았습니다.");
+        if (denied != null) {
+            return denied;
+        }
+        long signedAt;
+        try {
+            signedAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        long skew = Math.abs(Instant.now().getEpochSecond() - signedAt);
+        if (skew > props.getJfr().getSignatureMaxAgeSeconds()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("요청 타임스탬프가 만료되었습니다.");
+        }
+        return null;
+    }
+}
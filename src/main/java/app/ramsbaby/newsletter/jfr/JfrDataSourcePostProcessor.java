@@ -0,0 +1,22 @@
+package app.ramsbaby.newsletter.jfr;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 애플리케이션 DataSource(Hikari)에 JFR 커넥션 대기 추적기 연결
+ *
+ * 풀은 첫 getConnection 때 시작되므로 빈 초기화 전에 설정하면 됩니다.
+ */
+@Component
+public class JfrDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            dataSource.setMetricsTrackerFactory(new JfrMetricsTrackerFactory());
+        }
+        return bean;
+    }
+}
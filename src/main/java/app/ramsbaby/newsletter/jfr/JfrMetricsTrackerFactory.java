@@ -0,0 +1,41 @@
+package app.ramsbaby.newsletter.jfr;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Hikari 커넥션 대기를 JFR 이벤트로 기록
+ *
+ * 녹화 중이 아니면 이벤트 생성 외의 비용은 없습니다.
+ */
+final class JfrMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                commit(elapsedAcquiredNanos, false);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                commit(-1, true);
+            }
+
+            private void commit(long waitNanos, boolean timedOut) {
+                ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+                if (!event.isEnabled()) {
+                    return;
+                }
+                event.pool = poolName;
+                event.waitTime = waitNanos;
+                event.timedOut = timedOut;
+                event.activeConnections = poolStats.getActiveConnections();
+                event.pendingThreads = poolStats.getPendingThreads();
+                event.commit();
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package app.ramsbaby.newsletter.jfr;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 상시 JFR 녹화 관리
+ *
+ * JDK 기본 설정(default, 오버헤드 약 1%)과 뉴스레터 파이프라인 이벤트를 최근 maxAgeMinutes 만큼만 디스크 버퍼에 유지하고,
+ * 느려진 뒤에 dump() 로 그 구간을 파일로 남겨 사후 분석합니다 (JDK Mission Control 등으로 열람).
+ * app.jfr.continuous=true 이면 기동 시 시작하고, 아니면 start() 로 필요할 때 시작합니다.
+ *
+ * 환경 변수, 시스템 속성, JVM/프로세스 실행 인자를 담는 JDK 이벤트는 DB/메일 비밀번호, DKIM 키 등이
+ * 덤프 파일에 그대로 남으므로 녹화하지 않습니다.
+ */
+@Component
+public class JfrRecorder {
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+
+    // 비밀 값이 들어갈 수 있는 JDK 이벤트
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty",
+            "jdk.JVMInformation", "jdk.SystemProcess", "jdk.ProcessStart");
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final AppProps.Jfr props;
+    private Recording recording;
+
+    public JfrRecorder(AppProps props) {
+        this.props = props.getJfr();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (props.isContinuous()) {
+            start();
+        }
+    }
+
+    /**
+     * 상시 녹화 시작 (이미 녹화 중이면 그대로 둠)
+     *
+     * @return 새로 시작했으면 true
+     */
+    public synchronized boolean start() {
+        if (isRecording()) {
+            return false;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(props.getSettings()));
+            r.setName("newsletter");
+            r.setToDisk(true);
+            r.setMaxAge(Duration.ofMinutes(props.getMaxAgeMinutes()));
+            r.setMaxSize(props.getMaxSizeMb() * 1024L * 1024L);
+            for (Class<? extends jdk.jfr.Event> type : List.of(
+                    FeedFetchEvent.class, CampaignCreateEvent.class, FanOutEvent.class,
+                    SendBatchEvent.class, SmtpSendEvent.class, ConnectionAcquireEvent.class)) {
+                r.enable(type).withoutThreshold();
+            }
+            for (String name : SENSITIVE_EVENTS) {
+                r.disable(name);
+            }
+            r.start();
+            recording = r;
+            log.info("JFR continuous recording started (settings={}, maxAge={}m, maxSize={}MB)",
+                    props.getSettings(), props.getMaxAgeMinutes(), props.getMaxSizeMb());
+            return true;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Failed to load JFR settings '" + props.getSettings() + "'", e);
+        }
+    }
+
+    /**
+     * 녹화 중지 (버퍼는 버림)
+     */
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("JFR continuous recording stopped");
+        }
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    /**
+     * 현재까지의 녹화 내용을 파일로 저장
+     *
+     * 오래된 덤프는 maxDumps 개만 남기고 지웁니다.
+     *
+     * @return 덤프 파일 경로
+     * @throws IllegalStateException 녹화 중이 아닌 경우
+     */
+    public synchronized Path dump() throws IOException {
+        if (!isRecording()) {
+            throw new IllegalStateException("JFR recording is not running");
+        }
+        Path dir = Paths.get(props.getDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve("newsletter-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        recording.dump(file);
+        log.info("JFR recording dumped to {} ({} bytes)", file, Files.size(file));
+        pruneDumps(dir);
+        return file;
+    }
+
+    private void pruneDumps(Path dir) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dir)) {
+            dumps = files.filter(p -> p.getFileName().toString().endsWith(".jfr")).sorted().toList();
+        }
+        for (int i = 0; i < dumps.size() - props.getMaxDumps(); i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 발송 배치 1회 구간 (큐 조회 ~ 결과 기록)
+ */
+@Name("app.ramsbaby.newsletter.SendBatch")
+@Label("Send Batch")
+@Category({"Newsletter", "Delivery"})
+@Description("MessageService.sendQueuedMessages 한 번의 실행 시간과 결과")
+public class SendBatchEvent extends jdk.jfr.Event {
+    @Label("Campaign ID")
+    @Description("배치의 메시지가 모두 같은 캠페인이면 그 ID, 여러 캠페인이 섞여 있으면 0")
+    public long campaignId;
+
+    @Label("Campaigns")
+    public int campaigns;
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Sent")
+    public int sent;
+
+    @Label("Retried")
+    public int retried;
+
+    @Label("Dead")
+    public int dead;
+
+    @Label("Suppressed")
+    public int suppressed;
+
+    @Label("Deferred")
+    public int deferred;
+}
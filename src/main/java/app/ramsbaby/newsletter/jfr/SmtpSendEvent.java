@@ -0,0 +1,25 @@
+package app.ramsbaby.newsletter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SMTP 발송 구간 (연결 1회에 보낸 메시지 묶음)
+ */
+@Name("app.ramsbaby.newsletter.SmtpSend")
+@Label("SMTP Send")
+@Category({"Newsletter", "Delivery"})
+@Description("JavaMailSender 가 한 SMTP 연결로 메시지를 보내는 데 걸린 시간")
+public class SmtpSendEvent extends jdk.jfr.Event {
+    @Label("Recipient Domain")
+    @Description("첫 메시지의 수신 도메인 (캠페인 발송은 도메인별로 묶여 있음)")
+    public String domain;
+
+    @Label("Messages")
+    public int messages;
+
+    @Label("Failures")
+    public int failures;
+}
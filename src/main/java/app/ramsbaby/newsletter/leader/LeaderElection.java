@@ -0,0 +1,165 @@
+package app.ramsbaby.newsletter.leader;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 임대(lease) 행 기반 리더 선출
+ *
+ * 모든 인스턴스가 주기적으로 leader_leases 행을 갱신하려고 시도하며,
+ * 현재 보유자이거나 임대가 만료된 경우에만 성공합니다. 만료 판단은 DB 시계(NOW())로 하므로
+ * 인스턴스 간 시계 차이의 영향을 받지 않습니다.
+ *
+ * - 리더가 죽으면 임대 만료(leaseSeconds) 후 다음 갱신 주기에 다른 인스턴스가 이어받음
+ * - 정상 종료 시에는 임대를 바로 반납하여 다음 갱신 주기에 넘어감
+ * - DB 연결이 끊긴 리더는 임대가 만료되기 전에 스스로 리더 자격을 내려놓음
+ *
+ * 갱신은 @Scheduled 공용 스레드가 아닌 전용 스레드에서 실행합니다. 다른 스케줄 작업(RSS 폴링, 아카이브 등)이
+ * 오래 걸려도 갱신이 밀려 임대가 만료되지 않도록 하기 위함입니다. 오래 걸리는 리더 전용 작업은
+ * 작업 단위마다 isLeader()를 다시 확인하여, 도중에 리더 자격을 잃으면 멈춥니다.
+ *
+ * 세션 단위 advisory lock은 트랜잭션 풀러(6543)에서 유지되지 않으므로 임대 행을 사용합니다.
+ * PostgreSQL이 아닌 환경(H2/SQLite 로컬 실행)에서는 단일 인스턴스로 보고 항상 리더입니다.
+ */
+@Component
+public class LeaderElection {
+    private static final Logger log = LoggerFactory.getLogger(LeaderElection.class);
+
+    // 스케줄러 작업 전체에 하나의 임대를 사용
+    private static final String LEASE_NAME = "scheduler";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppProps.Leader props;
+    private final boolean postgres;
+    private final String instanceId;
+
+    // 임대 갱신 전용 스레드
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "leader-lease");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 리더 자격 유효 시각 (로컬 단조 시계 기준)
+    private volatile long leaderUntilNanos;
+    private volatile boolean leader;
+
+    public LeaderElection(JdbcTemplate jdbcTemplate, Environment environment, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.props = props.getLeader();
+        this.postgres = environment.getProperty("spring.datasource.url", "").startsWith("jdbc:postgresql:");
+        this.instanceId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 현재 인스턴스가 리더인지 여부
+     */
+    public boolean isLeader() {
+        if (!postgres || !props.isEnabled()) {
+            return true;
+        }
+        return leader && System.nanoTime() - leaderUntilNanos < 0;
+    }
+
+    /**
+     * 인스턴스 ID (호스트명 + 임의 접미사, 다른 임대 행의 보유자 표시에도 사용)
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * 임대 갱신 시작
+     *
+     * - 초기 지연: 5초
+     * - 반복 간격: app.leader.renewIntervalMs (기본 10초)
+     */
+    @PostConstruct
+    public void start() {
+        if (!postgres || !props.isEnabled()) {
+            return;
+        }
+        renewer.scheduleWithFixedDelay(this::renew, 5_000, props.getRenewIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 임대 획득/갱신
+     */
+    void renew() {
+        if (!postgres || !props.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            int updated = jdbcTemplate.update(
+                "INSERT INTO leader_leases(name, holder, expires_at) VALUES(?, ?, NOW() + ? * INTERVAL '1 second') " +
+                "ON CONFLICT (name) DO UPDATE SET " +
+                "  expires_at = EXCLUDED.expires_at, " +
+                "  acquired_at = CASE WHEN leader_leases.holder = EXCLUDED.holder THEN leader_leases.acquired_at ELSE NOW() END, " +
+                "  holder = EXCLUDED.holder " +
+                "WHERE leader_leases.holder = EXCLUDED.holder OR leader_leases.expires_at < NOW()",
+                LEASE_NAME, instanceId, props.getLeaseSeconds()
+            );
+            acquired = updated > 0;
+        } catch (Exception e) {
+            // 갱신 여부를 알 수 없으므로 기존 임대가 만료될 때까지만 리더 유지
+            log.warn("Leader lease renewal failed: {}", e.getMessage());
+            return;
+        }
+
+        if (acquired) {
+            // 요청 시작 시각 기준으로 계산하여 DB의 만료 시각보다 항상 먼저 끝나도록 함
+            long margin = Math.max(1, props.getLeaseSeconds() / 5);
+            leaderUntilNanos = started + (props.getLeaseSeconds() - margin) * 1_000_000_000L;
+        }
+        if (acquired != leader) {
+            leader = acquired;
+            log.info(acquired ? "Became scheduler leader ({})" : "Lost scheduler leadership ({})", instanceId);
+        }
+    }
+
+    /**
+     * 정상 종료 시 임대 반납 (다른 인스턴스가 만료를 기다리지 않고 이어받도록)
+     */
+    @PreDestroy
+    public void release() {
+        // 진행 중인 갱신이 반납 뒤에 임대를 다시 잡지 않도록 먼저 멈춤
+        renewer.shutdownNow();
+        try {
+            renewer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!postgres || !leader) {
+            return;
+        }
+        leader = false;
+        try {
+            jdbcTemplate.update("DELETE FROM leader_leases WHERE name = ? AND holder = ?", LEASE_NAME, instanceId);
+            log.info("Released scheduler leadership ({})", instanceId);
+        } catch (Exception e) {
+            log.warn("Failed to release leader lease: {}", e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package app.ramsbaby.newsletter.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 캠페인 MIME 본문 템플릿 (multipart/alternative, quoted-printable)
+ *
+ * 캠페인당 한 번 인코딩해두고 수신자별로는 자리표시자 값만 인코딩해 끼워 넣습니다.
+ * 고정 구간과 값 구간은 모두 줄 경계에서 나뉘므로(소프트 줄바꿈) 값이 달라도 고정 구간의 바이트는 변하지 않고,
+ * DKIM 본문 해시도 고정 구간은 캠페인당 한 번만 정규화하면 됩니다.
+ */
+final class BodyTemplate {
+    private final String boundary;
+    // fixed.length == slots.length + 1, fixed[i] 뒤에 slots[i] 값이 옴
+    private final byte[][] fixed;
+    private final String[] slots;
+
+    private BodyTemplate(String boundary, byte[][] fixed, String[] slots) {
+        this.boundary = boundary;
+        this.fixed = fixed;
+        this.slots = slots;
+    }
+
+    /**
+     * 템플릿 생성
+     *
+     * @param boundary MIME 경계 (quoted-printable 출력에 나올 수 없는 "=_" 로 시작)
+     * @param text 텍스트 본문 (자리표시자 없음)
+     * @param html HTML 본문
+     * @param placeholders html 에서 수신자별로 치환할 자리표시자
+     */
+    static BodyTemplate build(String boundary, String text, String html, List<String> placeholders) {
+        List<String> htmlParts = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int next = -1;
+            String found = null;
+            for (String placeholder : placeholders) {
+                int at = html.indexOf(placeholder, from);
+                if (at >= 0 && (next < 0 || at < next)) {
+                    next = at;
+                    found = placeholder;
+                }
+            }
+            if (found == null) {
+                htmlParts.add(html.substring(from));
+                break;
+            }
+            htmlParts.add(html.substring(from, next));
+            slotNames.add(found);
+            from = next + found.length();
+        }
+
+        byte[][] fixed = new byte[htmlParts.size()][];
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        write(first, "--" + boundary + "\r\n"
+                + "Content-Type: text/plain; charset=UTF-8\r\n"
+                + "Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+        first.writeBytes(QuotedPrintable.encode(text, false));
+        write(first, "\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/html; charset=UTF-8\r\n"
+                + "Content-Transfer-Encoding: quoted-printable\r\n\r\n");
+        for (int i = 0; i < htmlParts.size(); i++) {
+            boolean last = i == htmlParts.size() - 1;
+            ByteArrayOutputStream out = i == 0 ? first : new ByteArrayOutputStream();
+            out.writeBytes(QuotedPrintable.encode(htmlParts.get(i), !last));
+            if (last) {
+                write(out, "\r\n--" + boundary + "--\r\n");
+            }
+            fixed[i] = out.toByteArray();
+        }
+        return new BodyTemplate(boundary, fixed, slotNames.toArray(new String[0]));
+    }
+
+    private static void write(ByteArrayOutputStream out, String ascii) {
+        out.writeBytes(ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 수신자별 값 인코딩 (slots 순서)
+     *
+     * @param values 자리표시자별 값 조회
+     */
+    byte[][] encodeValues(java.util.function.Function<String, String> values) {
+        byte[][] encoded = new byte[slots.length][];
+        for (int i = 0; i < slots.length; i++) {
+            // 같은 자리표시자는 여러 번 나오므로 먼저 인코딩한 값을 재사용
+            for (int j = 0; j < i; j++) {
+                if (slots[j].equals(slots[i])) {
+                    encoded[i] = encoded[j];
+                    break;
+                }
+            }
+            if (encoded[i] == null) {
+                encoded[i] = QuotedPrintable.encode(values.apply(slots[i]), true);
+            }
+        }
+        return encoded;
+    }
+
+    String contentType() {
+        return "multipart/alternative; boundary=\"" + boundary + "\"";
+    }
+
+    byte[][] fixed() {
+        return fixed;
+    }
+}
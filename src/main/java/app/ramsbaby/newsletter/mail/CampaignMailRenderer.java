@@ -0,0 +1,124 @@
+package app.ramsbaby.newsletter.mail;
+
+import app.ramsbaby.newsletter.campaign.CampaignContent;
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.tracking.TrackedLinks;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 캠페인 메일 생성 (HTML + 텍스트 대체 본문)
+ *
+ * 캠페인 본문은 캠페인마다 한 번만 MIME 인코딩(과 DKIM 본문 해시 준비)을 해두고,
+ * 수신자마다 구독자 ID, 추적 토큰, 구독 해제 링크만 인코딩해 끼워 넣습니다.
+ */
+@Component
+public class CampaignMailRenderer {
+    private static final String UNSUBSCRIBE_PLACEHOLDER = "{{unsubscribe_link}}";
+    private static final List<String> PLACEHOLDERS =
+            List.of(TrackedLinks.SUBSCRIBER_PLACEHOLDER, TrackedLinks.TOKEN_PLACEHOLDER, UNSUBSCRIBE_PLACEHOLDER);
+
+    // 동시에 발송 중인 캠페인 수보다 넉넉하게
+    private static final int MAX_PREPARED = 16;
+
+    private final JavaMailSender mailSender;
+    private final DkimSigner dkimSigner;
+    private final TrackedLinks trackedLinks;
+    private final AppProps props;
+
+    // 캠페인 ID -> 준비된 본문 (LRU, 접근 순서)
+    private final Map<Long, PreparedBody> prepared = new LinkedHashMap<>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PreparedBody> eldest) {
+            return size() > MAX_PREPARED;
+        }
+    };
+
+    public CampaignMailRenderer(JavaMailSender mailSender, DkimSigner dkimSigner, TrackedLinks trackedLinks,
+                                AppProps props) {
+        this.mailSender = mailSender;
+        this.dkimSigner = dkimSigner;
+        this.trackedLinks = trackedLinks;
+        this.props = props;
+    }
+
+    /**
+     * 수신자용 메일 생성
+     *
+     * @throws MailPreparationException 수신 주소가 올바르지 않은 경우 등
+     */
+    public MimeMessage render(CampaignContent content, long subscriberId, String email) {
+        PreparedBody body = prepare(content);
+        String unsubscribeLink = unsubscribeLink(email);
+        String trackingToken = trackedLinks.token(content.id(), subscriberId);
+        byte[][] values = body.template().encodeValues(placeholder -> switch (placeholder) {
+            case UNSUBSCRIBE_PLACEHOLDER -> unsubscribeLink;
+            case TrackedLinks.TOKEN_PLACEHOLDER -> trackingToken;
+            default -> Long.toString(subscriberId);
+        });
+
+        MimeMessage mail = new CampaignMimeMessage(session(), body.template(), values, dkimSigner, body.bodyHash());
+        try {
+            if (props.getMail().getFrom() != null) {
+                mail.setFrom(new InternetAddress(props.getMail().getFrom()));
+            }
+            mail.setRecipient(Message.RecipientType.TO, new InternetAddress(email));
+            mail.setSubject(content.subject(), "UTF-8");
+            mail.setHeader("List-Unsubscribe", "<" + unsubscribeLink + ">");
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Failed to build mail for " + email + ": " + e.getMessage(), e);
+        }
+        return mail;
+    }
+
+    /**
+     * 캠페인 본문 준비 (캐시된 본문 객체가 바뀌었으면 다시 준비)
+     */
+    private PreparedBody prepare(CampaignContent content) {
+        synchronized (prepared) {
+            PreparedBody body = prepared.get(content.id());
+            if (body != null && body.content() == content) {
+                return body;
+            }
+        }
+        // 경계 문자열 "=_" 는 quoted-printable 출력에 나올 수 없음
+        String boundary = "=_campaign_" + content.id() + "_" + Integer.toHexString(content.html().hashCode());
+        BodyTemplate template = BodyTemplate.build(boundary, content.text(), content.html(), PLACEHOLDERS);
+        PreparedBody body = new PreparedBody(content, template,
+                dkimSigner.isEnabled() ? dkimSigner.prepare(template) : null);
+        synchronized (prepared) {
+            prepared.put(content.id(), body);
+        }
+        return body;
+    }
+
+    private Session session() {
+        if (mailSender instanceof JavaMailSenderImpl impl) {
+            return impl.getSession();
+        }
+        return Session.getInstance(new Properties());
+    }
+
+    private String unsubscribeLink(String email) {
+        String base = props.getApiBaseUrl() != null ? props.getApiBaseUrl() : props.getSiteUrl();
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(email.getBytes(StandardCharsets.UTF_8));
+        return base + "/api/subscribers/unsubscribe?token=" + token;
+    }
+
+    private record PreparedBody(CampaignContent content, BodyTemplate template, DkimSigner.BodyHash bodyHash) {}
+}
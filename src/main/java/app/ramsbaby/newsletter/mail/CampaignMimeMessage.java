@@ -0,0 +1,79 @@
+package app.ramsbaby.newsletter.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * 캠페인 본문 템플릿으로 쓰는 MimeMessage
+ *
+ * 본문은 캠페인당 한 번 인코딩한 고정 구간 사이에 수신자별 값만 끼워 그대로 내보냅니다.
+ * DKIM 서명은 Date/Message-ID 가 정해진 뒤(발송 직전 writeTo)에 한 번만 만들어 맨 앞 헤더로 씁니다.
+ */
+class CampaignMimeMessage extends MimeMessage {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final BodyTemplate template;
+    private final byte[][] values;
+    private final DkimSigner signer;
+    private final DkimSigner.BodyHash bodyHash;
+    private String dkimSignature;
+
+    CampaignMimeMessage(Session session, BodyTemplate template, byte[][] values,
+                        DkimSigner signer, DkimSigner.BodyHash bodyHash) {
+        super(session);
+        this.template = template;
+        this.values = values;
+        this.signer = signer;
+        this.bodyHash = bodyHash;
+    }
+
+    @Override
+    protected void updateHeaders() throws MessagingException {
+        setHeader("MIME-Version", "1.0");
+        setHeader("Content-Type", template.contentType());
+        if (getHeader("Message-ID") == null) {
+            updateMessageID();
+        }
+        dkimSignature = null;
+    }
+
+    @Override
+    public void writeTo(OutputStream os, String[] ignoreList) throws IOException, MessagingException {
+        if (!saved) {
+            saveChanges();
+        }
+        List<String> headerLines = new ArrayList<>();
+        Enumeration<String> lines = getNonMatchingHeaderLines(ignoreList);
+        while (lines.hasMoreElements()) {
+            headerLines.add(lines.nextElement());
+        }
+        if (bodyHash != null) {
+            if (dkimSignature == null) {
+                dkimSignature = signer.sign(headerLines, signer.bodyHash(bodyHash, values));
+            }
+            os.write(("DKIM-Signature: " + dkimSignature).getBytes(StandardCharsets.US_ASCII));
+            os.write(CRLF);
+        }
+        for (String line : headerLines) {
+            os.write(line.getBytes(StandardCharsets.UTF_8));
+            os.write(CRLF);
+        }
+        os.write(CRLF);
+
+        byte[][] fixed = template.fixed();
+        os.write(fixed[0]);
+        for (int i = 0; i < values.length; i++) {
+            os.write(values[i]);
+            os.write(fixed[i + 1]);
+        }
+        os.flush();
+    }
+}
@@ -0,0 +1,28 @@
+package app.ramsbaby.newsletter.mail;
+
+/**
+ * 발송 레인 통계 응답용 DTO
+ *
+ * @param lane 레인 이름 (transactional, bulk)
+ * @param submitted 발송 요청된 메시지 수
+ * @param sent 발송 성공 수
+ * @param failed 발송 실패 수 (rejected 포함)
+ * @param rejected 대기열이 가득 차 버린 메시지 수 (트랜잭션 레인)
+ * @param waiting 현재 한도를 기다리는 메시지 수 (트랜잭션 레인)
+ * @param avgQueueMs 요청부터 SMTP 발송 시작까지 평균 대기 시간
+ * @param p95QueueMs 대기 시간 95 백분위 (근사, 2의 거듭제곱 구간 상한)
+ * @param maxQueueMs 최대 대기 시간
+ * @param avgSendMs SMTP 발송 1회 평균 시간
+ */
+public record LaneStats(
+        String lane,
+        long submitted,
+        long sent,
+        long failed,
+        long rejected,
+        int waiting,
+        long avgQueueMs,
+        long p95QueueMs,
+        long maxQueueMs,
+        long avgSendMs
+) {}
@@ -18,7 +18,7 @@ public class MailConfig {
 
     @Bean
     public JavaMailSender javaMailSender() {
-        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        JavaMailSenderImpl sender = new TracingJavaMailSender();
 
         String host = firstNonEmpty(
                 environment.getProperty("spring.mail.host"),
@@ -0,0 +1,343 @@
+package app.ramsbaby.newsletter.mail;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 우선순위 발송 레인 (트랜잭션 메일 / 대량 캠페인 메일)
+ *
+ * 모든 SMTP 발송은 이 클래스를 거치며, 같은 SMTP 발송 한도(ratePerSecond)를 두 레인이 나눠 씁니다.
+ * - 예약 용량: 트랜잭션 메일 전용 버킷(transactionalReserve 통)이 따로 있어, 대량 발송이 한도를 다 써도 바로 보낼 수 있음
+ * - 최소 몫: 전용 버킷은 전체 한도의 transactionalMinSharePercent 비율로 다시 채워짐
+ *   (전용 버킷이 가득 차 있으면 그 몫은 공유 버킷으로 넘어가므로, 트랜잭션 메일이 없을 때는 대량 발송이 한도를 모두 씀)
+ * - 선점: 트랜잭션 메일이 대기 중이면 대량 발송은 다음 청크를 시작하지 않고 기다림
+ *   (단, maxPreemptMs 동안 계속 선점당한 청크는 그대로 보내 대량 발송이 멈추지 않도록 함)
+ * - 트랜잭션 대기열은 transactionalQueueCapacity 통으로 제한하고, 넘치는 요청은 버리고 로그만 남김
+ *   (인증 없는 구독 신청이 몰려도 대기열과 선점이 끝없이 늘지 않도록)
+ *
+ * 트랜잭션 메일은 전용 스레드에서 비동기로 보내므로 진행 중인 캠페인 배치가 끝나기를 기다리지 않습니다.
+ * ratePerSecond 가 0이면 한도 없이 선점만 적용합니다.
+ */
+@Component
+public class MailLanes {
+    private static final Logger log = LoggerFactory.getLogger(MailLanes.class);
+
+    // 한도 대기 중 토큰 재확인 최대 간격
+    private static final long MAX_WAIT_MS = 50;
+
+    private final JavaMailSender mailSender;
+    private final AppProps.Mail props;
+    private final ThreadPoolExecutor transactionalExecutor;
+
+    private final Object lock = new Object();
+    // 공유 버킷 / 트랜잭션 전용 버킷 (lock 으로 보호)
+    private double sharedTokens;
+    private double reservedTokens;
+    private long lastRefillNanos = System.nanoTime();
+    // 제출되었지만 아직 토큰을 받지 못한 트랜잭션 메일 수
+    private int transactionalWaiting;
+
+    private final LaneMetrics transactional = new LaneMetrics("transactional");
+    private final LaneMetrics bulk = new LaneMetrics("bulk");
+
+    public MailLanes(JavaMailSender mailSender, AppProps props) {
+        this.mailSender = mailSender;
+        this.props = props.getMail();
+        this.sharedTokens = this.props.getBurst();
+        this.reservedTokens = this.props.getTransactionalReserve();
+        // 대기열이 가득 차면 execute 가 RejectedExecutionException 을 던짐 (submitTransactional 에서 처리)
+        this.transactionalExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, this.props.getTransactionalQueueCapacity())), r -> {
+            Thread t = new Thread(r, "mail-transactional");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        transactionalExecutor.shutdown();
+        try {
+            // 대기 중인 확인 메일은 가능한 한 보내고 종료
+            transactionalExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 트랜잭션 메일 발송 요청 (구독 확인, 해제 안내 등)
+     *
+     * 바로 반환하고 전용 스레드에서 보냅니다. 발송 실패와 대기열 초과는 로그만 남깁니다.
+     */
+    public void submitTransactional(SimpleMailMessage message) {
+        long submitted = System.nanoTime();
+        transactional.submitted.incrementAndGet();
+        synchronized (lock) {
+            transactionalWaiting++;
+        }
+        try {
+            transactionalExecutor.execute(() -> send(message, submitted));
+        } catch (RejectedExecutionException e) {
+            // 대기열 초과 또는 종료 중: 대기 수를 되돌려 대량 발송이 영원히 기다리지 않도록 함
+            synchronized (lock) {
+                transactionalWaiting--;
+                lock.notifyAll();
+            }
+            transactional.failed.incrementAndGet();
+            transactional.rejected.incrementAndGet();
+            log.warn("Transactional mail to {} rejected ({}): {} already queued",
+                    String.join(",", message.getTo()),
+                    transactionalExecutor.isShutdown() ? "shutting down" : "queue full",
+                    transactionalExecutor.getQueue().size());
+        }
+    }
+
+    private void send(SimpleMailMessage message, long submitted) {
+        try {
+            acquireTransactional();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            transactional.failed.incrementAndGet();
+            return;
+        }
+        long started = System.nanoTime();
+        transactional.recordQueue(started - submitted);
+        try {
+            mailSender.send(message);
+            transactional.sent.incrementAndGet();
+        } catch (Exception e) {
+            transactional.failed.incrementAndGet();
+            log.warn("Transactional mail to {} failed: {}", String.join(",", message.getTo()), e.getMessage());
+        } finally {
+            transactional.recordSend(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * 대량 메일 발송 (호출 스레드에서 한 SMTP 연결로 보냄)
+     *
+     * 한도가 찰 때까지, 또는 트랜잭션 메일이 대기 중이면 그동안 기다립니다 (선점 대기는 최대 maxPreemptMs).
+     *
+     * @throws MailException 발송 실패 (기다리는 도중 인터럽트된 경우 포함)
+     */
+    public void sendBulk(MimeMessage... messages) throws MailException {
+        long submitted = System.nanoTime();
+        bulk.submitted.addAndGet(messages.length);
+        try {
+            acquireBulk(messages.length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            bulk.failed.addAndGet(messages.length);
+            throw new MailSendException("Interrupted while waiting for bulk lane");
+        }
+        long started = System.nanoTime();
+        bulk.recordQueue(started - submitted);
+        try {
+            mailSender.send(messages);
+            bulk.sent.addAndGet(messages.length);
+        } catch (MailSendException e) {
+            int failed = e.getFailedMessages().isEmpty() ? messages.length : e.getFailedMessages().size();
+            bulk.failed.addAndGet(failed);
+            bulk.sent.addAndGet(messages.length - failed);
+            throw e;
+        } catch (MailException e) {
+            bulk.failed.addAndGet(messages.length);
+            throw e;
+        } finally {
+            bulk.recordSend(System.nanoTime() - started);
+        }
+    }
+
+    private void acquireTransactional() throws InterruptedException {
+        synchronized (lock) {
+            try {
+                while (true) {
+                    refill();
+                    if (props.getRatePerSecond() <= 0) {
+                        return;
+                    }
+                    if (reservedTokens >= 1) {
+                        reservedTokens -= 1;
+                        return;
+                    }
+                    if (sharedTokens >= 1) {
+                        sharedTokens -= 1;
+                        return;
+                    }
+                    lock.wait(waitMillis(1 - sharedTokens, props.getRatePerSecond()));
+                }
+            } finally {
+                transactionalWaiting--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void acquireBulk(int count) throws InterruptedException {
+        synchronized (lock) {
+            // 이 시각이 지나면 트랜잭션 메일이 대기 중이어도 이 청크는 진행 (대량 발송 최소 몫)
+            long preemptDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getMaxPreemptMs());
+            while (true) {
+                refill();
+                boolean preempted = transactionalWaiting > 0 && System.nanoTime() - preemptDeadline < 0;
+                if (!preempted) {
+                    if (props.getRatePerSecond() <= 0) {
+                        return;
+                    }
+                    // 청크가 버킷보다 크면 가득 찼을 때 보내고 초과분은 빚으로 남김
+                    double needed = Math.min(count, props.getBurst());
+                    if (sharedTokens >= needed) {
+                        sharedTokens -= count;
+                        return;
+                    }
+                    lock.wait(waitMillis(needed - sharedTokens, bulkRate()));
+                } else {
+                    // 트랜잭션 메일 선점: 토큰을 받아 갈 때까지 대기 (acquireTransactional 이 깨움)
+                    lock.wait(MAX_WAIT_MS);
+                }
+            }
+        }
+    }
+
+    /**
+     * 경과 시간만큼 두 버킷을 다시 채움 (lock 안에서 호출)
+     *
+     * 전용 버킷에 들어가지 못한 몫은 공유 버킷으로 넘겨 한도를 버리지 않습니다.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        double seconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+        if (props.getRatePerSecond() <= 0) {
+            return;
+        }
+        double reservedRefill = seconds * reservedRate();
+        double toReserved = Math.min(reservedRefill, Math.max(0, props.getTransactionalReserve() - reservedTokens));
+        reservedTokens += toReserved;
+        double overflow = reservedRefill - toReserved;
+        sharedTokens = Math.min(props.getBurst(), sharedTokens + seconds * sharedRate() + overflow);
+    }
+
+    private double reservedRate() {
+        return props.getRatePerSecond() * props.getTransactionalMinSharePercent() / 100.0;
+    }
+
+    private double sharedRate() {
+        return props.getRatePerSecond() - reservedRate();
+    }
+
+    /**
+     * 대량 발송이 받는 토큰 속도 (전용 버킷이 가득 차 있으면 전체 한도)
+     */
+    private double bulkRate() {
+        return reservedTokens >= props.getTransactionalReserve() ? props.getRatePerSecond() : sharedRate();
+    }
+
+    private static long waitMillis(double deficit, double rate) {
+        if (rate <= 0) {
+            return MAX_WAIT_MS;
+        }
+        return Math.max(1, Math.min(MAX_WAIT_MS, (long) Math.ceil(deficit / rate * 1000)));
+    }
+
+    /**
+     * 레인별 발송량과 대기/발송 지연 통계
+     */
+    public List<LaneStats> stats() {
+        int waiting;
+        synchronized (lock) {
+            waiting = transactionalWaiting;
+        }
+        return List.of(transactional.snapshot(waiting), bulk.snapshot(0));
+    }
+
+    /**
+     * 레인 지연 통계 (밀리초 단위 2의 거듭제곱 구간 히스토그램)
+     */
+    private static final class LaneMetrics {
+        private static final int BUCKETS = 24;
+
+        private final String lane;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong queueCount = new AtomicLong();
+        private final AtomicLong queueNanos = new AtomicLong();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+        private final AtomicLongArray queueHistogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong sendCount = new AtomicLong();
+        private final AtomicLong sendNanos = new AtomicLong();
+
+        private LaneMetrics(String lane) {
+            this.lane = lane;
+        }
+
+        private void recordQueue(long nanos) {
+            queueCount.incrementAndGet();
+            queueNanos.addAndGet(nanos);
+            maxQueueNanos.accumulateAndGet(nanos, Math::max);
+            long millis = nanos / 1_000_000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+            queueHistogram.incrementAndGet(bucket);
+        }
+
+        private void recordSend(long nanos) {
+            sendCount.incrementAndGet();
+            sendNanos.addAndGet(nanos);
+        }
+
+        /**
+         * 대기 시간 백분위 (해당 구간의 상한, 밀리초)
+         */
+        private long queuePercentileMs(double percentile) {
+            long total = queueCount.get();
+            if (total == 0) {
+                return 0;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += queueHistogram.get(i);
+                if (seen >= threshold) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return maxQueueNanos.get() / 1_000_000;
+        }
+
+        private LaneStats snapshot(int waiting) {
+            long queued = queueCount.get();
+            long sends = sendCount.get();
+            return new LaneStats(
+                lane,
+                submitted.get(),
+                sent.get(),
+                failed.get(),
+                rejected.get(),
+                waiting,
+                queued > 0 ? queueNanos.get() / queued / 1_000_000 : 0,
+                queuePercentileMs(0.95),
+                maxQueueNanos.get() / 1_000_000,
+                sends > 0 ? sendNanos.get() / sends / 1_000_000 : 0
+            );
+        }
+    }
+}
@@ -2,7 +2,6 @@ package app.ramsbaby.newsletter.mail;
 
 import app.ramsbaby.newsletter.config.AppProps;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
@@ -10,11 +9,11 @@ import java.util.Base64;
 
 @Service
 public class MailService {
-    private final JavaMailSender mailSender;
+    private final MailLanes mailLanes;
     private final AppProps props;
 
-    public MailService(JavaMailSender mailSender, AppProps props) {
-        this.mailSender = mailSender;
+    public MailService(MailLanes mailLanes, AppProps props) {
+        this.mailLanes = mailLanes;
         this.props = props;
     }
 
@@ -42,8 +41,9 @@ public class MailService {
         safeSend(msg);
     }
 
+    // 트랜잭션 레인으로 비동기 발송 (캠페인 발송 중에도 우선 처리, 실패는 MailLanes 에서 로그)
     private void safeSend(SimpleMailMessage msg) {
-        try { mailSender.send(msg); } catch (Exception ignored) {}
+        mailLanes.submitTransactional(msg);
     }
 
     private String issueToken(String email) {
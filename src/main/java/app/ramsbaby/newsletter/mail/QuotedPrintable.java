@@ -0,0 +1,65 @@
+package app.ramsbaby.newsletter.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Quoted-Printable 인코더 (RFC 2045)
+ *
+ * 캠페인 본문을 직접 인코딩해 수신자와 무관하게 같은 바이트가 나오도록 하는 데 사용합니다.
+ * 줄바꿈(\n, \r\n)은 CRLF로 유지하고, 한 줄은 76자를 넘지 않도록 소프트 줄바꿈(=CRLF)을 넣습니다.
+ */
+final class QuotedPrintable {
+    private static final int MAX_LINE = 76;
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private QuotedPrintable() {}
+
+    /**
+     * UTF-8로 인코딩
+     *
+     * @param text 원문
+     * @param softBreakAtEnd 끝에 소프트 줄바꿈을 붙일지 여부 (뒤에 이어질 구간이 새 줄에서 시작하도록)
+     */
+    static byte[] encode(String text, boolean softBreakAtEnd) {
+        byte[] in = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length + in.length / 4 + 8);
+        int col = 0;
+        for (int i = 0; i < in.length; i++) {
+            int b = in[i] & 0xFF;
+            if (b == '\r' && i + 1 < in.length && in[i + 1] == '\n') {
+                continue;
+            }
+            if (b == '\n') {
+                out.write('\r');
+                out.write('\n');
+                col = 0;
+                continue;
+            }
+            boolean lineEnd = i + 1 == in.length || in[i + 1] == '\r' || in[i + 1] == '\n';
+            boolean literal = (b >= 33 && b <= 126 && b != '=') || ((b == ' ' || b == '\t') && !lineEnd);
+            int width = literal ? 1 : 3;
+            // 줄 끝의 '=' 자리를 남겨둠
+            if (col + width > MAX_LINE - 1) {
+                out.write('=');
+                out.write('\r');
+                out.write('\n');
+                col = 0;
+            }
+            if (literal) {
+                out.write(b);
+            } else {
+                out.write('=');
+                out.write(HEX[b >> 4]);
+                out.write(HEX[b & 0x0F]);
+            }
+            col += width;
+        }
+        if (softBreakAtEnd && col > 0) {
+            out.write('=');
+            out.write('\r');
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+}
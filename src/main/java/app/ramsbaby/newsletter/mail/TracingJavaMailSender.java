@@ -0,0 +1,55 @@
+package app.ramsbaby.newsletter.mail;
+
+import app.ramsbaby.newsletter.jfr.SmtpSendEvent;
+import jakarta.mail.Address;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Locale;
+
+/**
+ * SMTP 발송 구간을 JFR 이벤트로 기록하는 JavaMailSender
+ *
+ * doSend 는 send 호출 한 번(SMTP 연결 한 번)마다 실행되며, 캠페인/트랜잭션 메일 모두 이 경로를 지납니다.
+ */
+class TracingJavaMailSender extends JavaMailSenderImpl {
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        SmtpSendEvent event = new SmtpSendEvent();
+        if (!event.isEnabled()) {
+            super.doSend(mimeMessages, originalMessages);
+            return;
+        }
+        event.begin();
+        event.messages = mimeMessages.length;
+        event.domain = mimeMessages.length > 0 ? recipientDomain(mimeMessages[0]) : null;
+        try {
+            super.doSend(mimeMessages, originalMessages);
+        } catch (MailSendException e) {
+            event.failures = e.getFailedMessages().isEmpty() ? mimeMessages.length : e.getFailedMessages().size();
+            throw e;
+        } catch (MailException e) {
+            event.failures = mimeMessages.length;
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static String recipientDomain(MimeMessage message) {
+        try {
+            Address[] recipients = message.getAllRecipients();
+            if (recipients != null && recipients.length > 0 && recipients[0] instanceof InternetAddress address) {
+                String email = address.getAddress();
+                return email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+            }
+        } catch (Exception ignored) {
+            // 통계용이므로 무시
+        }
+        return null;
+    }
+}
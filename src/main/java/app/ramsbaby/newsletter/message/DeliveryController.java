@@ -0,0 +1,42 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.mail.MailLanes;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/delivery")
+public class DeliveryController {
+
+    private final DomainShardDispatcher dispatcher;
+    private final MailLanes mailLanes;
+
+    public DeliveryController(DomainShardDispatcher dispatcher, MailLanes mailLanes) {
+        this.dispatcher = dispatcher;
+        this.mailLanes = mailLanes;
+    }
+
+    /**
+     * 수신 도메인별 발송 통계
+     *
+     * GET /api/delivery/domains
+     *
+     * @return 도메인별 발송/실패/연기 건수, 평균 발송 시간, 백오프 종료 시각
+     */
+    @GetMapping("/domains")
+    public ResponseEntity<?> domains() {
+        return ResponseEntity.ok(dispatcher.stats());
+    }
+
+    /**
+     * 발송 레인별 통계 (트랜잭션 / 대량)
+     *
+     * GET /api/delivery/lanes
+     *
+     * @return 레인별 발송/실패 건수, 대기 중인 메시지 수, 대기 시간(평균/p95/최대), 평균 발송 시간
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<?> lanes() {
+        return ResponseEntity.ok(mailLanes.stats());
+    }
+}
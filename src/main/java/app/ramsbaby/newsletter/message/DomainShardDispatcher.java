@@ -0,0 +1,342 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.mail.MailLanes;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.eclipse.angus.mail.util.MailConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 수신 도메인별 샤딩 발송기
+ *
+ * 배치를 수신자 도메인별로 나누어 도메인마다 동시 발송 수를 제한하고,
+ * 도메인 단위로 SMTP 연결을 재사용하며(청크 단위 일괄 발송),
+ * 일시 거부(4xx)가 발생한 도메인만 지수 백오프로 잠시 쉬게 합니다.
+ * 느린 도메인이 다른 도메인의 발송을 막지 않도록 도메인 간에는 라운드로빈으로 스케줄링합니다.
+ * SMTP 발송은 MailLanes 의 대량(bulk) 레인을 거치므로 트랜잭션 메일이 대기 중이면 청크 사이에서 양보합니다.
+ */
+@Component
+public class DomainShardDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(DomainShardDispatcher.class);
+
+    // 연결 직후 인사 응답이 220 이 아닐 때 SMTP 트랜스포트가 던지는 예외 메시지 ("..., response: 421 ...")
+    private static final String BAD_GREETING = "Got bad greeting";
+    private static final Pattern GREETING_REPLY = Pattern.compile(", response: (\\d{3})\\b");
+
+    private final MailLanes mailLanes;
+    private final AppProps.Delivery props;
+    private final ExecutorService executor;
+    private final Map<String, DomainShard> shards = new ConcurrentHashMap<>();
+
+    public DomainShardDispatcher(MailLanes mailLanes, AppProps props) {
+        this.mailLanes = mailLanes;
+        this.props = props.getDelivery();
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, this.props.getMaxConcurrency()), r -> {
+            Thread t = new Thread(r, "mail-shard-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 메시지 일괄 발송
+     *
+     * @param deliveries 발송할 메시지 목록
+     * @return 메시지별 발송 결과
+     */
+    public DispatchResult dispatch(List<Delivery> deliveries) {
+        DispatchResult result = new DispatchResult();
+        if (deliveries.isEmpty()) {
+            return result;
+        }
+
+        // 도메인별 청크 큐 구성
+        Map<String, Queue<List<Delivery>>> chunksByDomain = new LinkedHashMap<>();
+        Map<String, List<Delivery>> byDomain = new LinkedHashMap<>();
+        for (Delivery d : deliveries) {
+            byDomain.computeIfAbsent(domainOf(d.email()), k -> new ArrayList<>()).add(d);
+        }
+        int chunkSize = Math.max(1, props.getPerDomainBatchSize());
+        for (Map.Entry<String, List<Delivery>> entry : byDomain.entrySet()) {
+            Queue<List<Delivery>> chunks = new ConcurrentLinkedQueue<>();
+            List<Delivery> list = entry.getValue();
+            for (int i = 0; i < list.size(); i += chunkSize) {
+                chunks.add(list.subList(i, Math.min(i + chunkSize, list.size())));
+            }
+            chunksByDomain.put(entry.getKey(), chunks);
+        }
+
+        // 도메인별 레인 작업을 라운드로빈 순서로 제출 (각 도메인의 첫 레인이 먼저 실행됨)
+        int perDomain = Math.max(1, props.getPerDomainConcurrency());
+        List<Callable<Void>> lanes = new ArrayList<>();
+        for (int lane = 0; lane < perDomain; lane++) {
+            for (Map.Entry<String, Queue<List<Delivery>>> entry : chunksByDomain.entrySet()) {
+                int chunkCount = (byDomain.get(entry.getKey()).size() + chunkSize - 1) / chunkSize;
+                if (lane < chunkCount) {
+                    String domain = entry.getKey();
+                    Queue<List<Delivery>> chunks = entry.getValue();
+                    lanes.add(() -> {
+                        runLane(shard(domain), chunks, result);
+                        return null;
+                    });
+                }
+            }
+        }
+
+        try {
+            executor.invokeAll(lanes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Dispatch interrupted, unsent messages stay queued");
+        }
+        return result;
+    }
+
+    /**
+     * 도메인 레인: 도메인의 청크를 하나씩 꺼내 한 SMTP 연결로 발송
+     *
+     * 도중에 도메인이 백오프 상태가 되면 남은 청크는 발송하지 않고 연기합니다.
+     */
+    private void runLane(DomainShard shard, Queue<List<Delivery>> chunks, DispatchResult result) {
+        List<Delivery> chunk;
+        while ((chunk = chunks.poll()) != null) {
+            Instant backoffUntil = shard.backoffUntil;
+            if (backoffUntil != null && backoffUntil.isAfter(Instant.now())) {
+                for (Delivery d : chunk) {
+                    result.deferred.put(d.messageId(), backoffUntil);
+                }
+                shard.deferred.addAndGet(chunk.size());
+                continue;
+            }
+            sendChunk(shard, chunk, result);
+        }
+    }
+
+    private void sendChunk(DomainShard shard, List<Delivery> chunk, DispatchResult result) {
+        MimeMessage[] mails = chunk.stream().map(Delivery::mail).toArray(MimeMessage[]::new);
+        long started = System.nanoTime();
+        Map<Object, Exception> failures;
+        try {
+            mailLanes.sendBulk(mails);
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(chunk, e) : e.getFailedMessages();
+        } catch (Exception e) {
+            failures = allFailed(chunk, e);
+        }
+        shard.sendNanos.addAndGet(System.nanoTime() - started);
+
+        List<Delivery> throttled = new ArrayList<>();
+        for (Delivery d : chunk) {
+            Exception error = failures.get(d.mail());
+            if (error == null) {
+                result.sent.add(d.messageId());
+                shard.sent.incrementAndGet();
+            } else if (isTransient(error)) {
+                throttled.add(d);
+            } else {
+                result.failed.put(d.messageId(), String.valueOf(error.getMessage()));
+                shard.failed.incrementAndGet();
+            }
+        }
+
+        if (!throttled.isEmpty()) {
+            // 일시 거부된 메시지는 백오프가 끝난 뒤 다시 발송 대상이 됨
+            Instant until = shard.backOff(props);
+            for (Delivery d : throttled) {
+                result.deferred.put(d.messageId(), until);
+            }
+            shard.deferred.addAndGet(throttled.size());
+            log.warn("Domain {} deferred delivery, backing off until {}", shard.domain, until);
+        } else if (failures.isEmpty()) {
+            shard.consecutiveDeferrals = 0;
+        }
+        log.info("Domain {}: sent {}/{} messages in one connection", shard.domain, chunk.size() - failures.size(), chunk.size());
+    }
+
+    private static Map<Object, Exception> allFailed(List<Delivery> chunk, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        for (Delivery d : chunk) {
+            failures.put(d.mail(), e);
+        }
+        return failures;
+    }
+
+    /**
+     * SMTP 4xx 응답(일시 거부/스로틀링) 또는 연결 실패 여부
+     *
+     * 메시지 문자열이 아니라 SMTP 예외의 응답 코드로 판단합니다 (포트 번호나 주소에 든 숫자를 오인하지 않도록).
+     * 연결 시 인사 응답 거부(421 등)는 응답 코드가 메시지에만 있으므로 "response:" 뒤의 코드만 읽고,
+     * 서버에 연결하지 못한 경우(연결 거부/시간 초과/DNS 실패)는 일시 장애로 보고 도메인을 쉬게 합니다.
+     * 발송 실패 예외는 수신자별 예외를 다음 예외(cause)로 이어 붙이므로 체인 전체를 확인합니다.
+     */
+    static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            int code = replyCode(t);
+            if (code >= 400 && code < 500) {
+                return true;
+            }
+            if (t instanceof MailConnectException || t instanceof ConnectException
+                    || t instanceof SocketTimeoutException || t instanceof UnknownHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * SMTP 응답 코드 (SMTP 응답이 담긴 예외가 아니면 -1)
+     */
+    private static int replyCode(Throwable t) {
+        if (t instanceof MessagingException e && e.getMessage() != null && e.getMessage().startsWith(BAD_GREETING)) {
+            Matcher m = GREETING_REPLY.matcher(e.getMessage());
+            return m.find() ? Integer.parseInt(m.group(1)) : -1;
+        }
+        if (t instanceof SMTPSendFailedException e) {
+            return e.getReturnCode();
+        }
+        if (t instanceof SMTPAddressFailedException e) {
+            return e.getReturnCode();
+        }
+        if (t instanceof SMTPSenderFailedException e) {
+            return e.getReturnCode();
+        }
+        return -1;
+    }
+
+    private DomainShard shard(String domain) {
+        return shards.computeIfAbsent(domain, DomainShard::new);
+    }
+
+    /**
+     * 이메일 주소의 도메인 (소문자)
+     */
+    static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return at < 0 ? "" : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 도메인별 발송 통계 (발송량 많은 순)
+     */
+    public List<DomainStats> stats() {
+        List<DomainStats> stats = new ArrayList<>();
+        for (DomainShard shard : shards.values()) {
+            long sent = shard.sent.get();
+            Instant backoffUntil = shard.backoffUntil;
+            stats.add(new DomainStats(
+                shard.domain,
+                sent,
+                shard.failed.get(),
+                shard.deferred.get(),
+                sent > 0 ? shard.sendNanos.get() / sent / 1_000_000 : 0,
+                backoffUntil != null && backoffUntil.isAfter(Instant.now()) ? backoffUntil.toString() : null
+            ));
+        }
+        stats.sort(Comparator.comparingLong(DomainStats::sent).reversed());
+        return stats;
+    }
+
+    /**
+     * 발송 요청 단위
+     */
+    public record Delivery(long messageId, String email, MimeMessage mail) {}
+
+    /**
+     * 발송 결과
+     *
+     * - sent: 발송 성공한 메시지 ID
+     * - failed: 발송 실패한 메시지 ID와 오류
+     * - deferred: 도메인 백오프로 발송하지 않은 메시지 ID와 다시 시도할 시각
+     */
+    public static final class DispatchResult {
+        private final Set<Long> sent = ConcurrentHashMap.newKeySet();
+        private final Map<Long, String> failed = new ConcurrentHashMap<>();
+        private final Map<Long, Instant> deferred = new ConcurrentHashMap<>();
+
+        public boolean isSent(long messageId) { return sent.contains(messageId); }
+        public String failure(long messageId) { return failed.get(messageId); }
+        public Instant deferredUntil(long messageId) { return deferred.get(messageId); }
+    }
+
+    /**
+     * 도메인별 발송 통계 응답용 DTO
+     */
+    public record DomainStats(
+        String domain,
+        long sent,
+        long failed,
+        long deferred,
+        long avgSendMillis,
+        String backoffUntil
+    ) {}
+
+    /**
+     * 도메인 샤드 상태
+     */
+    private static final class DomainShard {
+        private final String domain;
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong deferred = new AtomicLong();
+        private final AtomicLong sendNanos = new AtomicLong();
+        private volatile Instant backoffUntil;
+        private volatile int consecutiveDeferrals;
+
+        private DomainShard(String domain) {
+            this.domain = domain;
+        }
+
+        /**
+         * 연속 일시 거부 횟수에 따라 백오프 시간을 2배씩 늘림 (최대값 제한)
+         */
+        private synchronized Instant backOff(AppProps.Delivery props) {
+            consecutiveDeferrals++;
+            Duration base = Duration.ofSeconds(Math.max(1, props.getBackoffSeconds()));
+            Duration max = Duration.ofMinutes(Math.max(1, props.getMaxBackoffMinutes()));
+            Duration delay = base.multipliedBy(1L << Math.min(consecutiveDeferrals - 1, 16));
+            if (delay.compareTo(max) > 0) {
+                delay = max;
+            }
+            backoffUntil = Instant.now().plus(delay);
+            return backoffUntil;
+        }
+    }
+}
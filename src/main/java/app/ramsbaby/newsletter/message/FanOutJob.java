@@ -0,0 +1,26 @@
+package app.ramsbaby.newsletter.message;
+
+/**
+ * 팬아웃 작업 진행 상황 응답용 DTO
+ *
+ * position/totalRecipients 로 진행률을, lastSubscriberId 로 재개 위치를 알 수 있습니다.
+ */
+public record FanOutJob(
+        long campaignId,
+        String deliveryMode,
+        String status,
+        int totalRecipients,
+        int position,
+        long lastSubscriberId,
+        int queued,
+        int suppressed,
+        int chunkSize,
+        int chunks,
+        int attempts,
+        String leaseOwner,
+        String leaseUntil,
+        String error,
+        String startedAt,
+        String updatedAt,
+        String completedAt
+) {}
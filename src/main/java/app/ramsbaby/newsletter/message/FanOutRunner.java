@@ -0,0 +1,476 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.jfr.FanOutEvent;
+import app.ramsbaby.newsletter.leader.LeaderElection;
+import app.ramsbaby.newsletter.segment.SegmentIndex;
+import app.ramsbaby.newsletter.suppression.SuppressionList;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 재개 가능한 팬아웃 작업
+ *
+ * 구독자를 ID 순으로 청크 단위로 읽어 큐잉하고, 청크마다 마지막 구독자 ID와 순번을 fanout_jobs 에 기록합니다.
+ * 실행 중인 인스턴스는 체크포인트마다 작업 임대(lease)를 갱신하며, 인스턴스가 도중에 종료되어 임대가 만료되면
+ * 리더 인스턴스가 마지막 체크포인트 다음 구독자부터 이어서 큐잉합니다.
+ *
+ * - 청크의 큐잉 수 반영(campaigns.queued_count)과 체크포인트는 한 트랜잭션으로 기록하고, jdbc 큐는 메시지 INSERT 도
+ *   같은 트랜잭션에 묶이므로 도중에 종료되면 청크 전체가 롤백됨
+ * - 체크포인트 전에 종료되어 다시 처리하는 청크는 큐의 중복 제거로 메시지가 두 번 생기지 않고,
+ *   이전 시도에서 이미 큐에 들어간 메시지(mmap 큐)도 카운터에는 반영된 적이 없으므로 큐잉 수에 포함
+ * - 분산 발송 계획은 작업 시작 시각과 전체 수신자 수로 만들고 순번을 이어가므로, 재개해도 발송 시각이 같음
+ * - 청크 크기는 청크 처리 시간이 targetChunkMillis 에 가깝도록 청크마다 조정
+ * - 캠페인은 작업이 끝난 뒤에만 발송 단계(sending)로 전환되므로 팬아웃 도중에 완료 처리되지 않음
+ * - 세그먼트 캠페인은 다이제스트에 들어가지 않으므로 수신 방식 ALL_MODES 작업 하나로 세그먼트 전체에 큐잉
+ */
+@Service
+public class FanOutRunner {
+    private static final Logger log = LoggerFactory.getLogger(FanOutRunner.class);
+
+    // 수신 방식과 무관하게 대상 전체 (세그먼트 캠페인 전용)
+    public static final String ALL_MODES = "all";
+
+    // 청크 하나에서 크기를 바꾸는 최대 배율 (일시적인 지연에 과하게 반응하지 않도록)
+    private static final double MAX_RESIZE_FACTOR = 2.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CampaignService campaignService;
+    private final ReleasePlanner releasePlanner;
+    private final SendWakeup sendWakeup;
+    private final SuppressionList suppressionList;
+    private final MessageQueue messageQueue;
+    private final SegmentIndex segmentIndex;
+    private final LeaderElection leaderElection;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProps.FanOut props;
+
+    // 종료 중이면 진행 중인 작업은 현재 청크까지만 처리하고 임대를 반납
+    private volatile boolean stopping;
+
+    public FanOutRunner(JdbcTemplate jdbcTemplate, CampaignService campaignService,
+                        ReleasePlanner releasePlanner, SendWakeup sendWakeup,
+                        SuppressionList suppressionList, MessageQueue messageQueue,
+                        SegmentIndex segmentIndex, LeaderElection leaderElection,
+                        TransactionTemplate transactionTemplate, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.campaignService = campaignService;
+        this.releasePlanner = releasePlanner;
+        this.sendWakeup = sendWakeup;
+        this.suppressionList = suppressionList;
+        this.messageQueue = messageQueue;
+        this.segmentIndex = segmentIndex;
+        this.leaderElection = leaderElection;
+        this.transactionTemplate = transactionTemplate;
+        this.props = props.getFanOut();
+    }
+
+    /**
+     * 팬아웃 작업 실행 (없으면 생성, 있으면 마지막 체크포인트부터 재개)
+     *
+     * 다른 인스턴스가 실행 중이거나 이미 끝난 작업이면 아무것도 하지 않습니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @param deliveryMode 수신 방식 (immediate, daily, weekly, 세그먼트 캠페인은 ALL_MODES 가능)
+     * @return 작업 전체에서 큐잉된 메시지 수 (실행하지 않았으면 0)
+     * @throws IllegalArgumentException 세그먼트가 없는 캠페인에 ALL_MODES 를 지정한 경우
+     */
+    public int run(long campaignId, String deliveryMode) {
+        // 이미 아카이브된 캠페인은 다시 큐잉하지 않음 (중복 발송 방지)
+        Integer archived = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM campaigns WHERE id = ? AND archived_at IS NOT NULL",
+            Integer.class,
+            campaignId
+        );
+        if (archived != null && archived > 0) {
+            log.warn("Campaign ID={} is already archived, skipping queueing", campaignId);
+            jdbcTemplate.update(
+                "UPDATE fanout_jobs SET status = 'failed', error = 'campaign archived', updated_at = NOW() " +
+                "WHERE campaign_id = ? AND delivery_mode = ? AND status = 'running'",
+                campaignId, deliveryMode
+            );
+            return 0;
+        }
+
+        String segment = campaignService.findSegment(campaignId);
+        if (segment == null && ALL_MODES.equals(deliveryMode)) {
+            throw new IllegalArgumentException("Campaign ID=" + campaignId + " has no segment to fan out to all delivery modes");
+        }
+        String segmentMode = ALL_MODES.equals(deliveryMode) ? null : deliveryMode;
+        int[] segmentIds = null;
+        if (findJob(campaignId, deliveryMode) == null) {
+            // 세그먼트는 메모리 비트맵으로 대상 ID 집합을 구하고, 아니면 활성 구독자 수로 발송 계획을 세움
+            int total;
+            if (segment != null) {
+                segmentIds = segmentIndex.select(segment, segmentMode);
+                total = segmentIds.length;
+                log.info("Segment '{}' matched {} subscribers for campaign ID={}", segment, total, campaignId);
+            } else {
+                Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM newsletter_subscribers WHERE status = 'active' AND delivery_mode = ?",
+                    Integer.class,
+                    deliveryMode
+                );
+                total = count != null ? count : 0;
+            }
+            jdbcTemplate.update(
+                "INSERT INTO fanout_jobs(campaign_id, delivery_mode, total_recipients, chunk_size) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (campaign_id, delivery_mode) DO NOTHING",
+                campaignId, deliveryMode, total, clampChunkSize(props.getInitialChunkSize())
+            );
+        }
+
+        String owner = leaderElection.getInstanceId();
+        int claimed = jdbcTemplate.update(
+            "UPDATE fanout_jobs SET lease_owner = ?, lease_until = NOW() + ? * INTERVAL '1 second', " +
+            "attempts = attempts + 1, updated_at = NOW() " +
+            "WHERE campaign_id = ? AND delivery_mode = ? AND status = 'running' " +
+            "AND (lease_until IS NULL OR lease_until < NOW())",
+            owner, props.getLeaseSeconds(), campaignId, deliveryMode
+        );
+        if (claimed == 0) {
+            log.info("Fan-out for campaign ID={} ({}) is already finished or running elsewhere", campaignId, deliveryMode);
+            return 0;
+        }
+
+        FanOutJob job = findJob(campaignId, deliveryMode);
+        if (segment != null && segmentIds == null) {
+            // 재개: 그 사이 세그먼트에서 빠진 구독자는 건너뛰고, 새로 들어온 구독자는 ID 가 체크포인트보다 크면 포함
+            segmentIds = segmentIndex.select(segment, segmentMode);
+        }
+        if (job.position() > 0) {
+            log.info("Resuming fan-out for campaign ID={} ({}) after subscriber ID={} ({}/{})",
+                campaignId, deliveryMode, job.lastSubscriberId(), job.position(), job.totalRecipients());
+        }
+
+        try {
+            return fanOut(job, segmentIds, owner);
+        } catch (RuntimeException e) {
+            fail(campaignId, deliveryMode, owner, e);
+            throw e;
+        }
+    }
+
+    private int fanOut(FanOutJob job, int[] segmentIds, String owner) {
+        FanOutEvent event = new FanOutEvent();
+        event.begin();
+
+        long campaignId = job.campaignId();
+        String deliveryMode = job.deliveryMode();
+        ReleasePlanner.Plan plan = releasePlanner.plan(startedAt(campaignId, deliveryMode), job.totalRecipients());
+        int chunkSize = clampChunkSize(job.chunkSize());
+        int position = job.position();
+        long lastId = job.lastSubscriberId();
+        int segmentFrom = segmentIds == null ? 0 : firstAfter(segmentIds, lastId);
+        int scannedTotal = 0;
+        int suppressedTotal = 0;
+        int queuedTotal = 0;
+
+        while (true) {
+            if (stopping) {
+                release(campaignId, deliveryMode, owner);
+                log.info("Fan-out for campaign ID={} ({}) paused at subscriber ID={} for shutdown",
+                    campaignId, deliveryMode, lastId);
+                return job.queued() + queuedTotal;
+            }
+            long chunkStarted = System.nanoTime();
+
+            // 억제 목록에 있는 주소는 메모리에서 바로 제외
+            List<MessageQueue.Recipient> recipients = new ArrayList<>();
+            int[] suppressed = {0};
+            long[] last = {lastId};
+            RowCallbackHandler collect = rs -> {
+                long id = rs.getLong("id");
+                if (suppressionList.check(rs.getString("email")) == null) {
+                    recipients.add(new MessageQueue.Recipient(id, rs.getString("email")));
+                } else {
+                    suppressed[0]++;
+                }
+                last[0] = Math.max(last[0], id);
+            };
+
+            int scanned;
+            boolean done;
+            if (segmentIds == null) {
+                // (delivery_mode, id) 부분 인덱스를 따라 체크포인트 다음부터 읽음
+                jdbcTemplate.query(
+                    "SELECT id, email FROM newsletter_subscribers " +
+                    "WHERE status = 'active' AND delivery_mode = ? AND id > ? ORDER BY id LIMIT ?",
+                    collect,
+                    deliveryMode, lastId, chunkSize
+                );
+                scanned = recipients.size() + suppressed[0];
+                done = scanned < chunkSize;
+            } else {
+                // 세그먼트 ID 를 청크만큼 잘라 기본 키로만 조회 (상태는 DB 기준으로 다시 확인)
+                int to = Math.min(segmentIds.length, segmentFrom + chunkSize);
+                Integer[] chunk = new Integer[to - segmentFrom];
+                for (int i = 0; i < chunk.length; i++) {
+                    chunk[i] = segmentIds[segmentFrom + i];
+                }
+                if (chunk.length > 0) {
+                    jdbcTemplate.query(
+                        "SELECT id, email FROM newsletter_subscribers " +
+                        "WHERE id = ANY(?) AND status = 'active' AND (? = '" + ALL_MODES + "' OR delivery_mode = ?)",
+                        (PreparedStatementSetter) ps -> {
+                            ps.setArray(1, ps.getConnection().createArrayOf("integer", chunk));
+                            ps.setString(2, deliveryMode);
+                            ps.setString(3, deliveryMode);
+                        },
+                        collect
+                    );
+                    last[0] = Math.max(last[0], chunk[chunk.length - 1]);
+                }
+                scanned = chunk.length;
+                segmentFrom = to;
+                done = to == segmentIds.length;
+            }
+            if (scanned == 0) {
+                break;
+            }
+
+            // 순번을 이어서 계획하므로 청크로 나눠도 한 번에 큐잉한 것과 발송 시각이 같음
+            int chunkPosition = position;
+            int chunkSizeNow = chunkSize;
+            long chunkLastId = last[0];
+            int chunkSuppressed = suppressed[0];
+            int[] nextChunkSize = {chunkSize};
+            Integer queued = transactionTemplate.execute(status -> {
+                int n = recipients.isEmpty() ? 0 : messageQueue.enqueue(campaignId, recipients, plan.from(chunkPosition));
+                campaignService.addQueued(campaignId, n);
+                long elapsed = (System.nanoTime() - chunkStarted) / 1_000_000;
+                nextChunkSize[0] = done ? chunkSizeNow : resize(chunkSizeNow, elapsed);
+                if (!checkpoint(campaignId, deliveryMode, owner, chunkLastId, chunkPosition + recipients.size(), n,
+                        chunkSuppressed, nextChunkSize[0])) {
+                    // 이어받은 인스턴스가 이 청크를 다시 큐잉/집계하므로 여기서 반영한 것은 되돌림
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return n;
+            });
+            if (queued == null) {
+                log.warn("Lost fan-out lease for campaign ID={} ({}), another instance continues", campaignId, deliveryMode);
+                return job.queued() + queuedTotal;
+            }
+            int count = queued;
+            long elapsedMillis = (System.nanoTime() - chunkStarted) / 1_000_000;
+            position += recipients.size();
+            lastId = chunkLastId;
+            log.debug("Fan-out campaign ID={} ({}): {}/{} subscribers, chunk {} in {}ms",
+                campaignId, deliveryMode, position, job.totalRecipients(), scanned, elapsedMillis);
+
+            scannedTotal += scanned;
+            suppressedTotal += suppressed[0];
+            queuedTotal += count;
+            chunkSize = nextChunkSize[0];
+
+            // 큐잉된 청크부터 바로 발송되도록 대기 중인 발송 스케줄러를 깨움 (모든 인스턴스)
+            if (count > 0) {
+                sendWakeup.publish(campaignId);
+            }
+            if (done) {
+                break;
+            }
+        }
+
+        // 모든 구독자를 큐잉한 뒤에만 발송 단계로 전환 (그 전에 큐가 비어도 완료 처리되지 않도록)
+        campaignService.markSending(campaignId);
+        jdbcTemplate.update(
+            "UPDATE fanout_jobs SET status = 'completed', completed_at = NOW(), updated_at = NOW(), " +
+            "lease_owner = NULL, lease_until = NULL, error = NULL " +
+            "WHERE campaign_id = ? AND delivery_mode = ? AND lease_owner = ?",
+            campaignId, deliveryMode, owner
+        );
+
+        if (suppressedTotal > 0) {
+            log.info("Skipped {} suppressed subscribers for campaign ID={}", suppressedTotal, campaignId);
+        }
+        if (job.position() + scannedTotal == 0) {
+            log.warn("No active {} subscribers found for campaign ID={}", deliveryMode, campaignId);
+        }
+        log.info("Queued {} messages for campaign ID={}", queuedTotal, campaignId);
+
+        event.campaignId = campaignId;
+        event.deliveryMode = deliveryMode;
+        event.recipients = scannedTotal;
+        event.suppressed = suppressedTotal;
+        event.queued = queuedTotal;
+        event.commit();
+        return job.queued() + queuedTotal;
+    }
+
+    /**
+     * 임대가 만료된 진행 중 작업 재개 (리더 인스턴스만, 1분마다)
+     *
+     * 팬아웃 도중에 종료된 인스턴스의 작업이나 실패 후 임대를 반납한 작업을 이어서 실행합니다.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 30_000)
+    public void resumeStalled() {
+        if (!leaderElection.isLeader() || stopping) {
+            return;
+        }
+        List<FanOutJob> stalled = jdbcTemplate.query(
+            "SELECT * FROM fanout_jobs WHERE status = 'running' AND (lease_until IS NULL OR lease_until < NOW()) " +
+            "ORDER BY started_at",
+            (rs, rowNum) -> mapJob(rs)
+        );
+        for (FanOutJob job : stalled) {
+            // 작업 하나가 오래 걸릴 수 있으므로 작업마다 리더 자격을 다시 확인
+            if (!leaderElection.isLeader() || stopping) {
+                return;
+            }
+            log.info("Resuming stalled fan-out for campaign ID={} ({}), attempt {}",
+                job.campaignId(), job.deliveryMode(), job.attempts() + 1);
+            try {
+                run(job.campaignId(), job.deliveryMode());
+            } catch (Exception e) {
+                log.error("Failed to resume fan-out for campaign ID={}: {}", job.campaignId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 캠페인의 팬아웃 작업 진행 상황 조회
+     *
+     * @param campaignId 캠페인 ID
+     * @return 수신 방식별 작업 (팬아웃 전이면 빈 목록)
+     */
+    public List<FanOutJob> findJobs(long campaignId) {
+        return jdbcTemplate.query(
+            "SELECT * FROM fanout_jobs WHERE campaign_id = ? ORDER BY delivery_mode",
+            (rs, rowNum) -> mapJob(rs),
+            campaignId
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private FanOutJob findJob(long campaignId, String deliveryMode) {
+        List<FanOutJob> rows = jdbcTemplate.query(
+            "SELECT * FROM fanout_jobs WHERE campaign_id = ? AND delivery_mode = ?",
+            (rs, rowNum) -> mapJob(rs),
+            campaignId, deliveryMode
+        );
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private Instant startedAt(long campaignId, String deliveryMode) {
+        return jdbcTemplate.queryForObject(
+            "SELECT started_at FROM fanout_jobs WHERE campaign_id = ? AND delivery_mode = ?",
+            (rs, rowNum) -> rs.getTimestamp("started_at").toInstant(),
+            campaignId, deliveryMode
+        );
+    }
+
+    /**
+     * 청크 처리 결과 기록 및 임대 갱신
+     *
+     * @return 아직 임대를 가지고 있으면 true (다른 인스턴스가 이어받았거나 캠페인이 삭제되었으면 false)
+     */
+    private boolean checkpoint(long campaignId, String deliveryMode, String owner, long lastId, int position,
+                               int queued, int suppressed, int chunkSize) {
+        int updated = jdbcTemplate.update(
+            "UPDATE fanout_jobs SET last_subscriber_id = ?, position = ?, queued_count = queued_count + ?, " +
+            "suppressed_count = suppressed_count + ?, chunk_size = ?, chunks = chunks + 1, " +
+            "lease_until = NOW() + ? * INTERVAL '1 second', updated_at = NOW() " +
+            "WHERE campaign_id = ? AND delivery_mode = ? AND lease_owner = ? AND status = 'running'",
+            lastId, position, queued, suppressed, chunkSize, props.getLeaseSeconds(),
+            campaignId, deliveryMode, owner
+        );
+        return updated > 0;
+    }
+
+    private void release(long campaignId, String deliveryMode, String owner) {
+        jdbcTemplate.update(
+            "UPDATE fanout_jobs SET lease_owner = NULL, lease_until = NULL, updated_at = NOW() " +
+            "WHERE campaign_id = ? AND delivery_mode = ? AND lease_owner = ?",
+            campaignId, deliveryMode, owner
+        );
+    }
+
+    /**
+     * 실패 기록 후 임대 반납 (maxAttempts 에 도달하면 더 이상 재개하지 않음)
+     */
+    private void fail(long campaignId, String deliveryMode, String owner, RuntimeException e) {
+        try {
+            jdbcTemplate.update(
+                "UPDATE fanout_jobs SET status = CASE WHEN attempts >= ? THEN 'failed' ELSE status END, " +
+                "error = ?, lease_owner = NULL, lease_until = NULL, updated_at = NOW() " +
+                "WHERE campaign_id = ? AND delivery_mode = ? AND lease_owner = ?",
+                props.getMaxAttempts(), String.valueOf(e.getMessage()), campaignId, deliveryMode, owner
+            );
+        } catch (Exception ex) {
+            log.warn("Failed to record fan-out failure for campaign ID={}: {}", campaignId, ex.getMessage());
+        }
+    }
+
+    /**
+     * 청크 처리 시간이 목표에 가깝도록 다음 청크 크기 조정
+     */
+    private int resize(int chunkSize, long elapsedMillis) {
+        double factor = props.getTargetChunkMillis() / (double) Math.max(1, elapsedMillis);
+        factor = Math.min(MAX_RESIZE_FACTOR, Math.max(1 / MAX_RESIZE_FACTOR, factor));
+        return clampChunkSize((int) (chunkSize * factor));
+    }
+
+    private int clampChunkSize(int chunkSize) {
+        int min = Math.max(1, props.getMinChunkSize());
+        return Math.min(Math.max(min, props.getMaxChunkSize()), Math.max(min, chunkSize));
+    }
+
+    /**
+     * 정렬된 ID 배열에서 lastId 보다 큰 첫 위치
+     */
+    private static int firstAfter(int[] ids, long lastId) {
+        int lo = 0;
+        int hi = ids.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[mid] <= lastId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static FanOutJob mapJob(ResultSet rs) throws SQLException {
+        return new FanOutJob(
+            rs.getLong("campaign_id"),
+            rs.getString("delivery_mode"),
+            rs.getString("status"),
+            rs.getInt("total_recipients"),
+            rs.getInt("position"),
+            rs.getLong("last_subscriber_id"),
+            rs.getInt("queued_count"),
+            rs.getInt("suppressed_count"),
+            rs.getInt("chunk_size"),
+            rs.getInt("chunks"),
+            rs.getInt("attempts"),
+            rs.getString("lease_owner"),
+            rs.getString("lease_until"),
+            rs.getString("error"),
+            rs.getString("started_at"),
+            rs.getString("updated_at"),
+            rs.getString("completed_at")
+        );
+    }
+}
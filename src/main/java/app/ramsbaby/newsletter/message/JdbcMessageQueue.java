@@ -0,0 +1,189 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * messages 테이블 기반 메시지 큐 (기본)
+ *
+ * 모든 큐잉/조회/상태 변경이 DB에 바로 기록되므로 여러 인스턴스가 같은 큐를 나눠 처리할 수 있습니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.queue", name = "mode", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcMessageQueue implements MessageQueue {
+    private static final Logger log = LoggerFactory.getLogger(JdbcMessageQueue.class);
+
+    // 팬아웃 시 한 번에 INSERT 할 메시지 개수
+    private static final int QUEUE_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CampaignService campaignService;
+
+    public JdbcMessageQueue(JdbcTemplate jdbcTemplate, CampaignService campaignService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.campaignService = campaignService;
+    }
+
+    @Override
+    public int enqueue(long campaignId, List<Recipient> recipients, ReleasePlanner.Plan plan) {
+        int count = 0;
+        for (int from = 0; from < recipients.size(); from += QUEUE_BATCH_SIZE) {
+            int to = Math.min(from + QUEUE_BATCH_SIZE, recipients.size());
+            List<Object[]> args = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                args.add(new Object[]{campaignId, recipients.get(i).subscriberId(), Timestamp.from(plan.eligibleAt(i))});
+            }
+            try {
+                // PostgreSQL: ON CONFLICT DO NOTHING (중복 메시지 방지)
+                // 충돌한 행도 이미 큐에 있는 메시지이므로 배치 전체를 셈
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO messages(campaign_id, subscriber_id, status, eligible_at) VALUES(?, ?, 'queued', ?) " +
+                    "ON CONFLICT (campaign_id, subscriber_id) DO NOTHING",
+                    args
+                );
+                count += to - from;
+            } catch (RuntimeException e) {
+                // 팬아웃 청크 트랜잭션 전체를 롤백하고 재개 시 다시 큐잉하도록 그대로 던짐
+                log.error("Failed to queue messages {}~{} for campaign ID={}: {}", from, to, campaignId, e.getMessage());
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<QueuedMessage> poll(Instant now, int limit) {
+        // idx_messages_queued_due 부분 인덱스 사용
+        // 캠페인 본문은 행마다 JOIN 하지 않고 CampaignContentCache 에서 캠페인당 한 번만 읽음
+        List<QueuedMessage> messages = new ArrayList<>(limit);
+        jdbcTemplate.query(
+            con -> {
+                PreparedStatement ps = con.prepareStatement(
+                    "SELECT m.id, m.campaign_id, m.subscriber_id, m.attempts, s.email, s.status AS subscriber_status " +
+                    "FROM messages m " +
+                    "JOIN newsletter_subscribers s ON m.subscriber_id = s.id " +
+                    "WHERE m.status = 'queued' AND m.eligible_at <= ? " +
+                    "ORDER BY m.eligible_at, m.id " +
+                    "LIMIT ?"
+                );
+                ps.setTimestamp(1, Timestamp.from(now));
+                ps.setInt(2, limit);
+                ps.setFetchSize(limit);
+                return ps;
+            },
+            (RowCallbackHandler) rs -> messages.add(new QueuedMessage(
+                rs.getLong("id"),
+                rs.getLong("campaign_id"),
+                rs.getLong("subscriber_id"),
+                rs.getInt("attempts"),
+                rs.getString("email"),
+                rs.getString("subscriber_status")
+            ))
+        );
+        return messages;
+    }
+
+    @Override
+    public Optional<Instant> nextEligibleAt() {
+        Timestamp next = jdbcTemplate.queryForObject(
+            "SELECT MIN(eligible_at) FROM messages WHERE status = 'queued'",
+            Timestamp.class
+        );
+        return Optional.ofNullable(next).map(Timestamp::toInstant);
+    }
+
+    @Override
+    public List<QueuedMessage> markSent(List<QueuedMessage> messages, Instant sentAt) {
+        Timestamp at = Timestamp.from(sentAt);
+        return batchUpdate(
+            "UPDATE messages SET status = 'sent', sent_at = ?, attempts = attempts + 1 WHERE id = ? AND status = 'queued'",
+            messages,
+            msg -> new Object[]{at, msg.id()}
+        );
+    }
+
+    @Override
+    public List<QueuedMessage> markForRetry(List<QueuedMessage> messages, Function<QueuedMessage, String> error,
+                                            Function<QueuedMessage, Instant> eligibleAt) {
+        return batchUpdate(
+            "UPDATE messages SET attempts = attempts + 1, error = ?, eligible_at = ? WHERE id = ? AND status = 'queued'",
+            messages,
+            msg -> new Object[]{error.apply(msg), Timestamp.from(eligibleAt.apply(msg)), msg.id()}
+        );
+    }
+
+    @Override
+    public List<QueuedMessage> markDead(List<QueuedMessage> messages, Function<QueuedMessage, String> error, boolean attempted) {
+        return batchUpdate(
+            attempted
+                ? "UPDATE messages SET status = 'dead', attempts = attempts + 1, error = ? WHERE id = ? AND status = 'queued'"
+                : "UPDATE messages SET status = 'dead', error = ? WHERE id = ? AND status = 'queued'",
+            messages,
+            msg -> new Object[]{error.apply(msg), msg.id()}
+        );
+    }
+
+    @Override
+    public void postpone(List<QueuedMessage> messages, Function<QueuedMessage, Instant> eligibleAt) {
+        batchUpdate(
+            "UPDATE messages SET eligible_at = ? WHERE id = ? AND status = 'queued'",
+            messages,
+            msg -> new Object[]{Timestamp.from(eligibleAt.apply(msg)), msg.id()}
+        );
+    }
+
+    @Override
+    public void settle(long campaignId, int sent, int failed, int dead) {
+        campaignService.applyDeliveryCounts(campaignId, sent, failed, dead);
+        campaignService.completeIfDrained(campaignId);
+    }
+
+    /**
+     * 메시지 상태 일괄 업데이트
+     *
+     * WHERE status = 'queued' 조건으로 이미 다른 인스턴스가 처리한 메시지는 제외되므로,
+     * 반환된 메시지만 카운터에 반영하면 중복 집계되지 않습니다.
+     */
+    private List<QueuedMessage> batchUpdate(String sql, List<QueuedMessage> messages,
+                                            Function<QueuedMessage, Object[]> argsMapper) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> args = new ArrayList<>(messages.size());
+        for (QueuedMessage msg : messages) {
+            args.add(argsMapper.apply(msg));
+        }
+        int[] results = jdbcTemplate.batchUpdate(sql, args);
+
+        List<QueuedMessage> applied = new ArrayList<>(messages.size());
+        for (int i = 0; i < results.length; i++) {
+            if (applied(results[i])) {
+                applied.add(messages.get(i));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * 배치 결과가 실제 반영되었는지 여부
+     *
+     * 드라이버가 행 수를 알려주지 않는 경우(SUCCESS_NO_INFO)도 반영된 것으로 간주합니다.
+     */
+    private static boolean applied(int result) {
+        return result > 0 || result == Statement.SUCCESS_NO_INFO;
+    }
+}
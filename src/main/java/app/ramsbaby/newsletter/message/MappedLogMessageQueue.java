@@ -0,0 +1,816 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import app.ramsbaby.newsletter.config.AppProps;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 메모리 맵 로그 파일 기반 메시지 큐 (app.queue.mode=mmap)
+ *
+ * 큐잉/상태 변경을 로컬 세그먼트 파일에 덧붙이기만 하고(append-only),
+ * 대기 중인 메시지는 메모리에 발송 가능 시각 순으로 유지합니다.
+ * DB에는 최종 결과(sent/dead)만 주기적으로 messages 테이블에 기록하면서 캠페인 카운터를 함께 갱신하므로,
+ * 대형 캠페인을 발송하는 동안에도 DB 왕복이 체크포인트 주기당 몇 번으로 줄어듭니다.
+ *
+ * - 레코드: [길이 4바이트][CRC32 4바이트][종류 1바이트][내용]
+ * - fsync: fsyncIntervalMs 마다 한 번씩 모아서 (팬아웃/체크포인트 직후에는 즉시)
+ * - 복구: 시작 시 세그먼트를 순서대로 다시 읽어 상태를 재구성하고, CRC가 맞지 않는 꼬리는 버림
+ * - 정리: 체크포인트 후 기록할 최종 결과가 없으면 대기 메시지와 캠페인별 큐잉된 구독자 비트맵만 담은
+ *   새 세그먼트를 쓰고 이전 세그먼트 삭제 (재시작 후에도 이미 발송한 구독자를 다시 큐잉하지 않도록).
+ *   정리본은 임시 파일에 끝까지 쓰고 fsync 한 뒤 세그먼트 이름으로 바꾸므로, 도중에 서버가 죽어도
+ *   이전 세그먼트나 완결된 정리본 중 하나로만 복구됩니다.
+ * - fsync 와 체크포인트는 공용 스케줄러가 아닌 전용 스레드에서 실행 (다른 작업이 길어져도 주기가 밀리지 않도록)
+ *
+ * 로컬 파일을 큐로 쓰므로 단일 인스턴스 배포 전용입니다.
+ * 큐잉 이후의 구독자 상태 변경(구독 해제/반송 등)은 poll 에서 꺼낸 메시지의 구독자 상태를 한 번에 조회해 반영합니다.
+ * fsync 전에 서버가 죽으면 마지막 주기의 발송 결과가 유실되어 해당 메시지가 한 번 더 발송될 수 있습니다.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.queue", name = "mode", havingValue = "mmap")
+public class MappedLogMessageQueue implements MessageQueue {
+    private static final Logger log = LoggerFactory.getLogger(MappedLogMessageQueue.class);
+
+    // 레코드 종류
+    private static final byte GENERATION = 1;  // 정리된 세그먼트 시작 (이전 상태 폐기)
+    private static final byte ENQUEUE = 2;     // 메시지 큐잉
+    private static final byte UPDATE = 3;      // 재시도/연기 (시도 횟수, 발송 가능 시각)
+    private static final byte FINAL = 4;       // 최종 결과 (sent/dead)
+    private static final byte FLUSHED = 5;     // 이 순번까지의 최종 결과를 DB에 기록함
+    private static final byte ENQUEUED = 6;    // 캠페인별 큐잉된 구독자 비트맵 일부 (정리된 세그먼트에만)
+
+    private static final byte STATUS_SENT = 1;
+    private static final byte STATUS_DEAD = 2;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_STRING_BYTES = 1000;
+    // 체크포인트 시 한 번에 INSERT 할 최종 결과 개수
+    private static final int CHECKPOINT_BATCH_SIZE = 500;
+    // ENQUEUED 레코드 하나에 담는 비트맵 워드 수 (scratch 버퍼 크기 이내)
+    private static final int ENQUEUED_WORDS_PER_RECORD = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CampaignService campaignService;
+    private final AppProps.Queue props;
+    // fsync 와 체크포인트 전용 스레드 (체크포인트의 DB 기록이 느려도 fsync 주기는 유지)
+    private final ScheduledExecutorService fsyncExecutor = singleThread("message-queue-fsync");
+    private final ScheduledExecutorService checkpointExecutor = singleThread("message-queue-checkpoint");
+
+    // 대기 중인 메시지 (ID별, 발송 가능 시각 순)
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> due = new TreeSet<>(
+        Comparator.comparingLong((Entry e) -> e.eligibleAt).thenComparingLong(e -> e.id));
+    // 캠페인별 큐잉된 구독자 ID (중복 큐잉 방지)
+    private final Map<Long, BitSet> enqueued = new HashMap<>();
+    // DB에 아직 기록하지 않은 최종 결과 (기록 순)
+    private final ArrayDeque<Final> unflushed = new ArrayDeque<>();
+    private long finalOrdinal;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private final List<Path> segments = new ArrayList<>();
+    private MappedByteBuffer active;
+    private long nextId = 1;
+    private boolean dirty;
+    // 마지막 정리 이후 덧붙인 바이트 수와, 정리 직후 대기 메시지만으로 쓴 바이트 수
+    private long appendedBytes;
+    private long compactedBytes;
+
+    public MappedLogMessageQueue(JdbcTemplate jdbcTemplate, CampaignService campaignService, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.campaignService = campaignService;
+        this.props = props.getQueue();
+    }
+
+    /**
+     * 세그먼트 파일을 다시 읽어 큐 상태 복구
+     */
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            Path dir = Paths.get(props.getDir());
+            Files.createDirectories(dir);
+            List<Path> incomplete = new ArrayList<>();
+            try (Stream<Path> files = Files.list(dir)) {
+                files.sorted().forEach(p -> {
+                    String name = p.getFileName().toString();
+                    if (name.matches("segment-\\d{8}\\.log")) {
+                        segments.add(p);
+                    } else if (name.matches("segment-\\d{8}\\.log\\.tmp")) {
+                        incomplete.add(p);
+                    }
+                });
+            }
+            // 이름을 바꾸기 전에 중단된 정리본 (이전 세그먼트가 그대로 남아 있음)
+            for (Path p : incomplete) {
+                log.warn("Discarding incomplete compaction {}", p.getFileName());
+                Files.delete(p);
+            }
+
+            for (int i = 0; i < segments.size(); i++) {
+                MappedByteBuffer buffer = map(segments.get(i), Files.size(segments.get(i)));
+                replay(buffer);
+                if (i == segments.size() - 1) {
+                    active = buffer;
+                }
+            }
+            if (active == null) {
+                roll();
+            }
+            log.info("Message queue log opened: {} segments, {} queued, {} results pending checkpoint",
+                    segments.size(), entries.size(), unflushed.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open message queue log " + props.getDir(), e);
+        }
+
+        long fsyncInterval = Math.max(1, props.getFsyncIntervalMs());
+        fsyncExecutor.scheduleWithFixedDelay(this::syncQuietly, fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+        checkpointExecutor.scheduleWithFixedDelay(this::checkpoint, 10_000,
+                Math.max(1, props.getCheckpointIntervalMs()), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        fsyncExecutor.shutdown();
+        checkpointExecutor.shutdown();
+        try {
+            checkpointExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+    }
+
+    @Override
+    public synchronized int enqueue(long campaignId, List<Recipient> recipients, ReleasePlanner.Plan plan) {
+        BitSet campaignSubscribers = enqueued.computeIfAbsent(campaignId, k -> new BitSet());
+        int count = 0;
+        for (int i = 0; i < recipients.size(); i++) {
+            Recipient r = recipients.get(i);
+            count++;
+            if (campaignSubscribers.get((int) r.subscriberId())) {
+                continue;
+            }
+            Entry e = new Entry(nextId++, campaignId, r.subscriberId(), r.email(), 0, plan.eligibleAt(i).toEpochMilli());
+            writeEnqueue(e, this::append);
+            apply(e);
+        }
+        // 큐잉 결과는 캠페인 카운터에 바로 반영되므로 즉시 디스크에 기록
+        sync();
+        return count;
+    }
+
+    /**
+     * 발송 가능한 메시지 조회
+     *
+     * 구독자 상태는 큐잉 시점이 아닌 현재 DB 상태로 채우므로(배치당 한 번 조회),
+     * 큐잉 이후 구독 해제/반송된 구독자는 jdbc 큐와 마찬가지로 발송되지 않습니다. 삭제된 구독자는 "deleted" 입니다.
+     */
+    @Override
+    public List<QueuedMessage> poll(Instant now, int limit) {
+        // 구독자 상태는 아래에서 채움
+        List<QueuedMessage> candidates = new ArrayList<>(limit);
+        synchronized (this) {
+            long nowMillis = now.toEpochMilli();
+            for (Entry e : due) {
+                if (e.eligibleAt > nowMillis || candidates.size() >= limit) {
+                    break;
+                }
+                candidates.add(new QueuedMessage(e.id, e.campaignId, e.subscriberId, e.attempts, e.email, null));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // DB 조회는 큐 잠금 밖에서 (조회가 느려도 큐잉/상태 기록이 막히지 않도록)
+        Long[] subscriberIds = candidates.stream().map(QueuedMessage::subscriberId).distinct().toArray(Long[]::new);
+        Map<Long, String> statuses = new HashMap<>(subscriberIds.length * 2);
+        jdbcTemplate.query(
+            "SELECT id, status FROM newsletter_subscribers WHERE id = ANY(?)",
+            (PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", subscriberIds)),
+            (RowCallbackHandler) rs -> statuses.put(rs.getLong("id"), rs.getString("status"))
+        );
+
+        List<QueuedMessage> messages = new ArrayList<>(candidates.size());
+        for (QueuedMessage m : candidates) {
+            messages.add(new QueuedMessage(m.id(), m.campaignId(), m.subscriberId(), m.attempts(), m.email(),
+                    statuses.getOrDefault(m.subscriberId(), "deleted")));
+        }
+        return messages;
+    }
+
+    @Override
+    public synchronized Optional<Instant> nextEligibleAt() {
+        return due.isEmpty() ? Optional.empty() : Optional.of(Instant.ofEpochMilli(due.first().eligibleAt));
+    }
+
+    @Override
+    public synchronized List<QueuedMessage> markSent(List<QueuedMessage> messages, Instant sentAt) {
+        List<QueuedMessage> applied = new ArrayList<>(messages.size());
+        for (QueuedMessage msg : messages) {
+            Entry e = entries.get(msg.id());
+            if (e != null) {
+                complete(e, STATUS_SENT, e.attempts + 1, sentAt.toEpochMilli(), null);
+                applied.add(msg);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public synchronized List<QueuedMessage> markForRetry(List<QueuedMessage> messages, Function<QueuedMessage, String> error,
+                                                         Function<QueuedMessage, Instant> eligibleAt) {
+        List<QueuedMessage> applied = new ArrayList<>(messages.size());
+        for (QueuedMessage msg : messages) {
+            Entry e = entries.get(msg.id());
+            if (e != null) {
+                update(e, e.attempts + 1, eligibleAt.apply(msg).toEpochMilli());
+                applied.add(msg);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public synchronized List<QueuedMessage> markDead(List<QueuedMessage> messages, Function<QueuedMessage, String> error,
+                                                    boolean attempted) {
+        long now = System.currentTimeMillis();
+        List<QueuedMessage> applied = new ArrayList<>(messages.size());
+        for (QueuedMessage msg : messages) {
+            Entry e = entries.get(msg.id());
+            if (e != null) {
+                complete(e, STATUS_DEAD, attempted ? e.attempts + 1 : e.attempts, now, error.apply(msg));
+                applied.add(msg);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public synchronized void postpone(List<QueuedMessage> messages, Function<QueuedMessage, Instant> eligibleAt) {
+        for (QueuedMessage msg : messages) {
+            Entry e = entries.get(msg.id());
+            if (e != null) {
+                update(e, e.attempts, eligibleAt.apply(msg).toEpochMilli());
+            }
+        }
+    }
+
+    /**
+     * 캠페인 카운터는 체크포인트에서 실제로 기록된 최종 결과로 계산하므로 여기서는 반영하지 않음
+     */
+    @Override
+    public void settle(long campaignId, int sent, int failed, int dead) {
+    }
+
+    /**
+     * 모아둔 변경을 디스크에 기록 (fsync 배치)
+     */
+    public synchronized void sync() {
+        if (dirty) {
+            active.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * fsync 스레드용 (예외로 주기 실행이 멈추지 않도록)
+     */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.error("Message queue fsync failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 최종 결과를 messages 테이블에 기록하고 캠페인 카운터 갱신 (checkpointIntervalMs 마다)
+     *
+     * INSERT ... ON CONFLICT DO NOTHING 으로 실제 기록된 행만 집계하므로,
+     * 기록 후 FLUSHED 레코드를 남기기 전에 서버가 죽어도 재시작 시 중복 집계되지 않습니다.
+     */
+    public void checkpoint() {
+        try {
+            while (true) {
+                List<Final> batch = nextCheckpointBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                writeToDatabase(batch);
+                markFlushed(batch.get(batch.size() - 1).ordinal);
+            }
+            compactIfIdle();
+        } catch (Exception e) {
+            log.error("Message queue checkpoint failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized List<Final> nextCheckpointBatch() {
+        List<Final> batch = new ArrayList<>(Math.min(unflushed.size(), CHECKPOINT_BATCH_SIZE));
+        Iterator<Final> it = unflushed.iterator();
+        while (it.hasNext() && batch.size() < CHECKPOINT_BATCH_SIZE) {
+            batch.add(it.next());
+        }
+        return batch;
+    }
+
+    private void writeToDatabase(List<Final> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Final f : batch) {
+            Timestamp at = new Timestamp(f.at);
+            args.add(new Object[]{
+                f.campaignId, f.subscriberId, f.status == STATUS_SENT ? "sent" : "dead", f.attempts, f.error,
+                f.status == STATUS_SENT ? at : null, at, f.subscriberId, f.campaignId
+            });
+        }
+        // 구독자/캠페인이 삭제된 결과는 기록하지 않음 (FK 위반으로 배치 전체가 실패하지 않도록)
+        int[] results = jdbcTemplate.batchUpdate(
+            "INSERT INTO messages(campaign_id, subscriber_id, status, attempts, error, sent_at, eligible_at) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM newsletter_subscribers WHERE id = ?) " +
+            "AND EXISTS (SELECT 1 FROM campaigns WHERE id = ?) " +
+            "ON CONFLICT (campaign_id, subscriber_id) DO NOTHING",
+            args
+        );
+
+        // 재시도는 최종 결과의 시도 횟수로 계산 (sent: 시도-1, dead: 시도 횟수만큼 실패)
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] <= 0 && results[i] != Statement.SUCCESS_NO_INFO) {
+                continue;
+            }
+            Final f = batch.get(i);
+            int[] c = counts.computeIfAbsent(f.campaignId, k -> new int[3]);
+            if (f.status == STATUS_SENT) {
+                c[0]++;
+                c[1] += Math.max(0, f.attempts - 1);
+            } else {
+                c[1] += f.attempts;
+                c[2]++;
+            }
+        }
+        for (Map.Entry<Long, int[]> entry : counts.entrySet()) {
+            int[] c = entry.getValue();
+            campaignService.applyDeliveryCounts(entry.getKey(), c[0], c[1], c[2]);
+            campaignService.completeIfDrained(entry.getKey());
+        }
+        log.info("Checkpointed {} delivery results to database", batch.size());
+    }
+
+    private synchronized void markFlushed(long ordinal) {
+        scratch.putLong(ordinal);
+        append(FLUSHED);
+        dropFlushed(ordinal);
+        sync();
+    }
+
+    /**
+     * 기록할 최종 결과가 없고 정리 이후 로그가 충분히 쌓였으면
+     * 캠페인별 큐잉된 구독자 비트맵과 대기 메시지만 새 세그먼트로 옮기고 이전 세그먼트 삭제
+     *
+     * 비트맵은 아카이브되지 않은 캠페인만 남깁니다 (아카이브된 캠페인은 다시 팬아웃되지 않음).
+     */
+    private synchronized void compactIfIdle() throws IOException {
+        long threshold = (long) props.getSegmentSizeMb() * 1024 * 1024 / 2;
+        if (!unflushed.isEmpty() || appendedBytes - compactedBytes < threshold) {
+            return;
+        }
+        Set<Long> keep = unarchivedCampaigns(enqueued.keySet());
+        for (Entry e : due) {
+            keep.add(e.campaignId);
+        }
+        enqueued.keySet().retainAll(keep);
+
+        // 정리본은 임시 파일에 끝까지 쓰고 fsync 한 뒤에야 세그먼트 이름을 붙임.
+        // 이름을 바꾸기 전에 죽으면 임시 파일은 버려지고 이전 세그먼트로 복구되며,
+        // 바꾼 뒤에는 GENERATION 으로 시작하는 완결된 정리본이 이전 세그먼트 뒤에 재생됨
+        List<Path> old = new ArrayList<>(segments);
+        Path path = nextSegmentPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long size;
+        try (Snapshot snapshot = new Snapshot(tmp)) {
+            snapshot.append(GENERATION);
+            for (Map.Entry<Long, BitSet> entry : enqueued.entrySet()) {
+                writeEnqueued(entry.getKey(), entry.getValue(), snapshot::append);
+            }
+            for (Entry e : due) {
+                writeEnqueue(e, snapshot::append);
+            }
+            size = snapshot.finish();
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.getParent());
+
+        segments.add(path);
+        roll();
+        finalOrdinal = 0;
+        appendedBytes = size;
+        compactedBytes = size;
+        for (Path p : old) {
+            Files.deleteIfExists(p);
+        }
+        segments.removeAll(old);
+        log.info("Message queue log compacted: {} queued messages and {} campaign bitmaps kept, {} segments removed",
+                entries.size(), enqueued.size(), old.size());
+    }
+
+    /**
+     * campaignIds 중 아카이브되지 않은 캠페인 (조회 실패 시 모두 유지)
+     */
+    private Set<Long> unarchivedCampaigns(Set<Long> campaignIds) {
+        Set<Long> result = new HashSet<>();
+        if (campaignIds.isEmpty()) {
+            return result;
+        }
+        Long[] ids = campaignIds.toArray(new Long[0]);
+        try {
+            jdbcTemplate.query(
+                "SELECT id FROM campaigns WHERE id = ANY(?) AND archived_at IS NULL",
+                (PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                (RowCallbackHandler) rs -> result.add(rs.getLong("id"))
+            );
+        } catch (Exception e) {
+            log.warn("Failed to check archived campaigns, keeping all bitmaps: {}", e.getMessage());
+            result.addAll(campaignIds);
+        }
+        return result;
+    }
+
+    // ===== 상태 변경 (로그 기록 + 메모리 반영) =====
+
+    private void update(Entry e, int attempts, long eligibleAt) {
+        scratch.putLong(e.id).putInt(attempts).putLong(eligibleAt);
+        append(UPDATE);
+        reschedule(e, attempts, eligibleAt);
+    }
+
+    private void complete(Entry e, byte status, int attempts, long at, String error) {
+        scratch.putLong(e.id).put(status).putInt(attempts).putLong(at);
+        putString(error);
+        append(FINAL);
+        finish(e.id, status, attempts, at, error);
+    }
+
+    /**
+     * 캠페인의 큐잉된 구독자 비트맵을 워드 단위로 나눠 기록 (0 으로만 된 구간은 생략)
+     */
+    private void writeEnqueued(long campaignId, BitSet subscribers, RecordSink sink) {
+        long[] words = subscribers.toLongArray();
+        for (int from = 0; from < words.length; from += ENQUEUED_WORDS_PER_RECORD) {
+            int to = Math.min(words.length, from + ENQUEUED_WORDS_PER_RECORD);
+            boolean empty = true;
+            for (int i = from; i < to && empty; i++) {
+                empty = words[i] == 0;
+            }
+            if (empty) {
+                continue;
+            }
+            scratch.putLong(campaignId).putInt(from).putInt(to - from);
+            for (int i = from; i < to; i++) {
+                scratch.putLong(words[i]);
+            }
+            sink.append(ENQUEUED);
+        }
+    }
+
+    private void writeEnqueue(Entry e, RecordSink sink) {
+        scratch.putLong(e.id).putLong(e.campaignId).putLong(e.subscriberId).putInt(e.attempts).putLong(e.eligibleAt);
+        putString(e.email);
+        sink.append(ENQUEUE);
+    }
+
+    private void apply(Entry e) {
+        entries.put(e.id, e);
+        due.add(e);
+        enqueued.computeIfAbsent(e.campaignId, k -> new BitSet()).set((int) e.subscriberId);
+        nextId = Math.max(nextId, e.id + 1);
+    }
+
+    private void reschedule(Entry e, int attempts, long eligibleAt) {
+        due.remove(e);
+        e.attempts = attempts;
+        e.eligibleAt = eligibleAt;
+        due.add(e);
+    }
+
+    private void finish(long id, byte status, int attempts, long at, String error) {
+        Entry e = entries.remove(id);
+        if (e == null) {
+            return;
+        }
+        due.remove(e);
+        unflushed.add(new Final(++finalOrdinal, e.campaignId, e.subscriberId, status, attempts, at, error));
+    }
+
+    private void dropFlushed(long ordinal) {
+        while (!unflushed.isEmpty() && unflushed.peekFirst().ordinal <= ordinal) {
+            unflushed.pollFirst();
+        }
+    }
+
+    // ===== 세그먼트 입출력 =====
+
+    /**
+     * scratch 에 채운 내용을 레코드로 덧붙임 (세그먼트가 차면 다음 세그먼트로 넘어감)
+     */
+    private void append(byte type) {
+        scratch.flip();
+        int length = 1 + scratch.remaining();
+        if (active.remaining() < HEADER_SIZE + length) {
+            try {
+                sync();
+                roll();
+            } catch (IOException e) {
+                scratch.clear();
+                throw new UncheckedIOException("Failed to roll message queue segment", e);
+            }
+        }
+        appendedBytes += putRecord(active, type);
+        dirty = true;
+    }
+
+    /**
+     * scratch 에 채운 내용(flip 된 상태)을 레코드로 target 에 씀
+     *
+     * @return 기록한 바이트 수
+     */
+    private int putRecord(ByteBuffer target, byte type) {
+        int length = 1 + scratch.remaining();
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(scratch.duplicate());
+        target.putInt(length).putInt((int) crc.getValue()).put(type).put(scratch);
+        scratch.clear();
+        return HEADER_SIZE + length;
+    }
+
+    private void roll() throws IOException {
+        Path path = nextSegmentPath();
+        active = map(path, (long) props.getSegmentSizeMb() * 1024 * 1024);
+        segments.add(path);
+    }
+
+    private Path nextSegmentPath() {
+        int seq = 0;
+        if (!segments.isEmpty()) {
+            String last = segments.get(segments.size() - 1).getFileName().toString();
+            seq = Integer.parseInt(last.substring(8, 16)) + 1;
+        }
+        return Paths.get(props.getDir()).resolve(String.format("segment-%08d.log", seq));
+    }
+
+    /**
+     * 파일 이름 변경을 디스크에 기록 (디렉터리 fsync 를 지원하지 않는 환경에서는 생략)
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory fsync not supported for {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * 세그먼트의 유효한 레코드를 읽어 상태에 반영하고, 쓰기 위치를 마지막 유효 레코드 뒤로 맞춤
+     */
+    private void replay(MappedByteBuffer buffer) {
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            CRC32 crc = new CRC32();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                // 기록 도중 중단된 꼬리: 이후 덧붙일 레코드와 섞이지 않도록 지움
+                log.warn("Discarding torn record at offset {}", start);
+                for (int i = start; i < Math.min(buffer.capacity(), start + HEADER_SIZE + length); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.position(start);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            appendedBytes += HEADER_SIZE + length;
+            replayRecord(record);
+        }
+    }
+
+    private void replayRecord(ByteBuffer record) {
+        byte type = record.get();
+        switch (type) {
+            case GENERATION -> {
+                entries.clear();
+                due.clear();
+                enqueued.clear();
+                unflushed.clear();
+                finalOrdinal = 0;
+            }
+            case ENQUEUE -> {
+                long id = record.getLong();
+                long campaignId = record.getLong();
+                long subscriberId = record.getLong();
+                int attempts = record.getInt();
+                long eligibleAt = record.getLong();
+                apply(new Entry(id, campaignId, subscriberId, getString(record), attempts, eligibleAt));
+            }
+            case UPDATE -> {
+                Entry e = entries.get(record.getLong());
+                int attempts = record.getInt();
+                long eligibleAt = record.getLong();
+                if (e != null) {
+                    reschedule(e, attempts, eligibleAt);
+                }
+            }
+            case FINAL -> {
+                long id = record.getLong();
+                byte status = record.get();
+                int attempts = record.getInt();
+                long at = record.getLong();
+                finish(id, status, attempts, at, getString(record));
+            }
+            case FLUSHED -> dropFlushed(record.getLong());
+            case ENQUEUED -> {
+                long campaignId = record.getLong();
+                int wordOffset = record.getInt();
+                int words = record.getInt();
+                BitSet subscribers = enqueued.computeIfAbsent(campaignId, k -> new BitSet());
+                for (int i = 0; i < words; i++) {
+                    long word = record.getLong();
+                    int base = (wordOffset + i) * 64;
+                    while (word != 0) {
+                        subscribers.set(base + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+            default -> log.warn("Unknown message queue record type {}", type);
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            scratch.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        scratch.putShort((short) length).put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 레코드 기록 대상 (현재 세그먼트 또는 정리본)
+     */
+    @FunctionalInterface
+    private interface RecordSink {
+        void append(byte type);
+    }
+
+    /**
+     * 정리본 임시 파일 (버퍼에 모아 순차 기록)
+     */
+    private final class Snapshot implements AutoCloseable {
+        private final FileChannel channel;
+        // scratch 보다 커야 레코드 하나가 항상 들어감
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long size;
+
+        private Snapshot(Path path) throws IOException {
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        private void append(byte type) {
+            scratch.flip();
+            if (buffer.remaining() < HEADER_SIZE + 1 + scratch.remaining()) {
+                flush();
+            }
+            size += putRecord(buffer, type);
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write message queue compaction", e);
+            } finally {
+                buffer.clear();
+            }
+        }
+
+        /**
+         * 남은 내용을 기록하고 fsync
+         *
+         * @return 정리본 크기
+         */
+        private long finish() throws IOException {
+            flush();
+            channel.force(true);
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * 대기 중인 메시지
+     */
+    private static final class Entry {
+        private final long id;
+        private final long campaignId;
+        private final long subscriberId;
+        private final String email;
+        private int attempts;
+        private long eligibleAt;
+
+        private Entry(long id, long campaignId, long subscriberId, String email, int attempts, long eligibleAt) {
+            this.id = id;
+            this.campaignId = campaignId;
+            this.subscriberId = subscriberId;
+            this.email = email;
+            this.attempts = attempts;
+            this.eligibleAt = eligibleAt;
+        }
+    }
+
+    /**
+     * DB 기록 대기 중인 최종 결과
+     */
+    private record Final(long ordinal, long campaignId, long subscriberId, byte status, int attempts, long at, String error) {}
+
+    private static ScheduledExecutorService singleThread(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
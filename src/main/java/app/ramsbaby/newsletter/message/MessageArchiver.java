@@ -0,0 +1,134 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.leader.LeaderElection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * 메시지 아카이브 작업
+ *
+ * 발송이 끝난 캠페인의 메시지를 messages_archive 테이블로 조금씩 옮겨
+ * messages 테이블(발송 대기열)이 항상 작게 유지되도록 합니다.
+ * 여러 인스턴스가 같은 캠페인을 동시에 옮기지 않도록 리더 인스턴스만 실행합니다.
+ */
+@Component
+public class MessageArchiver {
+    private static final Logger log = LoggerFactory.getLogger(MessageArchiver.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderElection leaderElection;
+
+    // 발송 완료 후 아카이브까지 대기 기간
+    private static final int RETENTION_DAYS = 7;
+    // 한 번의 실행에서 처리할 최대 캠페인 수
+    private static final int MAX_CAMPAIGNS_PER_RUN = 5;
+    // 한 번에 이동할 메시지 개수 (단일 커넥션을 오래 점유하지 않도록 작게 유지)
+    private static final int BATCH_SIZE = 500;
+    // 캠페인당 최대 배치 수 (남은 메시지는 다음 실행에서 이어서 처리)
+    private static final int MAX_BATCHES_PER_CAMPAIGN = 200;
+
+    public MessageArchiver(JdbcTemplate jdbcTemplate, LeaderElection leaderElection) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaderElection = leaderElection;
+    }
+
+    /**
+     * 완료된 캠페인 아카이브 (1시간마다)
+     *
+     * - 초기 지연: 10분
+     * - 반복 간격: 1시간 (3,600,000ms)
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 600_000)
+    public void archiveCompletedCampaigns() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        try {
+            List<Long> campaignIds = findArchivableCampaignIds();
+            for (Long campaignId : campaignIds) {
+                if (!leaderElection.isLeader()) {
+                    log.info("Lost scheduler leadership, stopping message archiving");
+                    return;
+                }
+                archiveCampaign(campaignId);
+            }
+        } catch (Exception e) {
+            log.error("Message archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 아카이브 대상 캠페인 조회
+     *
+     * 발송 완료(sent) 후 보관 기간이 지난 캠페인
+     */
+    private List<Long> findArchivableCampaignIds() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(RETENTION_DAYS, ChronoUnit.DAYS));
+        return jdbcTemplate.queryForList(
+            "SELECT c.id FROM campaigns c " +
+            "WHERE c.archived_at IS NULL AND c.status = 'sent' AND c.completed_at < ? " +
+            "ORDER BY c.id LIMIT ?",
+            Long.class,
+            cutoff, MAX_CAMPAIGNS_PER_RUN
+        );
+    }
+
+    /**
+     * 캠페인 메시지를 배치 단위로 아카이브 테이블로 이동
+     *
+     * PostgreSQL: DELETE ... RETURNING 결과를 그대로 INSERT (한 문장 = 한 트랜잭션)
+     *
+     * @param campaignId 캠페인 ID
+     * @return messages 에서 지운 메시지 개수 (아카이브에 이미 있던 행 포함)
+     */
+    private int archiveCampaign(long campaignId) {
+        int total = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_CAMPAIGN; batch++) {
+            // 리더 자격을 잃으면 남은 배치는 새 리더가 이어서 처리
+            if (!leaderElection.isLeader()) {
+                break;
+            }
+            // 이미 아카이브에 있는 행은 INSERT 되지 않아도 삭제는 되므로, 삭제된 행 수로 진행 여부를 판단
+            Integer moved = jdbcTemplate.queryForObject(
+                "WITH moved AS (" +
+                "  DELETE FROM messages WHERE id IN (" +
+                "    SELECT id FROM messages WHERE campaign_id = ? AND status <> 'queued' ORDER BY id LIMIT ?" +
+                "  ) RETURNING campaign_id, subscriber_id, status, sent_at" +
+                "), archived AS (" +
+                "  INSERT INTO messages_archive(campaign_id, subscriber_id, status, sent_at) " +
+                "  SELECT campaign_id, subscriber_id, status, sent_at FROM moved " +
+                "  ON CONFLICT (campaign_id, subscriber_id) DO NOTHING" +
+                ") " +
+                "SELECT count(*) FROM moved",
+                Integer.class,
+                campaignId, BATCH_SIZE
+            );
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+        }
+
+        // 남은 메시지가 없을 때만 아카이브 완료로 표시
+        int marked = jdbcTemplate.update(
+            "UPDATE campaigns SET archived_at = ? WHERE id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM messages WHERE campaign_id = ?)",
+            Timestamp.from(Instant.now()), campaignId, campaignId
+        );
+
+        if (marked > 0) {
+            log.info("Archived campaign ID={} ({} messages moved)", campaignId, total);
+        } else {
+            log.info("Archived {} messages for campaign ID={}, remaining rows will be moved next run", total, campaignId);
+        }
+        return total;
+    }
+}
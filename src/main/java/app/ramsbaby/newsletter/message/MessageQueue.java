@@ -0,0 +1,77 @@
+package app.ramsbaby.newsletter.message;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 발송 메시지 큐
+ *
+ * 메시지의 큐잉, 발송 대상 조회, 발송 결과 기록을 담당합니다.
+ * - jdbc (기본): messages 테이블을 큐로 사용 (JdbcMessageQueue)
+ * - mmap: 로컬 메모리 맵 로그 파일을 큐로 사용하고, 최종 결과만 주기적으로 DB에 기록
+ *   (MappedLogMessageQueue, 단일 인스턴스 전용)
+ *
+ * 상태 변경 메서드는 'queued' 상태인 메시지에만 반영되며, 실제로 반영된 메시지만 반환합니다.
+ */
+public interface MessageQueue {
+
+    /**
+     * 캠페인 메시지 큐잉 (이미 큐잉된 구독자는 다시 넣지 않음)
+     *
+     * 팬아웃은 체크포인트 이후 구독자만 넘기고 큐잉 수를 체크포인트와 함께 캠페인 카운터에 반영하므로,
+     * 이미 큐에 있는 구독자는 이전 시도에서 들어갔지만 카운터에는 반영되지 않은 메시지입니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @param recipients 수신자 목록
+     * @param plan 수신자 순번별 발송 가능 시각
+     * @return 수신자 중 큐에 들어 있는 메시지 개수 (이번에 새로 넣었거나 이미 있던 메시지)
+     */
+    int enqueue(long campaignId, List<Recipient> recipients, ReleasePlanner.Plan plan);
+
+    /**
+     * 발송 가능 시각이 지난 메시지를 발송 가능 시각 순으로 조회
+     */
+    List<QueuedMessage> poll(Instant now, int limit);
+
+    /**
+     * 대기 중인 메시지의 가장 빠른 발송 가능 시각
+     */
+    Optional<Instant> nextEligibleAt();
+
+    /**
+     * 발송 완료 처리
+     */
+    List<QueuedMessage> markSent(List<QueuedMessage> messages, Instant sentAt);
+
+    /**
+     * 시도 횟수를 늘리고 대기열에 남겨 eligibleAt 이후 다시 발송 대상이 되도록 처리
+     */
+    List<QueuedMessage> markForRetry(List<QueuedMessage> messages, Function<QueuedMessage, String> error,
+                                     Function<QueuedMessage, Instant> eligibleAt);
+
+    /**
+     * 더 이상 발송하지 않음 (재시도 한도 초과 또는 발송 억제)
+     *
+     * @param attempted 이번에 발송을 시도했는지 여부 (시도 횟수 증가)
+     */
+    List<QueuedMessage> markDead(List<QueuedMessage> messages, Function<QueuedMessage, String> error, boolean attempted);
+
+    /**
+     * 시도 횟수 변경 없이 발송 가능 시각만 미룸
+     */
+    void postpone(List<QueuedMessage> messages, Function<QueuedMessage, Instant> eligibleAt);
+
+    /**
+     * 배치의 캠페인별 발송 결과를 캠페인 카운터에 반영
+     *
+     * 백엔드에 따라 즉시 반영하거나, 최종 결과를 DB에 기록할 때 함께 반영합니다.
+     */
+    void settle(long campaignId, int sent, int failed, int dead);
+
+    /**
+     * 큐잉 대상 수신자
+     */
+    record Recipient(long subscriberId, String email) {}
+}
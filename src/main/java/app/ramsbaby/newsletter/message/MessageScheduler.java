@@ -1,46 +1,147 @@
 package app.ramsbaby.newsletter.message;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * 메시지 발송 스케줄러
  * 
- * 주기적으로 메시지 큐를 확인하고 발송합니다.
+ * 팬아웃 알림(SendWakeupEvent)을 받으면 즉시 메시지 큐를 비우고,
+ * 분산 발송으로 나중에 발송 가능해지는 메시지가 있으면 그 시각에 다시 깨어납니다.
+ * 고정 간격 폴링은 알림이 유실된 경우를 위한 안전망으로만 유지합니다.
  */
 @Component
 public class MessageScheduler {
     private static final Logger log = LoggerFactory.getLogger(MessageScheduler.class);
-    
+
     private final MessageService messageService;
-    
+
     // 한 번에 처리할 메시지 개수
     private static final int BATCH_SIZE = 50;
+    // 한 번 깨어났을 때 연속으로 처리할 최대 배치 수
+    private static final int MAX_BATCHES_PER_DRAIN = 20;
+    // 다음 발송 가능 시각 예약은 안전망 폴링 간격 이내일 때만 사용
+    private static final Duration MAX_TIMED_WAKEUP = Duration.ofMinutes(5);
+
+    // 발송은 항상 이 단일 스레드에서만 실행 (배치가 겹치지 않도록)
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "message-sender");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private ScheduledFuture<?> timedWakeup;
 
     public MessageScheduler(MessageService messageService) {
         this.messageService = messageService;
     }
 
     /**
-     * 메시지 발송 (5분마다)
+     * 안전망 폴링 (5분마다)
      * 
      * - 초기 지연: 2분
      * - 반복 간격: 5분 (300,000ms)
      */
     @Scheduled(fixedDelay = 300_000, initialDelay = 120_000)
     public void sendMessages() {
+        log.debug("Checking message queue...");
+        requestDrain();
+    }
+
+    /**
+     * 팬아웃 알림 수신 시 즉시 발송
+     */
+    @EventListener
+    public void onWakeup(SendWakeupEvent event) {
+        log.debug("Send wakeup received (campaign ID={})", event.campaignId());
+        requestDrain();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * 발송 요청
+     * 
+     * 이미 발송 중이면 현재 작업이 끝난 뒤 한 번 더 큐를 확인하도록 표시만 합니다.
+     */
+    private void requestDrain() {
+        wakeRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            worker.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop() {
         try {
-            log.debug("Checking message queue...");
-            int sentCount = messageService.sendQueuedMessages(BATCH_SIZE);
-            
-            if (sentCount > 0) {
+            while (wakeRequested.getAndSet(false)) {
+                drainQueue();
+            }
+        } finally {
+            draining.set(false);
+            // 종료 직전에 들어온 요청 처리
+            if (wakeRequested.get()) {
+                requestDrain();
+            }
+        }
+    }
+
+    /**
+     * 발송 가능한 메시지가 없을 때까지 배치 발송
+     */
+    private void drainQueue() {
+        try {
+            int totalSent = 0;
+            for (int batch = 0; batch < MAX_BATCHES_PER_DRAIN; batch++) {
+                int sentCount = messageService.sendQueuedMessages(BATCH_SIZE);
+                if (sentCount == 0) {
+                    break;
+                }
+                totalSent += sentCount;
                 log.info("Message batch sent: {}/{} success", sentCount, BATCH_SIZE);
             }
+            if (totalSent > 0) {
+                log.info("Drained {} messages", totalSent);
+            }
+            scheduleNextEligible();
         } catch (Exception e) {
             log.error("Message sending failed: {}", e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * 다음 발송 가능 시각에 맞춰 깨어나도록 예약
+     */
+    private void scheduleNextEligible() {
+        Optional<Instant> next = messageService.findNextEligibleAt();
+        if (next.isEmpty()) {
+            return;
+        }
+        Duration delay = Duration.between(Instant.now(), next.get());
+        if (delay.compareTo(MAX_TIMED_WAKEUP) > 0) {
+            return;
+        }
+        if (timedWakeup != null) {
+            timedWakeup.cancel(false);
+        }
+        long delayMs = Math.max(1_000, delay.toMillis());
+        timedWakeup = worker.schedule(this::requestDrain, delayMs, TimeUnit.MILLISECONDS);
+        log.debug("Next send wakeup in {}ms", delayMs);
+    }
+}
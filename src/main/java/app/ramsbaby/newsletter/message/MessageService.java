@@ -1,100 +1,119 @@
 package app.ramsbaby.newsletter.message;
 
+import app.ramsbaby.newsletter.campaign.CampaignContent;
+import app.ramsbaby.newsletter.campaign.CampaignContentCache;
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import app.ramsbaby.newsletter.jfr.SendBatchEvent;
+import app.ramsbaby.newsletter.mail.CampaignMailRenderer;
+import app.ramsbaby.newsletter.suppression.SuppressionList;
+import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.stereotype.Service;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
-import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * 메시지 큐잉 및 발송 서비스
  * 
  * 캠페인이 생성되면 활성 구독자에게 메시지를 큐잉하고,
  * 스케줄러가 주기적으로 큐에서 메시지를 꺼내 발송합니다.
+ * 큐 저장소는 MessageQueue 구현(jdbc/mmap)에 맡깁니다.
  */
 @Service
 public class MessageService {
     private static final Logger log = LoggerFactory.getLogger(MessageService.class);
-    private final JdbcTemplate jdbcTemplate;
-    private final JavaMailSender mailSender;
-
-    public MessageService(JdbcTemplate jdbcTemplate, JavaMailSender mailSender) {
-        this.jdbcTemplate = jdbcTemplate;
-        this.mailSender = mailSender;
+    private final CampaignContentCache contentCache;
+    private final CampaignService campaignService;
+    private final DomainShardDispatcher dispatcher;
+    private final SuppressionList suppressionList;
+    private final MessageQueue messageQueue;
+    private final CampaignMailRenderer mailRenderer;
+    private final FanOutRunner fanOutRunner;
+
+    // 메시지당 최대 발송 시도 횟수 (초과 시 dead 처리)
+    private static final int MAX_ATTEMPTS = 3;
+    // 재시도 기본 대기 시간 (시도마다 2배씩 증가)
+    private static final Duration RETRY_BACKOFF = Duration.ofMinutes(5);
+
+    public MessageService(CampaignContentCache contentCache, CampaignService campaignService,
+                          DomainShardDispatcher dispatcher, SuppressionList suppressionList,
+                          MessageQueue messageQueue, CampaignMailRenderer mailRenderer, FanOutRunner fanOutRunner) {
+        this.contentCache = contentCache;
+        this.campaignService = campaignService;
+        this.dispatcher = dispatcher;
+        this.suppressionList = suppressionList;
+        this.messageQueue = messageQueue;
+        this.mailRenderer = mailRenderer;
+        this.fanOutRunner = fanOutRunner;
     }
 
     /**
      * 캠페인에 대한 메시지 큐잉
      * 
-     * 활성 구독자(status='active')에게 메시지를 생성합니다.
+     * 전역 억제 목록(SuppressionList)에 없는 활성 구독자(status='active')에게 메시지를 생성하고,
+     * 새로 생성된 개수만큼 캠페인 대기 카운터를 증가시킨 뒤 발송 단계(sending)로 전환합니다.
+     * 각 메시지에는 분산 발송 계획(ReleasePlanner)에 따른 발송 가능 시각이 기록됩니다.
+     * 캠페인에 세그먼트가 지정되어 있으면 SegmentIndex 로 구한 구독자만 대상으로 합니다.
+     * 세그먼트 캠페인은 다이제스트에 넣지 않으므로, 일간/주간 다이제스트 구독자도 세그먼트에 속하면 바로 받습니다.
+     * 큐잉은 청크마다 체크포인트를 남기는 팬아웃 작업(FanOutRunner)으로 실행되어, 도중에 종료되어도 이어서 진행됩니다.
      * 
      * @param campaignId 캠페인 ID
      * @return 생성된 메시지 개수
      */
     public int queueMessagesForCampaign(long campaignId) {
-        // 활성 구독자 ID 조회
-        List<Long> activeSubscriberIds = jdbcTemplate.queryForList(
-            "SELECT id FROM newsletter_subscribers WHERE status = 'active'",
-            Long.class
-        );
-
-        if (activeSubscriberIds.isEmpty()) {
-            log.warn("No active subscribers found for campaign ID={}", campaignId);
-            return 0;
-        }
+        String deliveryMode = campaignService.findSegment(campaignId) != null ? FanOutRunner.ALL_MODES : "immediate";
+        return queueMessagesForCampaign(campaignId, deliveryMode);
+    }
 
-        // 각 구독자에게 메시지 생성 (중복 방지)
-        int count = 0;
-        for (Long subscriberId : activeSubscriberIds) {
-            try {
-                // PostgreSQL: ON CONFLICT DO NOTHING (중복 메시지 방지)
-                jdbcTemplate.update(
-                    "INSERT INTO messages(campaign_id, subscriber_id, status) VALUES(?, ?, 'queued') " +
-                    "ON CONFLICT (campaign_id, subscriber_id) DO NOTHING",
-                    campaignId, subscriberId
-                );
-                count++;
-            } catch (Exception e) {
-                log.error("Failed to queue message for subscriber ID={}: {}", subscriberId, e.getMessage());
-            }
-        }
+    /**
+     * 수신 방식이 deliveryMode 인 구독자에게만 메시지 큐잉
+     * 
+     * 포스트 캠페인은 즉시 수신(immediate) 구독자에게, 다이제스트 캠페인은 해당 주기 구독자에게 발송합니다.
+     * 
+     * @param campaignId 캠페인 ID
+     * @param deliveryMode 수신 방식 (immediate, daily, weekly, 세그먼트 캠페인은 FanOutRunner.ALL_MODES)
+     * @return 생성된 메시지 개수 (중단된 작업을 재개한 경우 이전 실행분 포함, 다른 인스턴스가 실행 중이면 0)
+     */
+    public int queueMessagesForCampaign(long campaignId, String deliveryMode) {
+        return fanOutRunner.run(campaignId, deliveryMode);
+    }
 
-        log.info("Queued {} messages for campaign ID={}", count, campaignId);
-        return count;
+    /**
+     * 가장 빠른 발송 가능 시각 조회
+     * 
+     * 분산 발송/재시도로 미래에 발송 가능해지는 메시지가 있을 때
+     * 스케줄러가 그 시각에 맞춰 깨어나도록 사용합니다.
+     * 
+     * @return 대기 중인 메시지의 최소 eligible_at (없으면 empty)
+     */
+    public Optional<Instant> findNextEligibleAt() {
+        return messageQueue.nextEligibleAt();
     }
 
     /**
      * 큐에서 메시지를 꺼내 발송
      * 
-     * 'queued' 상태인 메시지를 일괄 처리합니다.
+     * 발송 가능 시각(eligible_at)이 지난 'queued' 상태 메시지를 일괄 처리합니다.
+     * 실패한 메시지는 백오프 후 MAX_ATTEMPTS 까지 재시도되고, 이후 'dead'로 전환됩니다.
+     * 발송 결과는 배치가 끝난 뒤 캠페인별로 한 번에 카운터에 반영합니다.
      * 
      * @param batchSize 한 번에 처리할 메시지 개수
      * @return 발송 성공한 메시지 개수
      */
     public int sendQueuedMessages(int batchSize) {
-        // 큐에서 메시지 조회
-        List<QueuedMessage> messages = jdbcTemplate.query(
-            "SELECT m.id, m.campaign_id, m.subscriber_id, c.subject, c.html, s.email " +
-            "FROM messages m " +
-            "JOIN campaigns c ON m.campaign_id = c.id " +
-            "JOIN newsletter_subscribers s ON m.subscriber_id = s.id " +
-            "WHERE m.status = 'queued' " +
-            "LIMIT ?",
-            (rs, rowNum) -> new QueuedMessage(
-                rs.getLong("id"),
-                rs.getLong("campaign_id"),
-                rs.getLong("subscriber_id"),
-                rs.getString("email"),
-                rs.getString("subject"),
-                rs.getString("html")
-            ),
-            batchSize
-        );
+        SendBatchEvent event = new SendBatchEvent();
+        event.begin();
+        List<QueuedMessage> messages = messageQueue.poll(Instant.now(), batchSize);
 
         if (messages.isEmpty()) {
             log.debug("No queued messages to send");
@@ -103,80 +122,126 @@ public class MessageService {
 
         log.info("Processing {} queued messages...", messages.size());
 
-        int successCount = 0;
+        // 큐잉 이후 반송/신고/수신 거부되었거나 억제 목록에 추가된 구독자는 발송하지 않음
+        List<QueuedMessage> suppressed = new ArrayList<>();
+        Map<Long, String> suppressReasons = new HashMap<>();
+        List<QueuedMessage> deliverable = new ArrayList<>(messages.size());
         for (QueuedMessage msg : messages) {
-            boolean success = sendMessage(msg);
-            if (success) {
-                markAsSent(msg.id());
-                successCount++;
+            String reason = "active".equals(msg.subscriberStatus())
+                ? suppressionList.check(msg.email())
+                : msg.subscriberStatus();
+            if (reason == null) {
+                deliverable.add(msg);
             } else {
-                markAsFailed(msg.id(), "Failed to send email");
+                suppressed.add(msg);
+                suppressReasons.put(msg.id(), reason);
             }
         }
 
-        log.info("Sent {}/{} messages", successCount, messages.size());
-        return successCount;
-    }
-
-    /**
-     * 단일 메시지 발송
-     */
-    private boolean sendMessage(QueuedMessage msg) {
-        try {
-            SimpleMailMessage mail = new SimpleMailMessage();
-            mail.setTo(msg.email());
-            mail.setSubject(msg.subject());
-            mail.setText(stripHtml(msg.html())); // TODO: HTML 메일로 개선
-            
-            mailSender.send(mail);
-            log.info("Sent message ID={} to {}", msg.id(), msg.email());
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to send message ID={} to {}: {}", msg.id(), msg.email(), e.getMessage());
-            return false;
+        // 수신 도메인별로 샤딩하여 발송
+        List<DomainShardDispatcher.Delivery> deliveries = new ArrayList<>(deliverable.size());
+        List<QueuedMessage> orphaned = new ArrayList<>();
+        Map<Long, String> renderErrors = new HashMap<>();
+        for (QueuedMessage msg : deliverable) {
+            CampaignContent content = contentCache.get(msg.campaignId());
+            if (content == null) {
+                // 발송 도중 삭제된 캠페인 (jdbc 큐는 메시지도 CASCADE로 삭제되고, mmap 큐는 여기서 정리)
+                orphaned.add(msg);
+                continue;
+            }
+            try {
+                MimeMessage mail = mailRenderer.render(content, msg.subscriberId(), msg.email());
+                deliveries.add(new DomainShardDispatcher.Delivery(msg.id(), msg.email(), mail));
+            } catch (MailPreparationException e) {
+                // 주소 형식 오류 등 다시 시도해도 실패할 메시지
+                renderErrors.put(msg.id(), e.getMessage());
+            }
+        }
+        messageQueue.markDead(orphaned, msg -> "campaign deleted", false);
+        DomainShardDispatcher.DispatchResult result = dispatcher.dispatch(deliveries);
+
+        List<QueuedMessage> sent = new ArrayList<>();
+        List<QueuedMessage> retry = new ArrayList<>();
+        List<QueuedMessage> dead = new ArrayList<>();
+        List<QueuedMessage> deferred = new ArrayList<>();
+        for (QueuedMessage msg : deliverable) {
+            if (renderErrors.containsKey(msg.id())) {
+                dead.add(msg);
+            } else if (result.isSent(msg.id())) {
+                sent.add(msg);
+            } else if (result.deferredUntil(msg.id()) != null) {
+                deferred.add(msg);
+            } else if (result.failure(msg.id()) == null) {
+                continue; // 발송 중단으로 시도하지 않은 메시지(또는 삭제된 캠페인)는 건너뜀
+            } else if (msg.attempts() + 1 >= MAX_ATTEMPTS) {
+                dead.add(msg);
+            } else {
+                retry.add(msg);
+            }
         }
-    }
 
-    /**
-     * 메시지 상태를 'sent'로 업데이트
-     */
-    private void markAsSent(long messageId) {
-        jdbcTemplate.update(
-            "UPDATE messages SET status = 'sent', sent_at = ? WHERE id = ?",
-            Timestamp.from(Instant.now()),
-            messageId
+        // 상태 변경은 배치로 기록하고, 실제로 반영된 행만 캠페인별로 집계
+        Map<Long, DeliveryCounts> counts = new HashMap<>();
+        int successCount = 0;
+        for (QueuedMessage msg : messageQueue.markSent(sent, Instant.now())) {
+            counts.computeIfAbsent(msg.campaignId(), k -> new DeliveryCounts()).sent++;
+            successCount++;
+        }
+        Instant now = Instant.now();
+        List<QueuedMessage> retried = messageQueue.markForRetry(
+            retry,
+            msg -> result.failure(msg.id()),
+            msg -> now.plus(RETRY_BACKOFF.multipliedBy(1L << msg.attempts()))
         );
-    }
+        for (QueuedMessage msg : retried) {
+            counts.computeIfAbsent(msg.campaignId(), k -> new DeliveryCounts()).failed++;
+        }
+        for (QueuedMessage msg : messageQueue.markDead(
+                dead, msg -> renderErrors.getOrDefault(msg.id(), result.failure(msg.id())), true)) {
+            DeliveryCounts c = counts.computeIfAbsent(msg.campaignId(), k -> new DeliveryCounts());
+            c.failed++;
+            c.dead++;
+        }
+        // 발송 억제는 실패가 아니므로 dead 로만 집계
+        List<QueuedMessage> suppressedApplied = messageQueue.markDead(
+            suppressed, msg -> "suppressed: " + suppressReasons.get(msg.id()), false);
+        for (QueuedMessage msg : suppressedApplied) {
+            counts.computeIfAbsent(msg.campaignId(), k -> new DeliveryCounts()).dead++;
+        }
 
-    /**
-     * 메시지 상태를 'failed'로 업데이트
-     */
-    private void markAsFailed(long messageId, String error) {
-        jdbcTemplate.update(
-            "UPDATE messages SET status = 'failed', error = ? WHERE id = ?",
-            error,
-            messageId
-        );
-    }
+        // 백오프 중인 도메인의 메시지는 시도 횟수 증가 없이 발송 시각만 미룸
+        messageQueue.postpone(deferred, msg -> result.deferredUntil(msg.id()));
 
-    /**
-     * HTML 태그 제거 (간단한 구현)
-     * TODO: HTML 이메일 지원으로 개선
-     */
-    private String stripHtml(String html) {
-        return html.replaceAll("<[^>]*>", "").trim();
+        for (Map.Entry<Long, DeliveryCounts> entry : counts.entrySet()) {
+            DeliveryCounts c = entry.getValue();
+            messageQueue.settle(entry.getKey(), c.sent, c.failed, c.dead);
+        }
+
+        log.info("Sent {}/{} messages", successCount, messages.size());
+
+        Set<Long> campaignIds = new HashSet<>();
+        for (QueuedMessage msg : messages) {
+            campaignIds.add(msg.campaignId());
+        }
+        event.campaignId = campaignIds.size() == 1 ? campaignIds.iterator().next() : 0;
+        event.campaigns = campaignIds.size();
+        event.batchSize = messages.size();
+        event.sent = successCount;
+        event.retried = retried.size();
+        event.dead = dead.size();
+        event.suppressed = suppressedApplied.size();
+        event.deferred = deferred.size();
+        event.commit();
+        return successCount;
     }
 
     /**
-     * 큐에 있는 메시지 DTO
+     * 배치 내 캠페인별 발송 결과 집계
      */
-    private record QueuedMessage(
-        long id,
-        long campaignId,
-        long subscriberId,
-        String email,
-        String subject,
-        String html
-    ) {}
+    private static final class DeliveryCounts {
+        int sent;
+        int failed;
+        int dead;
+    }
 }
 
@@ -0,0 +1,20 @@
+package app.ramsbaby.newsletter.message;
+
+/**
+ * 큐에서 꺼낸 발송 대기 메시지
+ *
+ * @param id 메시지 ID (큐 백엔드 내에서 유일)
+ * @param campaignId 캠페인 ID
+ * @param subscriberId 구독자 ID
+ * @param attempts 지금까지의 발송 시도 횟수
+ * @param email 수신자 이메일
+ * @param subscriberStatus 조회 시점의 구독자 상태 (active가 아니면 발송하지 않음)
+ */
+public record QueuedMessage(
+        long id,
+        long campaignId,
+        long subscriberId,
+        int attempts,
+        String email,
+        String subscriberStatus
+) {}
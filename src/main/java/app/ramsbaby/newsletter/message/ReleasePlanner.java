@@ -0,0 +1,129 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * 캠페인 분산 발송 계획
+ *
+ * 팬아웃 시 수신자 순번마다 발송 가능 시각(eligible_at)을 계산하여
+ * 모든 메시지가 한꺼번에 발송 대상이 되지 않도록 합니다.
+ */
+@Component
+public class ReleasePlanner {
+    private final AppProps.Release props;
+
+    public ReleasePlanner(AppProps props) {
+        this.props = props.getRelease();
+    }
+
+    /**
+     * 발송 계획 생성
+     *
+     * @param start 발송 시작 기준 시각
+     * @param total 전체 수신자 수
+     * @return 수신자 순번별 발송 가능 시각 계산기
+     */
+    public Plan plan(Instant start, int total) {
+        int interval = Math.max(1, props.getRampIntervalMinutes());
+        int percent = Math.min(100, Math.max(1, props.getRampPercent()));
+        int perInterval = Math.max(1, (int) Math.ceil(total * percent / 100.0));
+
+        // 발송 창이 설정되어 있으면 그 안에 모두 나가도록 간격당 인원을 늘림
+        Integer window = props.getWindowMinutes();
+        if (window != null && window > 0) {
+            int slots = Math.max(1, window / interval);
+            perInterval = Math.max(perInterval, (int) Math.ceil(total / (double) slots));
+        }
+
+        return new Plan(start, perInterval, Duration.ofMinutes(interval), 0);
+    }
+
+    /**
+     * 수신자 순번별 발송 가능 시각 계산기
+     */
+    public final class Plan {
+        private final Instant start;
+        private final int perInterval;
+        private final Duration interval;
+        private final int base;
+
+        private Plan(Instant start, int perInterval, Duration interval, int base) {
+            this.start = start;
+            this.perInterval = perInterval;
+            this.interval = interval;
+            this.base = base;
+        }
+
+        /**
+         * 순번 base 부터 시작하는 같은 계획 (청크 단위 팬아웃에서 청크 안 순번을 전체 순번으로 이어가기 위함)
+         *
+         * @param base 청크 첫 수신자의 전체 순번
+         */
+        public Plan from(int base) {
+            return new Plan(start, perInterval, interval, base);
+        }
+
+        /**
+         * @param index 수신자 순번 (0부터, from 으로 만든 계획은 base 기준)
+         * @return 발송 가능 시각
+         */
+        public Instant eligibleAt(int index) {
+            Duration offset = interval.multipliedBy((base + index) / perInterval);
+            return skipQuietHours(start, offset);
+        }
+    }
+
+    /**
+     * 방해 금지 시간을 건너뛰며 기준 시각에서 offset 만큼 진행한 시각
+     *
+     * offset은 발송 가능한 시간만 소모하므로, 방해 금지 시간이 끝난 직후에
+     * 메시지가 한꺼번에 몰리지 않고 원래의 간격이 그대로 이어집니다.
+     */
+    private Instant skipQuietHours(Instant base, Duration offset) {
+        Integer quietStart = props.getQuietStartHour();
+        Integer quietEnd = props.getQuietEndHour();
+        if (quietStart == null || quietEnd == null || quietStart.equals(quietEnd)) {
+            return base.plus(offset);
+        }
+
+        ZoneId zone = ZoneId.of(props.getZone());
+        ZonedDateTime t = base.atZone(zone);
+        Duration remaining = offset;
+        while (true) {
+            if (isQuiet(t.toLocalTime(), quietStart, quietEnd)) {
+                t = nextAt(t, quietEnd);
+            }
+            ZonedDateTime nextQuiet = nextAt(t, quietStart);
+            Duration available = Duration.between(t, nextQuiet);
+            if (remaining.compareTo(available) < 0) {
+                return t.plus(remaining).toInstant();
+            }
+            remaining = remaining.minus(available);
+            t = nextQuiet;
+        }
+    }
+
+    private static boolean isQuiet(LocalTime time, int startHour, int endHour) {
+        int hour = time.getHour();
+        if (startHour < endHour) {
+            return hour >= startHour && hour < endHour;
+        }
+        // 자정을 넘기는 구간 (예: 22시 ~ 7시)
+        return hour >= startHour || hour < endHour;
+    }
+
+    /**
+     * t 이후 처음으로 돌아오는 hour 정각
+     */
+    private static ZonedDateTime nextAt(ZonedDateTime t, int hour) {
+        ZonedDateTime candidate = t.toLocalDate().atTime(hour, 0).atZone(t.getZone());
+        return candidate.isAfter(t) ? candidate : candidate.plusDays(1);
+    }
+}
@@ -0,0 +1,150 @@
+package app.ramsbaby.newsletter.message;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * 발송 스케줄러 즉시 깨우기
+ *
+ * 팬아웃이 끝나면 PostgreSQL NOTIFY로 모든 인스턴스에 알리고,
+ * 각 인스턴스는 전용 LISTEN 연결에서 알림을 받아 SendWakeupEvent를 발행합니다.
+ * H2/SQLite 등 PostgreSQL이 아닌 환경에서는 같은 프로세스 안에서만 이벤트를 발행합니다.
+ *
+ * LISTEN은 세션 상태가 필요하므로 트랜잭션 풀러(6543)가 아닌 세션 풀러(5432)에 연결합니다.
+ * 애플리케이션 풀과 별도로 인스턴스당 1개의 연결을 사용합니다.
+ */
+@Component
+public class SendWakeup {
+    private static final Logger log = LoggerFactory.getLogger(SendWakeup.class);
+
+    private static final String CHANNEL = "newsletter_send";
+    // 알림 대기 타임아웃 (이 간격마다 종료 여부 확인)
+    private static final int POLL_TIMEOUT_MS = 10_000;
+    // LISTEN 연결 실패 시 재연결 대기 시간
+    private static final long RECONNECT_DELAY_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Environment environment;
+    private final AppProps props;
+    private final boolean postgres;
+
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    public SendWakeup(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                      Environment environment, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.environment = environment;
+        this.props = props;
+        this.postgres = environment.getProperty("spring.datasource.url", "").startsWith("jdbc:postgresql:");
+    }
+
+    /**
+     * 새 메시지 큐잉 알림
+     *
+     * 로컬 이벤트를 바로 발행하고, PostgreSQL이면 NOTIFY로 다른 인스턴스에도 알립니다.
+     *
+     * @param campaignId 캠페인 ID
+     */
+    public void publish(long campaignId) {
+        eventPublisher.publishEvent(new SendWakeupEvent(campaignId));
+        if (!postgres) {
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, String.valueOf(campaignId));
+        } catch (Exception e) {
+            // 알림 실패 시에도 다른 인스턴스는 주기적 폴링으로 발송함
+            log.warn("Failed to publish send wakeup for campaign ID={}: {}", campaignId, e.getMessage());
+        }
+    }
+
+    /**
+     * 애플리케이션 시작 완료 후 LISTEN 스레드 시작 (PostgreSQL 전용)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListener() {
+        if (!postgres || !props.getWakeup().isListen()) {
+            log.info("Send wakeup: in-process events only");
+            return;
+        }
+        listenerThread = new Thread(this::listenLoop, "send-wakeup-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stopListener() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection conn = openListenConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Send wakeup: listening on channel {}", CHANNEL);
+                PGConnection pgConn = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConn.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null || notifications.length == 0) {
+                        continue;
+                    }
+                    // 여러 알림이 한꺼번에 와도 한 번만 깨우면 충분함
+                    eventPublisher.publishEvent(new SendWakeupEvent(parseCampaignId(notifications[0].getParameter())));
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Send wakeup listener failed: {}. Reconnecting in {}ms", e.getMessage(), RECONNECT_DELAY_MS);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * LISTEN 전용 연결 생성 (세션 풀러 5432 사용)
+     */
+    private Connection openListenConnection() throws Exception {
+        String url = environment.getProperty("spring.datasource.url").replace(":6543", ":5432");
+        return DriverManager.getConnection(
+            url,
+            environment.getProperty("spring.datasource.username"),
+            environment.getProperty("spring.datasource.password")
+        );
+    }
+
+    private static long parseCampaignId(String payload) {
+        try {
+            return Long.parseLong(payload);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package app.ramsbaby.newsletter.message;
+
+/**
+ * 발송 대기열에 새 메시지가 들어왔음을 알리는 애플리케이션 이벤트
+ *
+ * @param campaignId 메시지가 큐잉된 캠페인 ID (다른 인스턴스에서 받은 알림의 페이로드가 없으면 0)
+ */
+public record SendWakeupEvent(long campaignId) {}
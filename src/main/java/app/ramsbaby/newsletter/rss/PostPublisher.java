@@ -0,0 +1,101 @@
+package app.ramsbaby.newsletter.rss;
+
+import app.ramsbaby.newsletter.campaign.CampaignProgress;
+import app.ramsbaby.newsletter.campaign.CampaignService;
+import app.ramsbaby.newsletter.message.MessageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 새 포스트 발행 처리
+ *
+ * RSS 폴링과 발행 알림(ingest) 엔드포인트가 공통으로 사용합니다.
+ * campaigns.source 기준으로 멱등하게 캠페인을 생성하고,
+ * 아직 팬아웃되지 않은(scheduled) 캠페인만 메시지를 큐잉합니다.
+ */
+@Component
+public class PostPublisher {
+    private static final Logger log = LoggerFactory.getLogger(PostPublisher.class);
+
+    // 포스트 캠페인 제목 접두어 (다이제스트에서 포스트 제목만 꺼낼 때도 사용)
+    public static final String SUBJECT_PREFIX = "새 포스트: ";
+
+    private final CampaignService campaignService;
+    private final MessageService messageService;
+
+    public PostPublisher(CampaignService campaignService, MessageService messageService) {
+        this.campaignService = campaignService;
+        this.messageService = messageService;
+    }
+
+    /**
+     * 포스트 발행
+     *
+     * @param link 포스트 URL (캠페인 source)
+     * @param title 포스트 제목
+     * @param description 포스트 요약 HTML (없으면 null)
+     * @return 캠페인 ID, 팬아웃 실행 여부, 큐잉된 메시지 수
+     */
+    public PublishResult publish(String link, String title, String description) {
+        return publish(link, title, description, null);
+    }
+
+    /**
+     * 대상 세그먼트를 지정해 포스트 발행
+     *
+     * @param segment 세그먼트 식 (null 이면 전체 활성 구독자, 캠페인이 이미 있으면 무시)
+     * @return 캠페인 ID, 팬아웃 실행 여부, 큐잉된 메시지 수
+     */
+    public PublishResult publish(String link, String title, String description, String segment) {
+        String subject = SUBJECT_PREFIX + title;
+        String htmlBody = buildEmailBody(link, title, description);
+        long campaignId = campaignService.createCampaign(link, subject, htmlBody, segment);
+
+        // 이미 팬아웃이 끝난 캠페인은 다시 큐잉하지 않음
+        String status = campaignService.findProgress(campaignId)
+                .map(CampaignProgress::status)
+                .orElse("scheduled");
+        if (!"scheduled".equals(status)) {
+            log.info("Campaign ID={} already {}, skipping fan-out", campaignId, status);
+            return new PublishResult(campaignId, false, 0);
+        }
+
+        int messageCount = messageService.queueMessagesForCampaign(campaignId);
+        log.info("Campaign created (ID={}) with {} messages", campaignId, messageCount);
+        return new PublishResult(campaignId, true, messageCount);
+    }
+
+    /**
+     * 이메일 본문 생성
+     * 
+     * TODO: Thymeleaf 템플릿으로 개선
+     */
+    private String buildEmailBody(String link, String title, String description) {
+        StringBuilder html = new StringBuilder();
+        html.append("<html><body style='font-family: sans-serif;'>");
+        html.append("<h2>").append(title).append("</h2>");
+        
+        if (description != null) {
+            html.append("<p>").append(description).append("</p>");
+        }
+        
+        html.append("<p><a href='").append(link).append("' ");
+        html.append("style='background:#2563eb;color:white;padding:12px 24px;text-decoration:none;border-radius:6px;display:inline-block;'>");
+        html.append("포스트 읽기</a></p>");
+        
+        html.append("<hr style='margin-top:32px;border:none;border-top:1px solid #e5e7eb;'>");
+        html.append("<p style='color:#6b7280;font-size:12px;'>");
+        html.append("이 이메일은 Ramsbaby 블로그 뉴스레터 구독자에게 발송되었습니다.<br>");
+        html.append("더 이상 받고 싶지 않으시면 <a href='{{unsubscribe_link}}'>구독 해제</a>를 클릭하세요.");
+        html.append("</p>");
+        html.append("</body></html>");
+        
+        return html.toString();
+    }
+
+    /**
+     * 발행 처리 결과
+     */
+    public record PublishResult(long campaignId, boolean fannedOut, int queued) {}
+}
@@ -0,0 +1,123 @@
+package app.ramsbaby.newsletter.rss;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.config.HmacSignatures;
+import app.ramsbaby.newsletter.segment.SegmentIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 포스트 발행 알림 수신 (push 방식)
+ *
+ * 정적 사이트 빌드가 포스트 발행 직후 호출하여 RSS 폴링 지연 없이 바로 캠페인을 생성합니다.
+ * 모든 요청은 원본 본문에 대한 HMAC-SHA256 서명(X-Signature: sha256=&lt;hex&gt;)으로 인증합니다.
+ * 서명은 RawBodyFilter 가 파라미터 파싱 전에 보관한 원본 바이트로 검증합니다.
+ */
+@RestController
+@RequestMapping("/api/ingest")
+public class PublishIngestController {
+
+    private final PostPublisher postPublisher;
+    private final RssScheduler rssScheduler;
+    private final SegmentIndex segmentIndex;
+    private final AppProps props;
+    private final ObjectMapper objectMapper;
+
+    public PublishIngestController(PostPublisher postPublisher, RssScheduler rssScheduler,
+                                   SegmentIndex segmentIndex, AppProps props, ObjectMapper objectMapper) {
+        this.postPublisher = postPublisher;
+        this.rssScheduler = rssScheduler;
+        this.segmentIndex = segmentIndex;
+        this.props = props;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 서명된 JSON 발행 알림
+     *
+     * POST /api/ingest/posts
+     * {"link": "https://.../post/", "title": "...", "description": "...", "segment": "tag:java AND engaged:30d"}
+     *
+     * campaigns.source(link) 기준으로 멱등하므로 같은 알림을 여러 번 보내도 한 번만 발송됩니다.
+     * segment 를 생략하면 전체 활성 구독자에게 발송합니다.
+     *
+     * @return 202 Accepted (캠페인 ID, 팬아웃 여부, 큐잉 수), 400 Bad Request (필드 누락, 세그먼트 식 오류), 401 Unauthorized (서명 불일치)
+     */
+    @PostMapping(value = "/posts", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> ingestPost(@RequestHeader(value = HmacSignatures.SIGNATURE_HEADER, required = false) String signature,
+                                        @RequestAttribute(RawBodyFilter.RAW_BODY) byte[] body) throws Exception {
+        ResponseEntity<?> denied = verify(signature, body);
+        if (denied != null) {
+            return denied;
+        }
+
+        JsonNode payload = objectMapper.readTree(body);
+        String link = payload.path("link").asText("");
+        String title = payload.path("title").asText("");
+        if (link.isBlank() || title.isBlank()) {
+            return ResponseEntity.badRequest().body("link, title 필드가 필요합니다.");
+        }
+        String description = payload.hasNonNull("description") ? payload.get("description").asText() : null;
+        String segment = payload.hasNonNull("segment") ? payload.get("segment").asText() : null;
+        if (segment != null) {
+            try {
+                segmentIndex.validate(segment);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
+        PostPublisher.PublishResult result = postPublisher.publish(link, title, description, segment);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    /**
+     * WebSub 방식 발행 핑
+     *
+     * POST /api/ingest/websub (application/x-www-form-urlencoded)
+     * hub.mode=publish&hub.url=&lt;RSS URL&gt;
+     *
+     * 설정된 RSS 피드를 즉시 한 번 폴링합니다.
+     *
+     * @return 202 Accepted, 400 Bad Request (다른 피드), 401 Unauthorized (서명 불일치)
+     */
+    @PostMapping(value = "/websub", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<?> websubPing(@RequestHeader(value = HmacSignatures.SIGNATURE_HEADER, required = false) String signature,
+                                        @RequestAttribute(RawBodyFilter.RAW_BODY) byte[] body) {
+        ResponseEntity<?> denied = verify(signature, body);
+        if (denied != null) {
+            return denied;
+        }
+
+        String form = new String(body, StandardCharsets.UTF_8);
+        String mode = formValue(form, "hub.mode");
+        String url = formValue(form, "hub.url");
+        if (!"publish".equals(mode) || url == null || !url.equals(props.getRssUrl())) {
+            return ResponseEntity.badRequest().body("hub.mode=publish, hub.url=<RSS URL> 이 필요합니다.");
+        }
+
+        rssScheduler.poll();
+        return ResponseEntity.accepted().build();
+    }
+
+    private ResponseEntity<?> verify(String signature, byte[] body) {
+        return HmacSignatures.verify(props.getIngest().getSecret(), signature, body, "ingest가 설정되지 않았습니다.");
+    }
+
+    private static String formValue(String body, String name) {
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -1,8 +1,8 @@
 package app.ramsbaby.newsletter.rss;
 
-import app.ramsbaby.newsletter.campaign.CampaignService;
 import app.ramsbaby.newsletter.config.AppProps;
-import app.ramsbaby.newsletter.message.MessageService;
+import app.ramsbaby.newsletter.jfr.FeedFetchEvent;
+import app.ramsbaby.newsletter.leader.LeaderElection;
 import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.SyndFeedInput;
@@ -22,32 +22,55 @@ import java.util.Date;
  * 
  * 주기적으로 RSS 피드를 폴링하여 신규 포스트를 감지하고,
  * 새 포스트가 발견되면 캠페인을 생성하고 메시지를 큐잉합니다.
+ * 
+ * 발행 알림 엔드포인트(/api/ingest)가 주 경로이고, 폴링은 알림 누락에 대비한 느린 안전망입니다.
+ * 여러 인스턴스가 떠 있어도 주기적 폴링은 리더 인스턴스 하나만 수행합니다.
  */
 @Component
 public class RssScheduler {
     private static final Logger log = LoggerFactory.getLogger(RssScheduler.class);
     
     private final AppProps props;
-    private final CampaignService campaignService;
-    private final MessageService messageService;
+    private final PostPublisher postPublisher;
+    private final LeaderElection leaderElection;
     
     // 마지막 폴링 시간 (서버 재시작 시 최근 24시간 포스트 감지)
     private Instant lastPolled = Instant.now().minus(24, ChronoUnit.HOURS);
 
-    public RssScheduler(AppProps props, CampaignService campaignService, MessageService messageService) {
+    public RssScheduler(AppProps props, PostPublisher postPublisher, LeaderElection leaderElection) {
         this.props = props;
-        this.campaignService = campaignService;
-        this.messageService = messageService;
+        this.postPublisher = postPublisher;
+        this.leaderElection = leaderElection;
     }
 
     /**
-     * RSS 피드 폴링 (15분마다)
+     * 주기적 RSS 폴링 (리더 인스턴스만)
      * 
      * - 초기 지연: 1분
-     * - 반복 간격: 15분 (900,000ms)
+     * - 반복 간격: app.ingest.fallbackPollMs (기본 15분)
+     */
+    @Scheduled(fixedDelayString = "${app.ingest.fallbackPollMs:900000}", initialDelay = 60_000)
+    public void scheduledPoll() {
+        if (!leaderElection.isLeader()) {
+            log.debug("Not the scheduler leader, skipping RSS poll");
+            return;
+        }
+        poll(true);
+    }
+
+    /**
+     * RSS 피드 폴링
+     * 
+     * 발행 알림(WebSub ping)을 받은 인스턴스에서도 호출되므로 동시에 실행되지 않도록 동기화합니다.
      */
-    @Scheduled(fixedDelay = 900_000, initialDelay = 60_000)
     public void poll() {
+        poll(false);
+    }
+
+    /**
+     * @param leaderOnly 리더 자격을 잃으면 남은 엔트리를 처리하지 않고 멈출지 여부 (주기적 폴링)
+     */
+    private synchronized void poll(boolean leaderOnly) {
         if (props.getRssUrl() == null || props.getRssUrl().isEmpty()) {
             log.debug("RSS URL not configured, skipping poll");
             return;
@@ -55,11 +78,15 @@ public class RssScheduler {
 
         try {
             log.info("Polling RSS feed: {}", props.getRssUrl());
-            URL url = new URL(props.getRssUrl());
-            SyndFeed feed = new SyndFeedInput().build(new XmlReader(url));
+            SyndFeed feed = fetch(props.getRssUrl());
             
             int newPostCount = 0;
             for (SyndEntry entry : feed.getEntries()) {
+                // 새 리더가 처음부터 다시 폴링하므로 lastPolled 를 갱신하지 않고 멈춤
+                if (leaderOnly && !leaderElection.isLeader()) {
+                    log.info("Lost scheduler leadership, stopping RSS poll");
+                    return;
+                }
                 boolean isNew = processEntry(entry);
                 if (isNew) {
                     newPostCount++;
@@ -79,6 +106,23 @@ public class RssScheduler {
         }
     }
 
+    /**
+     * 피드 다운로드 및 파싱 (JFR FeedFetch 이벤트로 소요 시간 기록)
+     */
+    private SyndFeed fetch(String rssUrl) throws Exception {
+        FeedFetchEvent event = new FeedFetchEvent();
+        event.begin();
+        event.url = rssUrl;
+        try {
+            SyndFeed feed = new SyndFeedInput().build(new XmlReader(new URL(rssUrl)));
+            event.entries = feed.getEntries().size();
+            event.success = true;
+            return feed;
+        } finally {
+            event.commit();
+        }
+    }
+
     /**
      * RSS 엔트리 처리
      * 
@@ -107,49 +151,13 @@ public class RssScheduler {
             
             log.info("New post detected: {}", title);
             
-            // 캠페인 생성
-            String subject = "새 포스트: " + title;
-            String htmlBody = buildEmailBody(entry);
-            long campaignId = campaignService.createCampaign(link, subject, htmlBody);
-            
-            // 메시지 큐잉
-            int messageCount = messageService.queueMessagesForCampaign(campaignId);
-            log.info("Campaign created (ID={}) with {} messages", campaignId, messageCount);
-            
-            return true;
+            // 캠페인 생성 및 메시지 큐잉 (source 기준 멱등)
+            String description = entry.getDescription() != null ? entry.getDescription().getValue() : null;
+            return postPublisher.publish(link, title, description).fannedOut();
         } catch (Exception e) {
             log.error("Failed to process entry '{}': {}", entry.getTitle(), e.getMessage());
             return false;
         }
     }
-
-    /**
-     * 이메일 본문 생성
-     * 
-     * TODO: Thymeleaf 템플릿으로 개선
-     */
-    private String buildEmailBody(SyndEntry entry) {
-        StringBuilder html = new StringBuilder();
-        html.append("<html><body style='font-family: sans-serif;'>");
-        html.append("<h2>").append(entry.getTitle()).append("</h2>");
-        
-        if (entry.getDescription() != null) {
-            html.append("<p>").append(entry.getDescription().getValue()).append("</p>");
-        }
-        
-        html.append("<p><a href='").append(entry.getLink()).append("' ");
-        html.append("style='background:#2563eb;color:white;padding:12px 24px;text-decoration:none;border-radius:6px;display:inline-block;'>");
-        html.append("포스트 읽기</a></p>");
-        
-        html.append("<hr style='margin-top:32px;border:none;border-top:1px solid #e5e7eb;'>");
-        html.append("<p style='color:#6b7280;font-size:12px;'>");
-        html.append("이 이메일은 Ramsbaby 블로그 뉴스레터 구독자에게 발송되었습니다.<br>");
-        html.append("더 이상 받고 싶지 않으시면 <a href='{{unsubscribe_link}}'>구독 해제</a>를 클릭하세요.");
-        html.append("</p>");
-        html.append("</body></html>");
-        
-        return html.toString();
-    }
 }
 
-
@@ -0,0 +1,447 @@
+package app.ramsbaby.newsletter.segment;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 압축 비트맵 (Roaring 방식)
+ *
+ * 정수를 상위 16비트로 묶어 컨테이너에 담습니다.
+ * - 배열 컨테이너: 하위 16비트 정렬 배열 (4096개 이하, 희소한 구간)
+ * - 비트맵 컨테이너: 65536비트 (4096개 초과, 밀집 구간)
+ *
+ * 구독자 ID는 SERIAL(양수 int)이므로 부호 없는 순서와 부호 있는 순서가 같습니다.
+ * 스레드 안전하지 않으며, SegmentIndex 는 스냅샷에 넣은 뒤에는 수정하지 않습니다.
+ */
+final class RoaringBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    RoaringBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    boolean add(int value) {
+        char high = (char) (value >>> 16);
+        int i = find(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new Container());
+        }
+        return containers[i].add((char) value);
+    }
+
+    boolean remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0 || !containers[i].remove((char) value)) {
+            return false;
+        }
+        if (containers[i].card == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        }
+        return true;
+    }
+
+    boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].card;
+        }
+        return total;
+    }
+
+    RoaringBitmap copy() {
+        Container[] copied = new Container[containers.length];
+        for (int i = 0; i < size; i++) {
+            copied[i] = containers[i].copy();
+        }
+        return new RoaringBitmap(keys.clone(), copied, size);
+    }
+
+    /**
+     * 교집합 (새 비트맵)
+     */
+    RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 합집합 (새 비트맵)
+     */
+    RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], Container.or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 차집합 this - other (새 비트맵)
+     */
+    RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                result.append(keys[i], Container.andNot(containers[i], other.containers[j]));
+            } else {
+                result.append(keys[i], containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 여러 비트맵의 합집합 (새 비트맵)
+     *
+     * 일자별 비트맵 수백 개를 합칠 때 중간 결과를 매번 복사하지 않도록 키별 비트 배열에 한 번에 모읍니다.
+     */
+    static RoaringBitmap union(Iterable<RoaringBitmap> bitmaps) {
+        TreeMap<Character, long[]> words = new TreeMap<>();
+        for (RoaringBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                bitmap.containers[i].orInto(words.computeIfAbsent(bitmap.keys[i], k -> new long[WORDS]));
+            }
+        }
+        RoaringBitmap result = new RoaringBitmap();
+        for (Map.Entry<Character, long[]> entry : words.entrySet()) {
+            result.append(entry.getKey(), Container.fromWords(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 오름차순 정수 배열
+     */
+    int[] toArray() {
+        long cardinality = cardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Bitmap too large: " + cardinality);
+        }
+        int[] out = new int[(int) cardinality];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            pos = containers[i].fill(keys[i] << 16, out, pos);
+        }
+        return out;
+    }
+
+    /**
+     * 메모리 사용량 근사 (바이트)
+     */
+    long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            Container c = containers[i];
+            bytes += c.bits != null ? WORDS * 8L : c.array.length * 2L;
+        }
+        return bytes;
+    }
+
+    private int find(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int i, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        size++;
+    }
+
+    /**
+     * 키 순서대로 결과를 만들 때 사용 (빈 컨테이너는 버림)
+     */
+    private void append(char key, Container container) {
+        if (container != null && container.card > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    /**
+     * 상위 16비트가 같은 값들의 컨테이너 (array 또는 bits 중 하나만 사용)
+     */
+    private static final class Container {
+        private char[] array = new char[4];
+        private long[] bits;
+        private int card;
+
+        private boolean contains(char v) {
+            if (bits != null) {
+                return (bits[v >>> 6] & (1L << v)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, card, v) >= 0;
+        }
+
+        private boolean add(char v) {
+            if (bits != null) {
+                long before = bits[v >>> 6];
+                bits[v >>> 6] = before | (1L << v);
+                if (before == bits[v >>> 6]) {
+                    return false;
+                }
+                card++;
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, card, v);
+            if (i >= 0) {
+                return false;
+            }
+            if (card == ARRAY_MAX) {
+                bits = words();
+                array = null;
+                return add(v);
+            }
+            i = -i - 1;
+            if (card == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, card * 2));
+            }
+            System.arraycopy(array, i, array, i + 1, card - i);
+            array[i] = v;
+            card++;
+            return true;
+        }
+
+        private boolean remove(char v) {
+            if (bits != null) {
+                long before = bits[v >>> 6];
+                bits[v >>> 6] = before & ~(1L << v);
+                if (before == bits[v >>> 6]) {
+                    return false;
+                }
+                card--;
+                if (card <= ARRAY_MAX) {
+                    toArrayForm();
+                }
+                return true;
+            }
+            int i = Arrays.binarySearch(array, 0, card, v);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(array, i + 1, array, i, card - i - 1);
+            card--;
+            return true;
+        }
+
+        private long[] words() {
+            if (bits != null) {
+                return bits;
+            }
+            long[] w = new long[WORDS];
+            for (int i = 0; i < card; i++) {
+                w[array[i] >>> 6] |= 1L << array[i];
+            }
+            return w;
+        }
+
+        private void orInto(long[] w) {
+            if (bits != null) {
+                for (int i = 0; i < WORDS; i++) {
+                    w[i] |= bits[i];
+                }
+                return;
+            }
+            for (int i = 0; i < card; i++) {
+                w[array[i] >>> 6] |= 1L << array[i];
+            }
+        }
+
+        private void toArrayForm() {
+            char[] values = new char[Math.max(4, card)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            array = values;
+            bits = null;
+        }
+
+        private static Container fromWords(long[] w) {
+            Container c = new Container();
+            int card = 0;
+            for (long word : w) {
+                card += Long.bitCount(word);
+            }
+            c.bits = w;
+            c.card = card;
+            c.array = null;
+            if (card <= ARRAY_MAX) {
+                c.toArrayForm();
+            }
+            return c;
+        }
+
+        private Container copy() {
+            Container c = new Container();
+            c.card = card;
+            c.bits = bits != null ? bits.clone() : null;
+            c.array = array != null ? array.clone() : null;
+            return c;
+        }
+
+        private int fill(int base, int[] out, int pos) {
+            if (bits == null) {
+                for (int i = 0; i < card; i++) {
+                    out[pos++] = base | array[i];
+                }
+                return pos;
+            }
+            for (int w = 0; w < WORDS; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    out[pos++] = base | ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return pos;
+        }
+
+        private static Container and(Container a, Container b) {
+            if (a.bits == null && b.bits == null) {
+                Container c = new Container();
+                c.array = new char[Math.max(4, Math.min(a.card, b.card))];
+                int i = 0;
+                int j = 0;
+                while (i < a.card && j < b.card) {
+                    if (a.array[i] < b.array[j]) {
+                        i++;
+                    } else if (a.array[i] > b.array[j]) {
+                        j++;
+                    } else {
+                        c.array[c.card++] = a.array[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return c;
+            }
+            if (a.bits == null || b.bits == null) {
+                // 배열 쪽 값만 비트맵에서 확인
+                Container small = a.bits == null ? a : b;
+                Container large = a.bits == null ? b : a;
+                Container c = new Container();
+                c.array = new char[Math.max(4, small.card)];
+                for (int i = 0; i < small.card; i++) {
+                    if (large.contains(small.array[i])) {
+                        c.array[c.card++] = small.array[i];
+                    }
+                }
+                return c;
+            }
+            long[] w = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                w[i] = a.bits[i] & b.bits[i];
+            }
+            return fromWords(w);
+        }
+
+        private static Container or(Container a, Container b) {
+            if (a.bits == null && b.bits == null && a.card + b.card <= ARRAY_MAX) {
+                Container c = new Container();
+                c.array = new char[Math.max(4, a.card + b.card)];
+                int i = 0;
+                int j = 0;
+                while (i < a.card || j < b.card) {
+                    char v;
+                    if (j >= b.card || (i < a.card && a.array[i] < b.array[j])) {
+                        v = a.array[i++];
+                    } else if (i >= a.card || a.array[i] > b.array[j]) {
+                        v = b.array[j++];
+                    } else {
+                        v = a.array[i++];
+                        j++;
+                    }
+                    c.array[c.card++] = v;
+                }
+                return c;
+            }
+            long[] w = a.words().clone();
+            long[] other = b.words();
+            for (int i = 0; i < WORDS; i++) {
+                w[i] |= other[i];
+            }
+            return fromWords(w);
+        }
+
+        private static Container andNot(Container a, Container b) {
+            if (a.bits == null) {
+                Container c = new Container();
+                c.array = new char[Math.max(4, a.card)];
+                for (int i = 0; i < a.card; i++) {
+                    if (!b.contains(a.array[i])) {
+                        c.array[c.card++] = a.array[i];
+                    }
+                }
+                return c;
+            }
+            long[] w = a.bits.clone();
+            long[] other = b.words();
+            for (int i = 0; i < WORDS; i++) {
+                w[i] &= ~other[i];
+            }
+            return fromWords(w);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package app.ramsbaby.newsletter.segment;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/segments")
+public class SegmentController {
+
+    private final SegmentIndex segmentIndex;
+
+    public SegmentController(SegmentIndex segmentIndex) {
+        this.segmentIndex = segmentIndex;
+    }
+
+    /**
+     * 세그먼트 크기 미리보기
+     *
+     * 예: GET /api/segments/preview?expr=tag:java AND engaged:30d
+     *
+     * @return 200 OK (구독자 수, 평가 시간), 400 Bad Request (식 오류)
+     */
+    @GetMapping("/preview")
+    public ResponseEntity<?> preview(@RequestParam String expr) {
+        try {
+            return ResponseEntity.ok(segmentIndex.preview(expr));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * 세그먼트 인덱스 통계
+     *
+     * GET /api/segments/stats
+     *
+     * @return 활성 구독자 수, 태그/가입 경로/일자 비트맵 수, 메모리 사용량, 마지막 반영 변경 id
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(segmentIndex.stats());
+    }
+}
@@ -0,0 +1,229 @@
+package app.ramsbaby.newsletter.segment;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 세그먼트 식 파서
+ *
+ * 문법 (키워드는 대소문자 무시, 우선순위 NOT > AND > OR):
+ * <pre>
+ *   expr    := and (OR and)*
+ *   and     := unary (AND unary)*
+ *   unary   := NOT unary | '(' expr ')' | term
+ *   term    := all
+ *            | tag:&lt;이름&gt; | source:&lt;이름&gt; | mode:immediate|daily|weekly
+ *            | signup:&lt;N&gt;d | signup&gt;=YYYY-MM-DD | signup&lt;YYYY-MM-DD
+ *            | engaged:&lt;N&gt;d
+ * </pre>
+ * 공백이 들어간 이름은 큰따옴표로 감쌉니다 (source:"blog footer").
+ * 예: {@code tag:java AND (engaged:30d OR signup:14d) AND NOT source:import}
+ */
+final class SegmentExpression {
+    private static final List<String> MODES = List.of("immediate", "daily", "weekly");
+    private static final int MAX_LENGTH = 1000;
+
+    private final String source;
+    private final List<String> tokens;
+    private int pos;
+
+    private SegmentExpression(String source, List<String> tokens) {
+        this.source = source;
+        this.tokens = tokens;
+    }
+
+    /**
+     * 식 파싱
+     *
+     * @throws IllegalArgumentException 문법 오류
+     */
+    static Node parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Segment expression is empty");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Segment expression is too long (max " + MAX_LENGTH + ")");
+        }
+        SegmentExpression parser = new SegmentExpression(expression, tokenize(expression));
+        Node node = parser.or();
+        if (parser.pos < parser.tokens.size()) {
+            throw parser.error("Unexpected '" + parser.tokens.get(parser.pos) + "'");
+        }
+        return node;
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (quoted) {
+                current.append(c);
+            } else if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (!current.isEmpty()) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote in segment expression: " + expression);
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private Node or() {
+        Node left = and();
+        while (accept("OR")) {
+            Node l = left;
+            Node r = and();
+            left = (bitmaps, today) -> l.evaluate(bitmaps, today).or(r.evaluate(bitmaps, today));
+        }
+        return left;
+    }
+
+    private Node and() {
+        Node left = unary();
+        while (accept("AND")) {
+            Node l = left;
+            Node r = unary();
+            left = (bitmaps, today) -> l.evaluate(bitmaps, today).and(r.evaluate(bitmaps, today));
+        }
+        return left;
+    }
+
+    private Node unary() {
+        if (accept("NOT")) {
+            Node inner = unary();
+            return (bitmaps, today) -> bitmaps.all().andNot(inner.evaluate(bitmaps, today));
+        }
+        if (accept("(")) {
+            Node inner = or();
+            if (!accept(")")) {
+                throw error("Missing ')'");
+            }
+            return inner;
+        }
+        if (pos >= tokens.size()) {
+            throw error("Unexpected end of expression");
+        }
+        return term(tokens.get(pos++));
+    }
+
+    private Node term(String token) {
+        if (token.equalsIgnoreCase("all")) {
+            return (bitmaps, today) -> bitmaps.all();
+        }
+        if (token.startsWith("signup>=")) {
+            LocalDate from = date(token.substring("signup>=".length()));
+            return (bitmaps, today) -> bitmaps.signup(from, null);
+        }
+        if (token.startsWith("signup<")) {
+            LocalDate until = date(token.substring("signup<".length()));
+            return (bitmaps, today) -> bitmaps.signup(null, until);
+        }
+        int colon = token.indexOf(':');
+        if (colon <= 0 || colon == token.length() - 1) {
+            throw error("Unknown term '" + token + "'");
+        }
+        String field = token.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = token.substring(colon + 1);
+        switch (field) {
+            case "tag":
+                return (bitmaps, today) -> bitmaps.tag(value);
+            case "source":
+                return (bitmaps, today) -> bitmaps.source(value);
+            case "mode":
+                if (!MODES.contains(value)) {
+                    throw error("mode must be one of " + MODES);
+                }
+                return (bitmaps, today) -> bitmaps.mode(value);
+            case "signup":
+                int signupDays = days(value);
+                return (bitmaps, today) -> bitmaps.signup(today.minusDays(signupDays), null);
+            case "engaged":
+                int engagedDays = days(value);
+                return (bitmaps, today) -> bitmaps.engaged(today.minusDays(engagedDays));
+            default:
+                throw error("Unknown field '" + field + "'");
+        }
+    }
+
+    private boolean accept(String keyword) {
+        if (pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private int days(String value) {
+        if (value.length() > 1 && value.endsWith("d")) {
+            try {
+                int days = Integer.parseInt(value.substring(0, value.length() - 1));
+                if (days >= 0 && days <= 36_500) {
+                    return days;
+                }
+            } catch (NumberFormatException ignored) {
+                // 아래에서 오류 처리
+            }
+        }
+        throw error("Expected '<N>d' but got '" + value + "'");
+    }
+
+    private LocalDate date(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw error("Expected YYYY-MM-DD but got '" + value + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " in segment expression: " + source);
+    }
+
+    /**
+     * 파싱된 식 (입력 비트맵은 수정하지 않으며, 결과가 입력 비트맵 자체일 수 있으므로 결과도 수정하지 않음)
+     */
+    interface Node {
+        RoaringBitmap evaluate(Bitmaps bitmaps, LocalDate today);
+    }
+
+    /**
+     * 식이 참조하는 기본 비트맵 (모두 활성 구독자의 부분 집합)
+     */
+    interface Bitmaps {
+        RoaringBitmap all();
+
+        RoaringBitmap tag(String tag);
+
+        RoaringBitmap source(String source);
+
+        RoaringBitmap mode(String mode);
+
+        /**
+         * 가입일이 [from, until) 인 구독자 (null 이면 한쪽 제한 없음)
+         */
+        RoaringBitmap signup(LocalDate from, LocalDate until);
+
+        /**
+         * from 이후(포함) 오픈/클릭한 구독자
+         */
+        RoaringBitmap engaged(LocalDate from);
+    }
+}
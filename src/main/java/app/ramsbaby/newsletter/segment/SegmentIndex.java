@@ -0,0 +1,400 @@
+package app.ramsbaby.newsletter.segment;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.support.IdTail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 구독자 세그먼트 비트맵 인덱스 (메모리)
+ *
+ * 활성 구독자를 구독자 ID 기준 압축 비트맵(RoaringBitmap)으로 색인합니다.
+ * - 태그별 (subscriber_tags), 가입 경로별 (subscription_source), 수신 방식별 (delivery_mode)
+ * - 가입일별 / 마지막 오픈·클릭일별 (일 단위, app.release.zone 기준)
+ *
+ * 세그먼트 식(SegmentExpression)은 이 비트맵들의 AND/OR/NOT 으로 평가되어 DB 조회 없이 ID 집합이 나옵니다.
+ * 조회는 항상 불변 스냅샷을 읽고, 갱신은 바뀐 비트맵만 복사한 새 스냅샷으로 교체합니다.
+ * 구독자/태그 변경은 트리거가 subscriber_changes 에 남기며, 1분마다(그리고 팬아웃 직전에)
+ * 마지막으로 읽은 변경 id 이후의 구독자만 다시 읽어 반영합니다. 1시간마다 전체를 다시 읽습니다.
+ * 변경 id 는 커밋 순서와 다르게 보일 수 있으므로(추적 플러시와 구독이 동시에 커밋되는 경우 등),
+ * 건너뛴 id 는 한동안 증분 로드 때마다 다시 확인합니다.
+ */
+@Component
+public class SegmentIndex {
+    private static final Logger log = LoggerFactory.getLogger(SegmentIndex.class);
+
+    // 전체 재로드 간격 (증분 누락 대비)
+    private static final Duration FULL_RELOAD_INTERVAL = Duration.ofHours(1);
+    // 변경된 구독자를 다시 읽을 때 한 번에 조회할 ID 수
+    private static final int LOOKUP_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+
+    // 최초 로드 전에는 null
+    private volatile Snapshot snapshot;
+    private Instant lastFullReload;
+    // 커밋 순서가 달라 건너뛴 변경 id (current 안에서만 접근)
+    private final IdTail changeTail = new IdTail();
+
+    public SegmentIndex(JdbcTemplate jdbcTemplate, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = ZoneId.of(props.getRelease().getZone());
+    }
+
+    /**
+     * 세그먼트 식 검증
+     *
+     * @throws IllegalArgumentException 문법 오류
+     */
+    public void validate(String expression) {
+        SegmentExpression.parse(expression);
+    }
+
+    /**
+     * 세그먼트에 속하면서 수신 방식이 deliveryMode 인 활성 구독자 ID (오름차순)
+     *
+     * 평가 직전에 변경 로그를 한 번 더 반영하므로 팬아웃 시점의 구독 상태와 거의 같습니다.
+     *
+     * @param deliveryMode 수신 방식 (null 이면 수신 방식과 무관하게 전체)
+     * @throws IllegalArgumentException 문법 오류
+     */
+    public int[] select(String expression, String deliveryMode) {
+        SegmentExpression.Node node = SegmentExpression.parse(expression);
+        Snapshot s = current();
+        RoaringBitmap ids = node.evaluate(s, LocalDate.now(zone));
+        return (deliveryMode != null ? ids.and(s.mode(deliveryMode)) : ids).toArray();
+    }
+
+    /**
+     * 세그먼트 크기 미리보기
+     *
+     * @throws IllegalArgumentException 문법 오류
+     */
+    public SegmentPreview preview(String expression) {
+        SegmentExpression.Node node = SegmentExpression.parse(expression);
+        Snapshot s = current();
+        long started = System.nanoTime();
+        long count = node.evaluate(s, LocalDate.now(zone)).cardinality();
+        return new SegmentPreview(expression, count, (System.nanoTime() - started) / 1_000);
+    }
+
+    /**
+     * 인덱스 크기와 갱신 상태
+     */
+    public SegmentStats stats() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return new SegmentStats(0, 0, 0, 0, 0, 0, 0, null);
+        }
+        long bytes = s.active.sizeInBytes();
+        for (RoaringBitmap bitmap : s.bitmaps()) {
+            bytes += bitmap.sizeInBytes();
+        }
+        return new SegmentStats(
+            s.active.cardinality(),
+            s.tags.size(),
+            s.sources.size(),
+            s.signupDays.size(),
+            s.engagedDays.size(),
+            bytes,
+            s.lastChangeId,
+            lastFullReload != null ? lastFullReload.toString() : null
+        );
+    }
+
+    /**
+     * 인덱스 갱신 (1분마다)
+     *
+     * - 초기 지연: 30초 (Flyway 마이그레이션이 비동기로 실행되므로)
+     * - 최초 로드와 1시간마다 전체 로드, 그 외에는 변경 로그 기준 증분 로드
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 30_000)
+    public void refresh() {
+        try {
+            current();
+        } catch (Exception e) {
+            log.warn("Segment index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Snapshot current() {
+        if (snapshot == null || lastFullReload.plus(FULL_RELOAD_INTERVAL).isBefore(Instant.now())) {
+            reload();
+        } else {
+            loadIncrement();
+        }
+        return snapshot;
+    }
+
+    private void reload() {
+        // 읽는 도중의 변경은 다음 증분 로드에서 다시 반영 (같은 구독자를 다시 읽어도 결과는 같음)
+        Long lastChangeId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM subscriber_changes", Long.class);
+        Builder builder = new Builder(Snapshot.EMPTY);
+        jdbcTemplate.query(
+            "SELECT id, delivery_mode, subscription_source, created_at, last_engaged_at " +
+            "FROM newsletter_subscribers WHERE status = 'active'",
+            (RowCallbackHandler) rs -> builder.addRow(rs)
+        );
+        jdbcTemplate.query(
+            "SELECT t.subscriber_id, t.tag FROM subscriber_tags t " +
+            "JOIN newsletter_subscribers s ON s.id = t.subscriber_id WHERE s.status = 'active'",
+            (RowCallbackHandler) rs -> builder.addTag(rs.getInt("subscriber_id"), rs.getString("tag"))
+        );
+        long last = lastChangeId != null ? lastChangeId : 0;
+        Snapshot next = builder.build(last);
+        snapshot = next;
+        lastFullReload = Instant.now();
+
+        // 읽은 시점에 아직 커밋되지 않은 변경이 최근 범위에 있으면 다음 증분 로드에서 다시 확인
+        changeTail.reset(last, jdbcTemplate.queryForList(
+            "SELECT id FROM subscriber_changes WHERE id > ? AND id <= ? ORDER BY id",
+            Long.class,
+            changeTail.windowStart(last), last
+        ));
+
+        // 모든 인스턴스가 1시간마다 전체 로드하므로 하루 지난 변경 로그는 필요 없음
+        int pruned = jdbcTemplate.update("DELETE FROM subscriber_changes WHERE changed_at < NOW() - INTERVAL '1 day'");
+        log.info("Segment index loaded: {} active subscribers, {} tags, {} sources (pruned {} change rows)",
+                next.active.cardinality(), next.tags.size(), next.sources.size(), pruned);
+    }
+
+    private void loadIncrement() {
+        Snapshot current = snapshot;
+        RoaringBitmap changed = new RoaringBitmap();
+        List<Long> changeIds = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT id, subscriber_id FROM subscriber_changes WHERE id > ? OR id = ANY(?) ORDER BY id",
+            changeTail.params(current.lastChangeId),
+            (RowCallbackHandler) rs -> {
+                changed.add(rs.getInt("subscriber_id"));
+                changeIds.add(rs.getLong("id"));
+            }
+        );
+        long lastChangeId = changeTail.advance(current.lastChangeId, changeIds);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        // 바뀐 구독자를 모든 비트맵에서 빼고, 지금도 활성이면 현재 값으로 다시 넣음
+        Builder builder = new Builder(current);
+        builder.removeAll(changed);
+        int[] ids = changed.toArray();
+        for (int from = 0; from < ids.length; from += LOOKUP_CHUNK) {
+            Integer[] chunk = new Integer[Math.min(LOOKUP_CHUNK, ids.length - from)];
+            for (int i = 0; i < chunk.length; i++) {
+                chunk[i] = ids[from + i];
+            }
+            jdbcTemplate.query(
+                "SELECT id, delivery_mode, subscription_source, created_at, last_engaged_at " +
+                "FROM newsletter_subscribers WHERE id = ANY(?) AND status = 'active'",
+                (PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", chunk)),
+                (RowCallbackHandler) rs -> builder.addRow(rs)
+            );
+            jdbcTemplate.query(
+                "SELECT t.subscriber_id, t.tag FROM subscriber_tags t " +
+                "JOIN newsletter_subscribers s ON s.id = t.subscriber_id " +
+                "WHERE t.subscriber_id = ANY(?) AND s.status = 'active'",
+                (PreparedStatementSetter) ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", chunk)),
+                (RowCallbackHandler) rs -> builder.addTag(rs.getInt("subscriber_id"), rs.getString("tag"))
+            );
+        }
+        snapshot = builder.build(lastChangeId);
+        log.debug("Segment index updated: {} changed subscribers", ids.length);
+    }
+
+    private long epochDay(Timestamp timestamp) {
+        return timestamp.toInstant().atZone(zone).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * 새 스냅샷 생성 (기존 스냅샷의 비트맵은 처음 수정할 때만 복사)
+     */
+    private final class Builder {
+        private RoaringBitmap active;
+        private final Map<String, RoaringBitmap> tags;
+        private final Map<String, RoaringBitmap> sources;
+        private final Map<String, RoaringBitmap> modes;
+        private final NavigableMap<Long, RoaringBitmap> signupDays;
+        private final NavigableMap<Long, RoaringBitmap> engagedDays;
+        // 이번 빌드에서 새로 만든(수정해도 되는) 비트맵
+        private final Set<RoaringBitmap> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Builder(Snapshot base) {
+            this.active = base.active.copy();
+            this.tags = new HashMap<>(base.tags);
+            this.sources = new HashMap<>(base.sources);
+            this.modes = new HashMap<>(base.modes);
+            this.signupDays = new TreeMap<>(base.signupDays);
+            this.engagedDays = new TreeMap<>(base.engagedDays);
+        }
+
+        private void addRow(ResultSet rs) throws SQLException {
+            int id = rs.getInt("id");
+            active.add(id);
+            mutable(modes, rs.getString("delivery_mode")).add(id);
+            String source = rs.getString("subscription_source");
+            if (source != null && !source.isBlank()) {
+                mutable(sources, source.trim()).add(id);
+            }
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            if (createdAt != null) {
+                mutable(signupDays, epochDay(createdAt)).add(id);
+            }
+            Timestamp engagedAt = rs.getTimestamp("last_engaged_at");
+            if (engagedAt != null) {
+                mutable(engagedDays, epochDay(engagedAt)).add(id);
+            }
+        }
+
+        private void addTag(int id, String tag) {
+            mutable(tags, tag.trim()).add(id);
+        }
+
+        private void removeAll(RoaringBitmap ids) {
+            active = active.andNot(ids);
+            removeFrom(tags, ids);
+            removeFrom(sources, ids);
+            removeFrom(modes, ids);
+            removeFrom(signupDays, ids);
+            removeFrom(engagedDays, ids);
+        }
+
+        private <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, RoaringBitmap ids) {
+            Iterator<Map.Entry<K, RoaringBitmap>> it = bitmaps.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, RoaringBitmap> entry = it.next();
+                // 겹치지 않는 비트맵은 복사하지 않고 그대로 공유
+                if (entry.getValue().and(ids).isEmpty()) {
+                    continue;
+                }
+                RoaringBitmap remaining = entry.getValue().andNot(ids);
+                if (remaining.isEmpty()) {
+                    it.remove();
+                } else {
+                    entry.setValue(remaining);
+                    owned.add(remaining);
+                }
+            }
+        }
+
+        private <K> RoaringBitmap mutable(Map<K, RoaringBitmap> bitmaps, K key) {
+            RoaringBitmap bitmap = bitmaps.get(key);
+            if (bitmap == null) {
+                bitmap = new RoaringBitmap();
+            } else if (!owned.contains(bitmap)) {
+                bitmap = bitmap.copy();
+            } else {
+                return bitmap;
+            }
+            bitmaps.put(key, bitmap);
+            owned.add(bitmap);
+            return bitmap;
+        }
+
+        private Snapshot build(long lastChangeId) {
+            return new Snapshot(active, tags, sources, modes, signupDays, engagedDays, lastChangeId);
+        }
+    }
+
+    /**
+     * 불변 스냅샷 (교체 방식으로만 갱신)
+     *
+     * 식 평가 결과로 스냅샷의 비트맵이 그대로 나올 수 있으므로 호출자는 결과를 수정하지 않습니다.
+     */
+    private static final class Snapshot implements SegmentExpression.Bitmaps {
+        private static final RoaringBitmap NONE = new RoaringBitmap();
+        private static final Snapshot EMPTY = new Snapshot(
+                new RoaringBitmap(), Map.of(), Map.of(), Map.of(), new TreeMap<>(), new TreeMap<>(), 0);
+
+        private final RoaringBitmap active;
+        private final Map<String, RoaringBitmap> tags;
+        private final Map<String, RoaringBitmap> sources;
+        private final Map<String, RoaringBitmap> modes;
+        private final NavigableMap<Long, RoaringBitmap> signupDays;
+        private final NavigableMap<Long, RoaringBitmap> engagedDays;
+        private final long lastChangeId;
+
+        private Snapshot(RoaringBitmap active, Map<String, RoaringBitmap> tags, Map<String, RoaringBitmap> sources,
+                         Map<String, RoaringBitmap> modes, NavigableMap<Long, RoaringBitmap> signupDays,
+                         NavigableMap<Long, RoaringBitmap> engagedDays, long lastChangeId) {
+            this.active = active;
+            this.tags = tags;
+            this.sources = sources;
+            this.modes = modes;
+            this.signupDays = signupDays;
+            this.engagedDays = engagedDays;
+            this.lastChangeId = lastChangeId;
+        }
+
+        private List<RoaringBitmap> bitmaps() {
+            List<RoaringBitmap> all = new ArrayList<>();
+            all.addAll(tags.values());
+            all.addAll(sources.values());
+            all.addAll(modes.values());
+            all.addAll(signupDays.values());
+            all.addAll(engagedDays.values());
+            return all;
+        }
+
+        @Override
+        public RoaringBitmap all() {
+            return active;
+        }
+
+        @Override
+        public RoaringBitmap tag(String tag) {
+            return tags.getOrDefault(tag, NONE);
+        }
+
+        @Override
+        public RoaringBitmap source(String source) {
+            return sources.getOrDefault(source, NONE);
+        }
+
+        @Override
+        public RoaringBitmap mode(String mode) {
+            return modes.getOrDefault(mode, NONE);
+        }
+
+        @Override
+        public RoaringBitmap signup(LocalDate from, LocalDate until) {
+            NavigableMap<Long, RoaringBitmap> days = signupDays;
+            if (from != null) {
+                days = days.tailMap(from.toEpochDay(), true);
+            }
+            if (until != null) {
+                days = days.headMap(until.toEpochDay(), false);
+            }
+            return RoaringBitmap.union(days.values());
+        }
+
+        @Override
+        public RoaringBitmap engaged(LocalDate from) {
+            return RoaringBitmap.union(engagedDays.tailMap(from.toEpochDay(), true).values());
+        }
+    }
+}
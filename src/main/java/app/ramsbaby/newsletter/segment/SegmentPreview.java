@@ -0,0 +1,14 @@
+package app.ramsbaby.newsletter.segment;
+
+/**
+ * 세그먼트 미리보기 응답용 DTO
+ *
+ * @param expression 세그먼트 식
+ * @param subscribers 해당하는 활성 구독자 수
+ * @param evaluationMicros 비트맵 평가 시간 (마이크로초, 인덱스 갱신 제외)
+ */
+public record SegmentPreview(
+        String expression,
+        long subscribers,
+        long evaluationMicros
+) {}
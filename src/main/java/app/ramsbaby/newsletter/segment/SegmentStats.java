@@ -0,0 +1,15 @@
+package app.ramsbaby.newsletter.segment;
+
+/**
+ * 세그먼트 인덱스 통계 응답용 DTO
+ */
+public record SegmentStats(
+        long activeSubscribers,
+        int tags,
+        int sources,
+        int signupDays,
+        int engagedDays,
+        long memoryBytes,
+        long lastChangeId,
+        String lastFullReloadAt
+) {}
@@ -28,9 +28,17 @@ public class SubscriberController {
         return ResponseEntity.ok(subscriberService.listAll());
     }
 
+    /**
+     * 구독 신청
+     * 
+     * 예: POST /api/subscribers?email=you@example.com&source=footer
+     * 
+     * @param source 가입 경로 (선택, 세그먼트 식의 source:&lt;이름&gt;)
+     */
     @PostMapping
-    public ResponseEntity<?> subscribe(@RequestParam @Email @NotBlank String email) {
-        subscriberService.subscribe(email);
+    public ResponseEntity<?> subscribe(@RequestParam @Email @NotBlank String email,
+                                       @RequestParam(required = false) String source) {
+        subscriberService.subscribe(email, source);
         HttpHeaders headers = new HttpHeaders();
         String target = (props.getSiteUrl() != null ? props.getSiteUrl() : "/") + "/success/";
         headers.add(HttpHeaders.LOCATION, target);
@@ -49,6 +57,25 @@ public class SubscriberController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * 수신 방식 변경
+     * 
+     * 예: GET /api/subscribers/delivery-mode?token=...&mode=weekly
+     * 
+     * @param token 구독자 토큰
+     * @param mode immediate(포스트마다), daily(일간 다이제스트), weekly(주간 다이제스트)
+     * @return 200 OK (성공), 404 Not Found (없음), 400 Bad Request (알 수 없는 방식)
+     */
+    @GetMapping("/delivery-mode")
+    public ResponseEntity<?> deliveryMode(@RequestParam String token, @RequestParam String mode) {
+        try {
+            int updated = subscriberService.changeDeliveryMode(token, mode);
+            return updated > 0 ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("token 이 올바르지 않거나 mode 가 immediate, daily, weekly 중 하나가 아닙니다.");
+        }
+    }
+
     /**
      * 구독자 삭제 (Admin 전용)
      * 
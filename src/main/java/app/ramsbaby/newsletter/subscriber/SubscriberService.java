@@ -7,9 +7,12 @@ import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class SubscriberService {
+    private static final Set<String> DELIVERY_MODES = Set.of("immediate", "daily", "weekly");
+
     private final JdbcTemplate jdbcTemplate;
     private final MailService mailService;
 
@@ -18,9 +21,14 @@ public class SubscriberService {
         this.mailService = mailService;
     }
 
-    public void subscribe(String email) {
+    public void subscribe(String email, String source) {
+        // 가입 경로는 VARCHAR(100), 비어 있으면 기록하지 않음
+        String subscriptionSource = source == null || source.isBlank() ? null : source.trim();
+        if (subscriptionSource != null && subscriptionSource.length() > 100) {
+            subscriptionSource = subscriptionSource.substring(0, 100);
+        }
         // PostgreSQL: INSERT ... ON CONFLICT ... DO NOTHING
-        jdbcTemplate.update("INSERT INTO newsletter_subscribers(email,status) VALUES(?, 'pending') ON CONFLICT (email) DO NOTHING", email);
+        jdbcTemplate.update("INSERT INTO newsletter_subscribers(email,status,subscription_source) VALUES(?, 'pending', ?) ON CONFLICT (email) DO NOTHING", email, subscriptionSource);
         mailService.sendConfirm(email);
     }
 
@@ -35,6 +43,21 @@ public class SubscriberService {
         mailService.sendUnsubscribeNotice(email);
     }
 
+    /**
+     * 수신 방식 변경 (immediate, daily, weekly)
+     * 
+     * @param token 구독자 토큰
+     * @param mode 수신 방식
+     * @return 변경된 행 수 (1이면 성공, 0이면 없음)
+     */
+    public int changeDeliveryMode(String token, String mode) {
+        if (!DELIVERY_MODES.contains(mode)) {
+            throw new IllegalArgumentException("Unknown delivery mode: " + mode);
+        }
+        String email = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        return jdbcTemplate.update("UPDATE newsletter_subscribers SET delivery_mode=? WHERE email=?", mode, email);
+    }
+
     public List<SubscriberDto> listAll() {
         return jdbcTemplate.query(
                 "SELECT id, email, status, created_at, confirmed_at, unsubscribed_at FROM newsletter_subscribers ORDER BY id DESC",
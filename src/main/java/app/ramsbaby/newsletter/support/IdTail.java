@@ -0,0 +1,97 @@
+package app.ramsbaby.newsletter.support;
+
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BIGSERIAL id 순서로 테이블 끝을 따라 읽을 때 건너뛴 id 추적
+ *
+ * 마지막으로 읽은 id 이후만 읽는 증분 로드(id &gt; lastId)는 id 가 커밋 순서대로 보인다고 가정하지만,
+ * 먼저 id 를 받은 트랜잭션이 나중에 커밋되면 그 행은 영영 조건에 걸리지 않습니다.
+ * 그래서 읽은 id 사이의 빈 id 를 기록해 두고 MISSING_ID_TIMEOUT 동안 증분 로드 때마다 함께 다시 조회합니다.
+ *
+ * 조회 조건은 "id &gt; ? OR id = ANY(?)" 이고 params 로 두 파라미터를 채웁니다.
+ * 스레드 안전하지 않으므로 호출하는 쪽에서 한 번에 하나의 로드만 실행합니다.
+ * (SuppressionList, SegmentIndex)
+ */
+public final class IdTail {
+    // 건너뛴 id 를 다시 확인하는 기간 (이 안에 커밋되지 않으면 롤백 등으로 비어 있는 id 로 봄)
+    private static final Duration MISSING_ID_TIMEOUT = Duration.ofMinutes(10);
+    // 다시 확인할 건너뛴 id 최대 개수
+    private static final int MAX_MISSING_IDS = 10_000;
+    // 전체 로드 시 건너뛴 id 를 추적할 최근 id 범위 (그 이전의 빈 id 는 삭제되었거나 비어 있는 id)
+    private static final long RELOAD_GAP_WINDOW = 1_000;
+
+    // 건너뛴 id -> 처음 발견한 시각
+    private final Map<Long, Instant> missingIds = new HashMap<>();
+
+    /**
+     * 증분 조회 파라미터 (1: afterId, 2: 다시 확인할 건너뛴 id 배열)
+     *
+     * 기간이 지난 건너뛴 id 는 여기서 버립니다.
+     */
+    public PreparedStatementSetter params(long afterId) {
+        Instant now = Instant.now();
+        missingIds.values().removeIf(seen -> seen.plus(MISSING_ID_TIMEOUT).isBefore(now));
+        Long[] missing = missingIds.keySet().toArray(new Long[0]);
+        return ps -> {
+            ps.setLong(1, afterId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", missing));
+        };
+    }
+
+    /**
+     * 증분 로드로 읽은 id 반영
+     *
+     * 읽은 id 는 건너뛴 목록에서 지우고, afterId 이후 새로 건너뛴 id 를 기록합니다.
+     *
+     * @param ids 읽은 id (오름차순)
+     * @return 다음 afterId (늦게 커밋된 id 는 afterId 보다 작으므로 최댓값만 이어받음)
+     */
+    public long advance(long afterId, List<Long> ids) {
+        Instant now = Instant.now();
+        long expected = afterId + 1;
+        for (long id : ids) {
+            missingIds.remove(id);
+            if (id < expected) {
+                continue;
+            }
+            for (long gap = expected; gap < id && missingIds.size() < MAX_MISSING_IDS; gap++) {
+                missingIds.put(gap, now);
+            }
+            expected = id + 1;
+        }
+        return expected - 1;
+    }
+
+    /**
+     * 전체 로드 후 다시 시작
+     *
+     * 읽은 시점에 아직 커밋되지 않은 id 가 최근 범위(windowStart 이후)에 있으면 다음 증분 로드에서 다시 확인합니다.
+     *
+     * @param ids 전체 로드에서 읽은 id 중 windowStart(lastId) 이후 (오름차순, 그보다 작은 id 는 무시)
+     */
+    public void reset(long lastId, List<Long> ids) {
+        missingIds.clear();
+        advance(windowStart(lastId), ids);
+    }
+
+    /**
+     * 전체 로드 후 건너뛴 id 를 추적할 범위의 시작 (이 id 는 제외)
+     */
+    public long windowStart(long lastId) {
+        return Math.max(0, lastId - RELOAD_GAP_WINDOW);
+    }
+
+    /**
+     * 다시 확인 중인 건너뛴 id 수
+     */
+    int missingCount() {
+        return missingIds.size();
+    }
+}
@@ -0,0 +1,115 @@
+package app.ramsbaby.newsletter.suppression;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 이메일 주소의 64비트 해시만 저장하는 집합
+ *
+ * 주소 문자열 대신 long 하나(8바이트)만 보관하는 개방 주소법(선형 탐사) 해시 테이블입니다.
+ * 서로 다른 주소의 해시가 충돌할 확률은 수백만 건 규모에서도 무시할 수 있습니다.
+ * 조회는 여러 스레드에서 동시에 해도 되지만, 추가는 공개 전의 사본에만 해야 합니다.
+ */
+final class AddressHashSet {
+    // 빈 슬롯 표시 (해시가 0이면 1로 바꿔 저장)
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int size;
+
+    AddressHashSet(int expected) {
+        this.table = new long[capacityFor(expected)];
+    }
+
+    private AddressHashSet(long[] table, int size) {
+        this.table = table;
+        this.size = size;
+    }
+
+    /**
+     * 추가용 사본 (기존 집합은 그대로 조회에 사용)
+     */
+    AddressHashSet copy(int additional) {
+        if (capacityFor(size + additional) == table.length) {
+            return new AddressHashSet(table.clone(), size);
+        }
+        AddressHashSet copy = new AddressHashSet(size + additional);
+        for (long h : table) {
+            if (h != EMPTY) {
+                copy.addHash(h);
+            }
+        }
+        return copy;
+    }
+
+    void add(String address) {
+        if (addHash(hash(address)) && size * 2 > table.length) {
+            long[] old = table;
+            table = new long[old.length * 2];
+            size = 0;
+            for (long h : old) {
+                if (h != EMPTY) {
+                    addHash(h);
+                }
+            }
+        }
+    }
+
+    boolean contains(String address) {
+        long h = hash(address);
+        int mask = table.length - 1;
+        for (int i = (int) h & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == h) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean addHash(long h) {
+        int mask = table.length - 1;
+        for (int i = (int) h & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == h) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                table[i] = h;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 부하율 50% 이하를 유지하는 2의 거듭제곱 크기
+     */
+    private static int capacityFor(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * FNV-1a 64비트 해시 + 비트 섞기 (소문자 주소 기준)
+     */
+    static long hash(String address) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : address.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1L : h;
+    }
+}
@@ -0,0 +1,65 @@
+package app.ramsbaby.newsletter.suppression;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 도메인 라벨 역순 트라이
+ *
+ * "example.com"을 등록하면 com → example 경로가 표시되어
+ * example.com 과 mail.example.com 같은 하위 도메인이 모두 일치합니다.
+ * 조회 비용은 도메인 라벨 수에 비례하며 등록된 도메인 수와 무관합니다.
+ * 생성 후에는 변경하지 않으므로 여러 스레드에서 동시에 조회해도 안전합니다.
+ */
+final class DomainTrie {
+    private final Node root = new Node();
+    private final int size;
+
+    DomainTrie(Collection<String> domains) {
+        int count = 0;
+        for (String domain : domains) {
+            Node node = root;
+            String[] labels = domain.split("\\.");
+            for (int i = labels.length - 1; i >= 0; i--) {
+                node = node.children.computeIfAbsent(labels[i], k -> new Node());
+            }
+            if (!node.terminal) {
+                node.terminal = true;
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * 도메인 또는 그 상위 도메인이 등록되어 있는지 여부
+     *
+     * @param domain 소문자 도메인
+     */
+    boolean matches(String domain) {
+        Node node = root;
+        int end = domain.length();
+        while (end > 0) {
+            int dot = domain.lastIndexOf('.', end - 1);
+            node = node.children.get(domain.substring(dot + 1, end));
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            end = dot;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,27 @@
+package app.ramsbaby.newsletter.suppression;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/suppressions")
+public class SuppressionController {
+
+    private final SuppressionList suppressionList;
+
+    public SuppressionController(SuppressionList suppressionList) {
+        this.suppressionList = suppressionList;
+    }
+
+    /**
+     * 억제 목록 통계
+     *
+     * GET /api/suppressions/stats
+     *
+     * @return 주소/도메인/역할 계정 수, 확인 횟수, 종류별 적중 횟수
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats() {
+        return ResponseEntity.ok(suppressionList.stats());
+    }
+}
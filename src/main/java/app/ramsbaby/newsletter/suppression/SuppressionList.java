@@ -0,0 +1,250 @@
+package app.ramsbaby.newsletter.suppression;
+
+import app.ramsbaby.newsletter.support.IdTail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전역 발송 억제 목록 (메모리 캐시)
+ *
+ * suppressions 테이블을 메모리에 올려두고 팬아웃/발송 시 수신자마다 DB 조회 없이 확인합니다.
+ * - 주소: 64비트 해시 집합 (AddressHashSet)
+ * - 도메인: 라벨 역순 트라이 (하위 도메인 포함)
+ * - 역할 계정: 로컬 파트 집합 (postmaster@, abuse@ 등)
+ *
+ * 조회는 항상 불변 스냅샷을 읽고, 갱신은 새 스냅샷을 만들어 교체합니다.
+ * 1분마다 마지막으로 읽은 id 이후의 행만 증분 로드하고,
+ * 삭제된 행을 반영하기 위해 1시간마다 전체를 다시 읽습니다.
+ *
+ * - 처음 로드되기 전에는 확인 시 바로 로드를 시도하고, 실패하면 예외를 던져 발송을 막음 (fail closed)
+ * - id 는 커밋 순서와 다르게 보일 수 있으므로, 건너뛴 id 는 한동안 증분 로드 때마다 다시 확인
+ */
+@Component
+public class SuppressionList {
+    private static final Logger log = LoggerFactory.getLogger(SuppressionList.class);
+
+    // 전체 재로드 간격 (삭제 반영)
+    private static final Duration FULL_RELOAD_INTERVAL = Duration.ofHours(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+    private Instant lastFullReload;
+    // 커밋 순서가 달라 건너뛴 id (refresh 안에서만 접근)
+    private final IdTail tail = new IdTail();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong addressHits = new AtomicLong();
+    private final AtomicLong domainHits = new AtomicLong();
+    private final AtomicLong roleHits = new AtomicLong();
+
+    public SuppressionList(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 억제 대상 여부 확인
+     *
+     * @param email 수신자 이메일
+     * @return 억제 사유(address/domain/role), 발송 가능하면 null
+     * @throws IllegalStateException 억제 목록을 아직 한 번도 읽지 못한 경우 (Flyway 마이그레이션 전, DB 장애 등)
+     */
+    public String check(String email) {
+        if (!loaded) {
+            refresh();
+            if (!loaded) {
+                throw new IllegalStateException("Suppression list is not loaded yet");
+            }
+        }
+        checks.incrementAndGet();
+        Snapshot s = snapshot;
+        String address = email.trim().toLowerCase(Locale.ROOT);
+        int at = address.lastIndexOf('@');
+
+        if (s.addresses.contains(address)) {
+            addressHits.incrementAndGet();
+            return "address";
+        }
+        if (at >= 0 && s.domains.matches(address.substring(at + 1))) {
+            domainHits.incrementAndGet();
+            return "domain";
+        }
+        if (at > 0 && s.roles.contains(address.substring(0, at))) {
+            roleHits.incrementAndGet();
+            return "role";
+        }
+        return null;
+    }
+
+    /**
+     * 주소를 억제 목록에 등록 (스팸 신고 등)
+     *
+     * DB에 기록하고 다음 증분 로드 때 메모리에 반영됩니다.
+     */
+    public void suppressAddresses(List<String> emails, String reason) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            args.add(new Object[]{email.trim().toLowerCase(Locale.ROOT), reason});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO suppressions(kind, value, reason) VALUES('address', ?, ?) " +
+            "ON CONFLICT (kind, value) DO NOTHING",
+            args
+        );
+    }
+
+    /**
+     * 억제 목록 갱신 (1분마다)
+     *
+     * - 초기 지연: 30초 (Flyway 마이그레이션이 비동기로 실행되므로, 그 전에 확인이 오면 check 에서 바로 로드)
+     * - 최초 로드와 1시간마다 전체 로드, 그 외에는 증분 로드
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 30_000)
+    public synchronized void refresh() {
+        try {
+            if (lastFullReload == null || lastFullReload.plus(FULL_RELOAD_INTERVAL).isBefore(Instant.now())) {
+                reload();
+            } else {
+                loadIncrement();
+            }
+        } catch (Exception e) {
+            log.warn("Suppression list refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        List<Row> rows = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, kind, value FROM suppressions ORDER BY id", collect(rows));
+        Snapshot next = Snapshot.EMPTY.with(rows);
+        tail.reset(next.lastId, ids(rows));
+        snapshot = next;
+        loaded = true;
+        lastFullReload = Instant.now();
+        log.info("Suppression list loaded: {} addresses, {} domains, {} roles",
+                next.addresses.size(), next.domains.size(), next.roles.size());
+    }
+
+    private void loadIncrement() {
+        Snapshot current = snapshot;
+        List<Row> rows = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT id, kind, value FROM suppressions WHERE id > ? OR id = ANY(?) ORDER BY id",
+            tail.params(current.lastId),
+            collect(rows)
+        );
+        tail.advance(current.lastId, ids(rows));
+        if (!rows.isEmpty()) {
+            snapshot = current.with(rows);
+            log.info("Suppression list updated: {} new entries", rows.size());
+        }
+    }
+
+    private static RowCallbackHandler collect(List<Row> rows) {
+        return rs -> rows.add(new Row(
+            rs.getLong("id"),
+            rs.getString("kind"),
+            rs.getString("value").trim().toLowerCase(Locale.ROOT)
+        ));
+    }
+
+    private static List<Long> ids(List<Row> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ids.add(row.id());
+        }
+        return ids;
+    }
+
+    /**
+     * 억제 목록 크기와 확인/적중 횟수
+     */
+    public SuppressionStats stats() {
+        Snapshot s = snapshot;
+        return new SuppressionStats(
+            s.addresses.size(),
+            s.domains.size(),
+            s.roles.size(),
+            checks.get(),
+            addressHits.get(),
+            domainHits.get(),
+            roleHits.get(),
+            lastFullReload != null ? lastFullReload.toString() : null
+        );
+    }
+
+    private record Row(long id, String kind, String value) {}
+
+    /**
+     * 불변 스냅샷 (교체 방식으로만 갱신)
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new AddressHashSet(0), Set.of(), new DomainTrie(Set.of()), Set.of(), 0);
+
+        private final AddressHashSet addresses;
+        private final Set<String> domainSet;
+        private final DomainTrie domains;
+        private final Set<String> roles;
+        private final long lastId;
+
+        private Snapshot(AddressHashSet addresses, Set<String> domainSet, DomainTrie domains, Set<String> roles, long lastId) {
+            this.addresses = addresses;
+            this.domainSet = domainSet;
+            this.domains = domains;
+            this.roles = roles;
+            this.lastId = lastId;
+        }
+
+        /**
+         * rows 를 더한 새 스냅샷 (도메인/역할이 바뀐 경우에만 해당 구조를 다시 만듦)
+         */
+        private Snapshot with(List<Row> rows) {
+            AddressHashSet nextAddresses = addresses.copy(rows.size());
+            Set<String> nextDomainSet = null;
+            Set<String> nextRoles = null;
+            long nextLastId = lastId;
+            for (Row row : rows) {
+                switch (row.kind()) {
+                    case "address" -> nextAddresses.add(row.value());
+                    case "domain" -> {
+                        if (nextDomainSet == null) {
+                            nextDomainSet = new HashSet<>(domainSet);
+                        }
+                        nextDomainSet.add(row.value());
+                    }
+                    case "role" -> {
+                        if (nextRoles == null) {
+                            nextRoles = new HashSet<>(roles);
+                        }
+                        nextRoles.add(row.value());
+                    }
+                    default -> log.warn("Unknown suppression kind: {}", row.kind());
+                }
+                nextLastId = Math.max(nextLastId, row.id());
+            }
+            return new Snapshot(
+                nextAddresses,
+                nextDomainSet != null ? nextDomainSet : domainSet,
+                nextDomainSet != null ? new DomainTrie(nextDomainSet) : domains,
+                nextRoles != null ? nextRoles : roles,
+                nextLastId
+            );
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package app.ramsbaby.newsletter.suppression;
+
+/**
+ * 억제 목록 통계 응답용 DTO
+ */
+public record SuppressionStats(
+        int addresses,
+        int domains,
+        int roles,
+        long checks,
+        long addressHits,
+        long domainHits,
+        long roleHits,
+        String lastFullReloadAt
+) {}
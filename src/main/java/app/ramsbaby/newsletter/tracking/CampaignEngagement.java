@@ -0,0 +1,22 @@
+package app.ramsbaby.newsletter.tracking;
+
+import java.util.List;
+
+/**
+ * 캠페인 오픈/클릭 집계 응답용 DTO
+ *
+ * @param campaignId 캠페인 ID
+ * @param opens 오픈 수 (같은 구독자의 반복 오픈 포함)
+ * @param uniqueOpens 오픈한 구독자 수 (HyperLogLog 근사, 오차 약 2%)
+ * @param clicks 클릭 수
+ * @param uniqueClicks 클릭한 구독자 수 (HyperLogLog 근사)
+ * @param links 링크별 클릭 집계
+ */
+public record CampaignEngagement(
+        long campaignId,
+        long opens,
+        long uniqueOpens,
+        long clicks,
+        long uniqueClicks,
+        List<LinkEngagement> links
+) {}
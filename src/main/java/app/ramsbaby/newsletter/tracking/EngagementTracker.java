@@ -0,0 +1,269 @@
+package app.ramsbaby.newsletter.tracking;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 오픈/클릭 이벤트 수집 및 쓰기 지연(write-behind) 집계
+ *
+ * 픽셀/리다이렉트 요청은 링 버퍼에 이벤트를 넣기만 하고 바로 응답합니다.
+ * 플러시 스레드가 주기적으로 이벤트를 꺼내 캠페인별/링크별 증분과 HyperLogLog로 모은 뒤,
+ * 테이블마다 배치 한 번으로 DB에 더합니다. 발송 직후 오픈이 몰려도 DB 쓰기는 플러시 주기당 몇 건입니다.
+ *
+ * 증분은 SQL에서 더하고 HyperLogLog는 레지스터별 최댓값으로 병합하므로 여러 인스턴스가 동시에 플러시해도 됩니다.
+ * 오픈/클릭한 구독자의 last_engaged_at(세그먼트 engaged:<N>d 기준)은 하루에 한 번까지만 갱신합니다.
+ * 플러시에 실패한 증분은 메모리에 남겨두었다가 다음 주기에 다시 기록합니다.
+ */
+@Component
+public class EngagementTracker {
+    private static final Logger log = LoggerFactory.getLogger(EngagementTracker.class);
+
+    // 링 버퍼의 링크 ID 자리에 기록하는 오픈 이벤트 표시
+    private static final int OPEN = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EventRing ring;
+
+    // 플러시 스레드에서만 접근 (flush 가 synchronized)
+    private final Map<Long, Counter> campaigns = new HashMap<>();
+    private final Map<LinkKey, Counter> links = new HashMap<>();
+    private final Set<Long> engaged = new HashSet<>();
+
+    public EngagementTracker(JdbcTemplate jdbcTemplate, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ring = new EventRing(props.getTracking().getRingSize());
+    }
+
+    /**
+     * 오픈 이벤트 기록 (요청 스레드, 잠금 없음)
+     */
+    public void recordOpen(long campaignId, long subscriberId) {
+        ring.offer(campaignId, OPEN, subscriberId);
+    }
+
+    /**
+     * 클릭 이벤트 기록 (요청 스레드, 잠금 없음)
+     */
+    public void recordClick(long campaignId, int linkId, long subscriberId) {
+        ring.offer(campaignId, linkId, subscriberId);
+    }
+
+    /**
+     * 모은 증분을 DB에 반영 (기본 10초마다)
+     *
+     * - 초기 지연: 30초 (Flyway 마이그레이션이 비동기로 실행되므로)
+     */
+    @Scheduled(fixedDelayString = "${app.tracking.flushIntervalMs:10000}", initialDelay = 30_000)
+    public synchronized void flush() {
+        int drained = ring.drain(this::aggregate);
+        long dropped = ring.takeDropped();
+        if (dropped > 0) {
+            log.warn("Tracking ring buffer full, dropped {} events (capacity {})", dropped, ring.capacity());
+        }
+        if (campaigns.isEmpty() && links.isEmpty() && engaged.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (!campaigns.isEmpty()) {
+                writeCampaigns();
+                campaigns.clear();
+            }
+            if (!links.isEmpty()) {
+                writeLinks();
+                links.clear();
+            }
+            if (!engaged.isEmpty()) {
+                writeEngaged();
+                engaged.clear();
+            }
+            log.debug("Flushed {} tracking events", drained);
+        } catch (Exception e) {
+            log.warn("Tracking flush failed, keeping {} campaign / {} link aggregates for next flush: {}",
+                    campaigns.size(), links.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 종료 시 남은 이벤트 반영
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void aggregate(long campaignId, int linkId, long subscriberId) {
+        Counter campaign = campaigns.computeIfAbsent(campaignId, k -> new Counter(true));
+        engaged.add(subscriberId);
+        if (linkId == OPEN) {
+            campaign.opens++;
+            campaign.openers.add(subscriberId);
+            return;
+        }
+        campaign.clicks++;
+        campaign.clickers.add(subscriberId);
+
+        Counter link = links.computeIfAbsent(new LinkKey(campaignId, linkId), k -> new Counter(false));
+        link.clicks++;
+        link.clickers.add(subscriberId);
+    }
+
+    private void writeCampaigns() {
+        List<Map.Entry<Long, Counter>> rows = new ArrayList<>(campaigns.entrySet());
+        jdbcTemplate.batchUpdate(
+            // 삭제되었거나 존재하지 않는 캠페인 ID는 무시
+            "INSERT INTO campaign_engagement(campaign_id, opens, clicks, opener_hll, clicker_hll) " +
+            "SELECT ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM campaigns WHERE id = ?) " +
+            "ON CONFLICT (campaign_id) DO UPDATE SET " +
+            "  opens = campaign_engagement.opens + EXCLUDED.opens, " +
+            "  clicks = campaign_engagement.clicks + EXCLUDED.clicks, " +
+            "  opener_hll = hll_merge(campaign_engagement.opener_hll, EXCLUDED.opener_hll), " +
+            "  clicker_hll = hll_merge(campaign_engagement.clicker_hll, EXCLUDED.clicker_hll), " +
+            "  updated_at = CURRENT_TIMESTAMP",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    long campaignId = rows.get(i).getKey();
+                    Counter c = rows.get(i).getValue();
+                    ps.setLong(1, campaignId);
+                    ps.setLong(2, c.opens);
+                    ps.setLong(3, c.clicks);
+                    ps.setArray(4, registers(ps, c.openers));
+                    ps.setArray(5, registers(ps, c.clickers));
+                    ps.setLong(6, campaignId);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            }
+        );
+    }
+
+    private void writeLinks() {
+        List<Map.Entry<LinkKey, Counter>> rows = new ArrayList<>(links.entrySet());
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO link_clicks(campaign_id, link_id, clicks, clicker_hll) " +
+            "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM campaign_links WHERE campaign_id = ? AND link_id = ?) " +
+            "ON CONFLICT (campaign_id, link_id) DO UPDATE SET " +
+            "  clicks = link_clicks.clicks + EXCLUDED.clicks, " +
+            "  clicker_hll = hll_merge(link_clicks.clicker_hll, EXCLUDED.clicker_hll), " +
+            "  updated_at = CURRENT_TIMESTAMP",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LinkKey key = rows.get(i).getKey();
+                    Counter c = rows.get(i).getValue();
+                    ps.setLong(1, key.campaignId());
+                    ps.setInt(2, key.linkId());
+                    ps.setLong(3, c.clicks);
+                    ps.setArray(4, registers(ps, c.clickers));
+                    ps.setLong(5, key.campaignId());
+                    ps.setInt(6, key.linkId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            }
+        );
+    }
+
+    private void writeEngaged() {
+        List<Long> ids = new ArrayList<>(engaged);
+        jdbcTemplate.batchUpdate(
+            // 세그먼트는 일 단위이므로 오늘 이미 기록된 구독자는 건너뜀 (변경 로그도 남지 않음)
+            "UPDATE newsletter_subscribers SET last_engaged_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ? AND (last_engaged_at IS NULL OR last_engaged_at < CURRENT_DATE)",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, ids.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return ids.size();
+                }
+            }
+        );
+    }
+
+    private static Array registers(PreparedStatement ps, HyperLogLog hll) throws SQLException {
+        return ps.getConnection().createArrayOf("smallint", hll.toArray());
+    }
+
+    /**
+     * 캠페인 오픈/클릭 집계 조회
+     *
+     * 아직 플러시되지 않은 이벤트(최대 플러시 주기만큼)는 포함되지 않습니다.
+     */
+    public CampaignEngagement findEngagement(long campaignId) {
+        long[] totals = new long[4];
+        jdbcTemplate.query(
+            "SELECT opens, clicks, opener_hll, clicker_hll FROM campaign_engagement WHERE campaign_id = ?",
+            (RowCallbackHandler) rs -> {
+                totals[0] = rs.getLong("opens");
+                totals[1] = HyperLogLog.estimate((Object[]) rs.getArray("opener_hll").getArray());
+                totals[2] = rs.getLong("clicks");
+                totals[3] = HyperLogLog.estimate((Object[]) rs.getArray("clicker_hll").getArray());
+            },
+            campaignId
+        );
+
+        List<LinkEngagement> linkStats = jdbcTemplate.query(
+            "SELECT l.link_id, l.url, COALESCE(k.clicks, 0) AS clicks, k.clicker_hll " +
+            "FROM campaign_links l " +
+            "LEFT JOIN link_clicks k ON k.campaign_id = l.campaign_id AND k.link_id = l.link_id " +
+            "WHERE l.campaign_id = ? " +
+            "ORDER BY l.link_id",
+            (rs, rowNum) -> {
+                Array clickers = rs.getArray("clicker_hll");
+                return new LinkEngagement(
+                    rs.getInt("link_id"),
+                    rs.getString("url"),
+                    rs.getLong("clicks"),
+                    clickers != null ? HyperLogLog.estimate((Object[]) clickers.getArray()) : 0
+                );
+            },
+            campaignId
+        );
+
+        return new CampaignEngagement(campaignId, totals[0], totals[1], totals[2], totals[3], linkStats);
+    }
+
+    /**
+     * 플러시 주기 동안의 증분
+     */
+    private static final class Counter {
+        long opens;
+        long clicks;
+        final HyperLogLog openers;
+        final HyperLogLog clickers = new HyperLogLog();
+
+        Counter(boolean trackOpens) {
+            this.openers = trackOpens ? new HyperLogLog() : null;
+        }
+    }
+
+    private record LinkKey(long campaignId, int linkId) {}
+}
@@ -0,0 +1,99 @@
+package app.ramsbaby.newsletter.tracking;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 추적 이벤트 링 버퍼 (다중 생산자, 단일 소비자)
+ *
+ * 요청 스레드는 잠금 없이 슬롯을 예약해 기록하고, 플러시 스레드가 순서대로 꺼냅니다.
+ * 이벤트마다 객체를 만들지 않도록 필드별 배열에 저장하며,
+ * 버퍼가 가득 차면 요청을 막지 않고 이벤트를 버립니다(버린 개수는 집계).
+ */
+final class EventRing {
+    private final int capacity;
+    private final int mask;
+    private final long[] campaignIds;
+    private final int[] linkIds;
+    private final long[] subscriberIds;
+    // 슬롯에 기록이 끝난 시퀀스 (기록 전에는 이전 바퀴의 값)
+    private final AtomicLongArray published;
+
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final AtomicLong dropped = new AtomicLong();
+
+    EventRing(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.campaignIds = new long[capacity];
+        this.linkIds = new int[capacity];
+        this.subscriberIds = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * 이벤트 추가
+     *
+     * @return 버퍼가 가득 차서 버렸으면 false
+     */
+    boolean offer(long campaignId, int linkId, long subscriberId) {
+        long seq;
+        do {
+            seq = head.get();
+            if (seq - tail >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!head.compareAndSet(seq, seq + 1));
+
+        int slot = (int) (seq & mask);
+        campaignIds[slot] = campaignId;
+        linkIds[slot] = linkId;
+        subscriberIds[slot] = subscriberId;
+        published.set(slot, seq);
+        return true;
+    }
+
+    /**
+     * 기록이 끝난 이벤트를 순서대로 꺼냄 (플러시 스레드 전용)
+     *
+     * 아직 기록 중인 슬롯을 만나면 거기서 멈추고 다음 호출 때 이어서 꺼냅니다.
+     *
+     * @return 꺼낸 이벤트 수
+     */
+    int drain(Sink sink) {
+        long seq = tail;
+        int count = 0;
+        while (true) {
+            int slot = (int) (seq & mask);
+            if (published.get(slot) != seq) {
+                break;
+            }
+            sink.accept(campaignIds[slot], linkIds[slot], subscriberIds[slot]);
+            seq++;
+            count++;
+        }
+        tail = seq;
+        return count;
+    }
+
+    /**
+     * 마지막 호출 이후 버린 이벤트 수
+     */
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @FunctionalInterface
+    interface Sink {
+        void accept(long campaignId, int linkId, long subscriberId);
+    }
+}
@@ -0,0 +1,16 @@
+package app.ramsbaby.newsletter.tracking;
+
+/**
+ * 링크별 클릭 집계 응답용 DTO
+ *
+ * @param linkId 본문 내 링크 순서
+ * @param url 원래 URL
+ * @param clicks 클릭 수
+ * @param uniqueClicks 클릭한 구독자 수 (HyperLogLog 근사)
+ */
+public record LinkEngagement(
+        int linkId,
+        String url,
+        long clicks,
+        long uniqueClicks
+) {}
@@ -0,0 +1,226 @@
+package app.ramsbaby.newsletter.tracking;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 캠페인 본문 추적 링크 관리
+ *
+ * 캠페인 본문을 읽을 때 한 번만 링크를 추적 URL로 바꾸고 오픈 픽셀을 넣어두며,
+ * 수신자별로는 구독자 ID 자리표시자만 치환하면 되도록 합니다.
+ * 클릭 리다이렉트는 메모리의 링크 목록에서 바로 찾고, 없을 때는 토큰이 검증된 요청만 캠페인 단위로 DB에서 읽습니다.
+ * (임의의 c 값으로 DB 조회를 일으키거나 캐시에서 실제 캠페인을 밀어내지 못하도록, 빈 결과는 캐시하지 않음)
+ * 등록된 링크로만 리다이렉트하므로 임의 URL로 보내는 오픈 리다이렉트가 되지 않습니다.
+ *
+ * 추적 URL에는 캠페인/구독자 ID에 대한 HMAC 토큰이 함께 들어가며, 토큰이 맞지 않는 요청은 기록하지 않습니다.
+ * (임의의 c/s 값으로 오픈/클릭 수와 engaged: 세그먼트를 부풀릴 수 없도록)
+ */
+@Component
+public class TrackedLinks {
+    // 수신자별로 치환되는 구독자 ID 자리표시자
+    public static final String SUBSCRIBER_PLACEHOLDER = "{{subscriber_id}}";
+    // 수신자별로 치환되는 추적 토큰 자리표시자
+    public static final String TOKEN_PLACEHOLDER = "{{tracking_token}}";
+
+    private static final Logger log = LoggerFactory.getLogger(TrackedLinks.class);
+
+    // http(s) 링크만 추적 (구독 해제 링크와 mailto: 는 그대로 둠)
+    private static final Pattern HREF = Pattern.compile("href=(['\"])(https?://[^'\"]+)\\1");
+    private static final String[] NO_LINKS = new String[0];
+
+    // 최근 발송/클릭된 캠페인만 유지
+    private static final int MAX_CAMPAIGNS = 256;
+    // 토큰 길이 (HMAC-SHA256 앞 12바이트 = URL-safe Base64 16자)
+    private static final int TOKEN_BYTES = 12;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppProps props;
+    // 서명 키가 없으면 null (추적 비활성화)
+    private final SecretKeySpec tokenKey;
+    private final ThreadLocal<Mac> macs;
+    private final Map<Long, String[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+            return size() > MAX_CAMPAIGNS;
+        }
+    };
+
+    public TrackedLinks(JdbcTemplate jdbcTemplate, AppProps props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.props = props;
+        String secret = props.getTracking().getSecret();
+        this.tokenKey = secret == null || secret.isBlank()
+                ? null
+                : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        if (props.getTracking().isEnabled() && tokenKey == null) {
+            log.warn("app.tracking.secret is not set, open/click tracking is disabled");
+        }
+    }
+
+    /**
+     * 본문 링크를 추적 URL로 바꾸고 오픈 픽셀 추가
+     *
+     * 링크 ID는 본문 내 등장 순서이며 campaign_links 에 기록됩니다.
+     *
+     * @param campaignId 캠페인 ID
+     * @param html 캠페인 HTML
+     * @return 구독자 ID/토큰 자리표시자가 들어간 HTML (추적 비활성화 시 원본)
+     */
+    public String instrument(long campaignId, String html) {
+        if (!props.getTracking().isEnabled() || tokenKey == null) {
+            return html;
+        }
+        String base = trackingBase();
+
+        List<String> urls = new ArrayList<>();
+        Map<String, Integer> linkIds = new HashMap<>();
+        Matcher m = HREF.matcher(html);
+        StringBuilder out = new StringBuilder(html.length() + 256);
+        while (m.find()) {
+            String quote = m.group(1);
+            String url = m.group(2).replace("&amp;", "&");
+            int linkId = linkIds.computeIfAbsent(url, u -> {
+                urls.add(u);
+                return urls.size() - 1;
+            });
+            m.appendReplacement(out, Matcher.quoteReplacement(
+                "href=" + quote + base + "/api/track/click?c=" + campaignId + "&l=" + linkId
+                    + "&s=" + SUBSCRIBER_PLACEHOLDER + "&t=" + TOKEN_PLACEHOLDER + quote));
+        }
+        m.appendTail(out);
+        register(campaignId, urls);
+
+        String pixel = "<img src='" + base + "/api/track/open?c=" + campaignId + "&s=" + SUBSCRIBER_PLACEHOLDER
+                + "&t=" + TOKEN_PLACEHOLDER + "' width='1' height='1' alt='' style='display:block;border:0;'>";
+        int bodyEnd = out.lastIndexOf("</body>");
+        if (bodyEnd >= 0) {
+            out.insert(bodyEnd, pixel);
+        } else {
+            out.append(pixel);
+        }
+        return out.toString();
+    }
+
+    /**
+     * 수신자별 추적 토큰
+     *
+     * @return URL-safe Base64 토큰 (서명 키가 없으면 빈 문자열)
+     */
+    public String token(long campaignId, long subscriberId) {
+        byte[] mac = sign(campaignId, subscriberId);
+        return mac != null ? Base64.getUrlEncoder().withoutPadding().encodeToString(mac) : "";
+    }
+
+    /**
+     * 추적 토큰 검증 (상수 시간 비교)
+     */
+    public boolean verify(long campaignId, long subscriberId, String token) {
+        if (token == null) {
+            return false;
+        }
+        byte[] expected = sign(campaignId, subscriberId);
+        if (expected == null) {
+            return false;
+        }
+        try {
+            return MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(token));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 클릭 리다이렉트 대상 조회
+     *
+     * @param verified 추적 토큰이 검증된 요청인지 (아니면 메모리에 있는 캠페인만 찾음)
+     * @return 원래 URL (등록되지 않았거나 찾지 않은 링크면 null)
+     */
+    public String resolve(long campaignId, int linkId, boolean verified) {
+        String[] urls;
+        synchronized (cache) {
+            urls = cache.get(campaignId);
+        }
+        if (urls == null) {
+            if (!verified) {
+                return null;
+            }
+            urls = load(campaignId);
+            // 링크 등록 전에 읽은 빈 목록이 남아 있지 않도록 찾은 경우만 캐시
+            if (urls.length > 0) {
+                synchronized (cache) {
+                    cache.put(campaignId, urls);
+                }
+            }
+        }
+        return linkId >= 0 && linkId < urls.length ? urls[linkId] : null;
+    }
+
+    private void register(long campaignId, List<String> urls) {
+        if (!urls.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(urls.size());
+            for (int i = 0; i < urls.size(); i++) {
+                args.add(new Object[]{campaignId, i, urls.get(i)});
+            }
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO campaign_links(campaign_id, link_id, url) VALUES(?, ?, ?) " +
+                "ON CONFLICT (campaign_id, link_id) DO UPDATE SET url = EXCLUDED.url",
+                args
+            );
+        }
+        synchronized (cache) {
+            cache.put(campaignId, urls.toArray(NO_LINKS));
+        }
+    }
+
+    private String[] load(long campaignId) {
+        List<String> urls = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT url FROM campaign_links WHERE campaign_id = ? ORDER BY link_id",
+            (RowCallbackHandler) rs -> urls.add(rs.getString("url")),
+            campaignId
+        );
+        return urls.toArray(NO_LINKS);
+    }
+
+    private byte[] sign(long campaignId, long subscriberId) {
+        if (tokenKey == null) {
+            return null;
+        }
+        byte[] mac = macs.get().doFinal((campaignId + ":" + subscriberId).getBytes(StandardCharsets.US_ASCII));
+        return Arrays.copyOf(mac, TOKEN_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(tokenKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private String trackingBase() {
+        return props.getApiBaseUrl() != null ? props.getApiBaseUrl() : props.getSiteUrl();
+    }
+}
@@ -0,0 +1,81 @@
+package app.ramsbaby.newsletter.tracking;
+
+import app.ramsbaby.newsletter.config.AppProps;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Base64;
+
+/**
+ * 오픈 픽셀 / 클릭 리다이렉트
+ *
+ * 두 엔드포인트 모두 DB를 거치지 않고 이벤트를 링 버퍼에 넣은 뒤 바로 응답합니다.
+ * 추적 토큰(t)이 맞지 않는 요청은 응답은 그대로 하되 이벤트를 기록하지 않습니다.
+ */
+@RestController
+@RequestMapping("/api/track")
+public class TrackingController {
+
+    // 1x1 투명 GIF
+    private static final byte[] PIXEL = Base64.getDecoder().decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+
+    private final EngagementTracker engagementTracker;
+    private final TrackedLinks trackedLinks;
+    private final AppProps props;
+
+    public TrackingController(EngagementTracker engagementTracker, TrackedLinks trackedLinks, AppProps props) {
+        this.engagementTracker = engagementTracker;
+        this.trackedLinks = trackedLinks;
+        this.props = props;
+    }
+
+    /**
+     * 오픈 픽셀
+     *
+     * GET /api/track/open?c=123&s=456&t=토큰
+     *
+     * @return 1x1 GIF (캐시 금지, 다시 열 때마다 요청되도록)
+     */
+    @GetMapping("/open")
+    public ResponseEntity<byte[]> open(@RequestParam("c") long campaignId, @RequestParam("s") long subscriberId,
+                                       @RequestParam(value = "t", required = false) String token) {
+        if (trackedLinks.verify(campaignId, subscriberId, token)) {
+            engagementTracker.recordOpen(campaignId, subscriberId);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_GIF)
+                .cacheControl(CacheControl.noStore())
+                .body(PIXEL);
+    }
+
+    /**
+     * 클릭 리다이렉트
+     *
+     * GET /api/track/click?c=123&l=0&s=456&t=토큰
+     *
+     * @return 302 Found (원래 URL), 등록되지 않은 링크는 기록하지 않고 사이트로 이동
+     */
+    @GetMapping("/click")
+    public ResponseEntity<?> click(@RequestParam("c") long campaignId, @RequestParam("l") int linkId,
+                                   @RequestParam("s") long subscriberId,
+                                   @RequestParam(value = "t", required = false) String token) {
+        // 토큰 검증은 메모리에서만 하므로 먼저 확인하고, 검증된 요청만 링크를 DB에서 읽을 수 있음
+        boolean verified = trackedLinks.verify(campaignId, subscriberId, token);
+        String url = trackedLinks.resolve(campaignId, linkId, verified);
+        if (url != null) {
+            // 토큰이 맞지 않아도 메모리에 있는 등록된 링크로는 보내줌 (기록만 하지 않음)
+            if (verified) {
+                engagementTracker.recordClick(campaignId, linkId, subscriberId);
+            }
+        } else {
+            url = props.getSiteUrl() != null ? props.getSiteUrl() : "/";
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LOCATION, url);
+        return new ResponseEntity<>(headers, HttpStatus.FOUND);
+    }
+}
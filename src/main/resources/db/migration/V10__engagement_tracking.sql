@@ -0,0 +1,48 @@
+-- ========================================
+-- V10: 오픈/클릭 추적 집계 테이블
+-- 이벤트는 행 단위로 저장하지 않고, 인스턴스 메모리에서 모은 증분을 주기적으로 더함
+-- 고유 수신자 수는 HyperLogLog 레지스터(SMALLINT[])로 근사 (레지스터별 최댓값으로 병합)
+-- ========================================
+
+-- 캠페인 본문의 추적 링크 (클릭 리다이렉트 대상)
+CREATE TABLE IF NOT EXISTS campaign_links (
+  campaign_id BIGINT NOT NULL,
+  link_id INTEGER NOT NULL,
+  url TEXT NOT NULL,
+  PRIMARY KEY (campaign_id, link_id),
+  CONSTRAINT fk_campaign_links_campaign FOREIGN KEY(campaign_id) REFERENCES campaigns(id) ON DELETE CASCADE
+);
+
+-- 캠페인별 오픈/클릭 집계
+CREATE TABLE IF NOT EXISTS campaign_engagement (
+  campaign_id BIGINT PRIMARY KEY,
+  opens BIGINT NOT NULL DEFAULT 0,
+  clicks BIGINT NOT NULL DEFAULT 0,
+  opener_hll SMALLINT[] NOT NULL,
+  clicker_hll SMALLINT[] NOT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT fk_campaign_engagement_campaign FOREIGN KEY(campaign_id) REFERENCES campaigns(id) ON DELETE CASCADE
+);
+
+-- 링크별 클릭 집계
+CREATE TABLE IF NOT EXISTS link_clicks (
+  campaign_id BIGINT NOT NULL,
+  link_id INTEGER NOT NULL,
+  clicks BIGINT NOT NULL DEFAULT 0,
+  clicker_hll SMALLINT[] NOT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (campaign_id, link_id),
+  CONSTRAINT fk_link_clicks_link FOREIGN KEY(campaign_id, link_id) REFERENCES campaign_links(campaign_id, link_id) ON DELETE CASCADE
+);
+
+-- HyperLogLog 레지스터 병합 (같은 위치끼리 최댓값)
+CREATE OR REPLACE FUNCTION hll_merge(a SMALLINT[], b SMALLINT[]) RETURNS SMALLINT[]
+LANGUAGE sql IMMUTABLE AS $$
+  SELECT array_agg(GREATEST(x, y) ORDER BY i) FROM unnest(a, b) WITH ORDINALITY AS t(x, y, i)
+$$;
+
+-- 코멘트
+COMMENT ON TABLE campaign_links IS '캠페인 본문의 추적 링크 (link_id는 본문 내 등장 순서)';
+COMMENT ON TABLE campaign_engagement IS '캠페인별 오픈/클릭 집계 (주기적으로 증분 반영)';
+COMMENT ON COLUMN campaign_engagement.opener_hll IS '오픈한 구독자 HyperLogLog 레지스터 (고유 오픈 수 근사)';
+COMMENT ON TABLE link_clicks IS '링크별 클릭 집계 (주기적으로 증분 반영)';
@@ -0,0 +1,64 @@
+-- ========================================
+-- V11: 구독자 세그먼트 (태그, 가입 경로, 가입일, 최근 오픈/클릭)
+-- 앱은 활성 구독자를 메모리 비트맵으로 색인하고, 변경은 subscriber_changes 로그로 증분 반영
+-- ========================================
+
+-- 구독자 태그
+CREATE TABLE IF NOT EXISTS subscriber_tags (
+  subscriber_id BIGINT NOT NULL,
+  tag VARCHAR(50) NOT NULL,
+  created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+  PRIMARY KEY (subscriber_id, tag),
+  CONSTRAINT fk_subscriber_tags_subscriber FOREIGN KEY(subscriber_id) REFERENCES newsletter_subscribers(id) ON DELETE CASCADE
+);
+
+-- 인덱스: 태그별 구독자 조회
+CREATE INDEX IF NOT EXISTS idx_subscriber_tags_tag ON subscriber_tags(tag);
+
+-- 마지막 오픈/클릭 시각 (추적 플러시가 하루에 한 번까지만 갱신)
+ALTER TABLE newsletter_subscribers ADD COLUMN IF NOT EXISTS last_engaged_at TIMESTAMP WITH TIME ZONE NULL;
+
+-- 캠페인 대상 세그먼트 (NULL 이면 전체 활성 구독자)
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS segment TEXT NULL;
+
+-- 세그먼트에 영향을 주는 구독자 변경 로그 (트리거가 기록, 앱이 id 기준으로 증분 로드)
+CREATE TABLE IF NOT EXISTS subscriber_changes (
+  id BIGSERIAL PRIMARY KEY,
+  subscriber_id BIGINT NOT NULL,
+  changed_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+-- 인덱스: 오래된 변경 로그 정리
+CREATE INDEX IF NOT EXISTS idx_subscriber_changes_changed ON subscriber_changes(changed_at);
+
+CREATE OR REPLACE FUNCTION log_subscriber_change() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+  IF TG_TABLE_NAME = 'subscriber_tags' THEN
+    INSERT INTO subscriber_changes(subscriber_id)
+    VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.subscriber_id ELSE NEW.subscriber_id END);
+  ELSE
+    INSERT INTO subscriber_changes(subscriber_id)
+    VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END);
+  END IF;
+  RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_newsletter_subscribers_changes ON newsletter_subscribers;
+CREATE TRIGGER trg_newsletter_subscribers_changes
+  AFTER INSERT OR DELETE OR UPDATE OF status, delivery_mode, subscription_source, created_at, last_engaged_at
+  ON newsletter_subscribers
+  FOR EACH ROW EXECUTE FUNCTION log_subscriber_change();
+
+DROP TRIGGER IF EXISTS trg_subscriber_tags_changes ON subscriber_tags;
+CREATE TRIGGER trg_subscriber_tags_changes
+  AFTER INSERT OR DELETE OR UPDATE
+  ON subscriber_tags
+  FOR EACH ROW EXECUTE FUNCTION log_subscriber_change();
+
+-- 코멘트
+COMMENT ON TABLE subscriber_tags IS '구독자 태그 (세그먼트 식의 tag:<이름>)';
+COMMENT ON COLUMN newsletter_subscribers.last_engaged_at IS '마지막 오픈/클릭 시각 (세그먼트 식의 engaged:<N>d)';
+COMMENT ON COLUMN campaigns.segment IS '대상 세그먼트 식 (예: tag:java AND engaged:30d), NULL 이면 전체';
+COMMENT ON TABLE subscriber_changes IS '세그먼트 인덱스 증분 반영용 구독자 변경 로그 (하루 지나면 정리)';
@@ -0,0 +1,36 @@
+-- ========================================
+-- V12: 재개 가능한 팬아웃 작업
+-- 팬아웃은 청크마다 마지막으로 처리한 구독자 ID를 기록하고, 인스턴스가 도중에 종료되면 그 다음부터 이어서 큐잉
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS fanout_jobs (
+  campaign_id BIGINT NOT NULL,
+  delivery_mode VARCHAR(20) NOT NULL,
+  status VARCHAR(20) NOT NULL DEFAULT 'running',
+  total_recipients INT NOT NULL DEFAULT 0,
+  position INT NOT NULL DEFAULT 0,
+  last_subscriber_id BIGINT NOT NULL DEFAULT 0,
+  queued_count INT NOT NULL DEFAULT 0,
+  suppressed_count INT NOT NULL DEFAULT 0,
+  chunk_size INT NOT NULL,
+  chunks INT NOT NULL DEFAULT 0,
+  attempts INT NOT NULL DEFAULT 0,
+  lease_owner VARCHAR(255) NULL,
+  lease_until TIMESTAMP WITH TIME ZONE NULL,
+  error TEXT NULL,
+  started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+  updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+  completed_at TIMESTAMP WITH TIME ZONE NULL,
+  PRIMARY KEY (campaign_id, delivery_mode),
+  CONSTRAINT fk_fanout_jobs_campaign FOREIGN KEY(campaign_id) REFERENCES campaigns(id) ON DELETE CASCADE
+);
+
+-- 인덱스: 임대가 만료된 진행 중 작업 조회
+CREATE INDEX IF NOT EXISTS idx_fanout_jobs_running ON fanout_jobs(lease_until) WHERE status = 'running';
+
+-- 코멘트
+COMMENT ON TABLE fanout_jobs IS '캠페인 팬아웃 작업 진행 상황 (청크마다 체크포인트)';
+COMMENT ON COLUMN fanout_jobs.position IS '지금까지 큐잉 대상이 된 수신자 수 (분산 발송 계획의 순번)';
+COMMENT ON COLUMN fanout_jobs.last_subscriber_id IS '마지막으로 처리한 구독자 ID (재개 시 이보다 큰 ID부터)';
+COMMENT ON COLUMN fanout_jobs.started_at IS '작업 시작 시각 (재개해도 같은 분산 발송 계획을 쓰도록 기준 시각으로 사용)';
+COMMENT ON COLUMN fanout_jobs.lease_owner IS '작업을 실행 중인 인스턴스 ID (lease_until 까지 갱신하지 않으면 다른 인스턴스가 이어받음)';
@@ -0,0 +1,9 @@
+-- ========================================
+-- V13: 다이제스트 기간 끝 시각
+-- 다음 다이제스트는 캠페인 생성 시각 대신 직전 다이제스트가 실제로 포함한 기간의 끝부터 이어서 모음
+-- ========================================
+
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS digest_until TIMESTAMP NULL;
+
+-- 코멘트
+COMMENT ON COLUMN campaigns.digest_until IS '다이제스트 캠페인이 포함한 기간의 끝 (DB 시각, 다음 다이제스트의 시작), 일반 캠페인은 NULL';
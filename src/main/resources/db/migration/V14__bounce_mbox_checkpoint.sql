@@ -0,0 +1,17 @@
+-- ========================================
+-- V14: mbox 반송 처리 체크포인트
+-- .processing 파일을 어디까지 반영했는지 보고서 반영과 같은 트랜잭션에 기록해,
+-- 처리 도중 종료되어도 다음 실행에서 이미 반영한 보고서를 다시 세지 않음
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS bounce_checkpoints (
+  mbox TEXT PRIMARY KEY,
+  file_key TEXT NOT NULL,
+  byte_offset BIGINT NOT NULL,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 코멘트
+COMMENT ON TABLE bounce_checkpoints IS 'mbox 반송 처리 진행 위치 (처리 중인 .processing 파일 기준)';
+COMMENT ON COLUMN bounce_checkpoints.file_key IS '.processing 파일 식별 (크기:수정 시각), 다른 파일이면 체크포인트 무시';
+COMMENT ON COLUMN bounce_checkpoints.byte_offset IS '반영이 끝난 다음 메시지의 시작 위치 (바이트)';
@@ -0,0 +1,28 @@
+-- ========================================
+-- V3: messages 테이블 핫/콜드 분리
+-- - 발송 대기열(queued) 전용 부분 인덱스
+-- - 완료된 캠페인 메시지를 보관하는 아카이브 테이블
+-- ========================================
+
+-- 부분 인덱스: 'queued' 행만 포함하므로 발송 완료 메시지가 늘어나도 크기가 작게 유지됨
+CREATE INDEX IF NOT EXISTS idx_messages_queued ON messages(id) WHERE status = 'queued';
+
+-- 대부분의 값이 'sent'인 전체 상태 인덱스는 부분 인덱스로 대체
+DROP INDEX IF EXISTS idx_messages_status;
+
+-- 캠페인 아카이브 완료 시각 (NULL이면 아직 messages 테이블에 행이 남아있음)
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS archived_at TIMESTAMP NULL;
+
+-- 아카이브 테이블: 발송 결과만 남긴 최소 컬럼 구성
+CREATE TABLE IF NOT EXISTS messages_archive (
+  campaign_id BIGINT NOT NULL,
+  subscriber_id BIGINT NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  sent_at TIMESTAMP NULL,
+  CONSTRAINT pk_messages_archive PRIMARY KEY (campaign_id, subscriber_id),
+  CONSTRAINT fk_messages_archive_campaign FOREIGN KEY(campaign_id) REFERENCES campaigns(id) ON DELETE CASCADE
+);
+
+-- 코멘트
+COMMENT ON TABLE messages_archive IS '완료된 캠페인의 발송 결과 보관 (messages 테이블에서 이동)';
+COMMENT ON COLUMN campaigns.archived_at IS '메시지 아카이브 완료 시각';
@@ -0,0 +1,34 @@
+-- ========================================
+-- V4: 캠페인별 발송 카운터
+-- 발송 스케줄러가 배치 단위로 증감하여 COUNT(*) 스캔 없이 진행 상황 조회
+-- ========================================
+
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS queued_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS sent_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS failed_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS dead_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE campaigns ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP NULL;
+
+-- 메시지별 발송 시도 횟수 (재시도 한도 판단용)
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+
+-- 기존 'failed' 메시지는 재시도되지 않았으므로 최종 실패(dead)로 전환
+UPDATE messages SET status = 'dead' WHERE status = 'failed';
+
+-- 기존 캠페인 카운터 1회 백필
+UPDATE campaigns c SET
+  queued_count = (SELECT COUNT(*) FROM messages m WHERE m.campaign_id = c.id AND m.status = 'queued'),
+  sent_count = (SELECT COUNT(*) FROM messages m WHERE m.campaign_id = c.id AND m.status = 'sent'),
+  dead_count = (SELECT COUNT(*) FROM messages m WHERE m.campaign_id = c.id AND m.status = 'dead');
+
+-- 대기열이 비어있는 기존 캠페인은 발송 완료 처리
+UPDATE campaigns SET status = 'sent', completed_at = CURRENT_TIMESTAMP
+WHERE status = 'scheduled' AND queued_count = 0 AND (sent_count + dead_count) > 0;
+
+-- 코멘트
+COMMENT ON COLUMN campaigns.status IS '캠페인 상태: scheduled(생성됨), sending(발송중), sent(발송완료), failed(실패)';
+COMMENT ON COLUMN campaigns.queued_count IS '발송 대기 중인 메시지 수';
+COMMENT ON COLUMN campaigns.sent_count IS '발송 완료 메시지 수';
+COMMENT ON COLUMN campaigns.failed_count IS '실패한 발송 시도 수 (재시도 포함)';
+COMMENT ON COLUMN campaigns.dead_count IS '재시도 한도를 넘겨 포기한 메시지 수';
+COMMENT ON COLUMN messages.status IS '메시지 상태: queued(대기), sent(발송완료), dead(최종실패)';
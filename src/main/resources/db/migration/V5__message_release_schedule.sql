@@ -0,0 +1,16 @@
+-- ========================================
+-- V5: 메시지 발송 가능 시각 (캠페인 분산 발송)
+-- 팬아웃 시 수신자별로 시차를 둔 eligible_at을 기록하여
+-- 발송 스케줄러가 일정한 부하로 메시지를 꺼내도록 함
+-- ========================================
+
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS eligible_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- 부분 인덱스: 대기 중인 메시지를 발송 가능 시각 순으로 조회
+CREATE INDEX IF NOT EXISTS idx_messages_queued_due ON messages(eligible_at, id) WHERE status = 'queued';
+
+-- V3의 id 기준 부분 인덱스는 위 인덱스로 대체
+DROP INDEX IF EXISTS idx_messages_queued;
+
+-- 코멘트
+COMMENT ON COLUMN messages.eligible_at IS '발송 가능 시각 (분산 발송 및 재시도 백오프)';
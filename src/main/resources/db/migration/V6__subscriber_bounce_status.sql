@@ -0,0 +1,19 @@
+-- ========================================
+-- V6: 반송/스팸 신고 처리
+-- 구독자 상태에 bounced(반송), complained(스팸 신고) 추가
+-- ========================================
+
+ALTER TABLE newsletter_subscribers DROP CONSTRAINT IF EXISTS newsletter_subscribers_status_check;
+ALTER TABLE newsletter_subscribers ADD CONSTRAINT newsletter_subscribers_status_check
+  CHECK (status IN ('pending', 'active', 'unsubscribed', 'bounced', 'complained'));
+
+-- 일시 반송(soft bounce) 누적 횟수 (한도 초과 시 bounced 처리)
+ALTER TABLE newsletter_subscribers ADD COLUMN IF NOT EXISTS soft_bounce_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE newsletter_subscribers ADD COLUMN IF NOT EXISTS bounced_at TIMESTAMP WITH TIME ZONE NULL;
+
+-- 인덱스: 반송 보고서의 수신자 주소(소문자)로 구독자 검색
+CREATE INDEX IF NOT EXISTS idx_newsletter_email_lower ON newsletter_subscribers(lower(email));
+
+-- 코멘트
+COMMENT ON COLUMN newsletter_subscribers.status IS '구독 상태: pending(대기), active(활성), unsubscribed(해지), bounced(반송), complained(스팸 신고)';
+COMMENT ON COLUMN newsletter_subscribers.soft_bounce_count IS '일시 반송 누적 횟수';
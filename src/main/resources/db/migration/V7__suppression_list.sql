@@ -0,0 +1,33 @@
+-- ========================================
+-- V7: 전역 발송 억제 목록
+-- 구독 상태와 무관하게 발송하지 않을 주소/도메인/역할 계정
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS suppressions (
+  id BIGSERIAL PRIMARY KEY,
+  kind VARCHAR(20) NOT NULL,
+  value VARCHAR(255) NOT NULL,
+  reason VARCHAR(50) NULL,
+  created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+  CONSTRAINT suppressions_kind_check CHECK (kind IN ('address', 'domain', 'role')),
+  CONSTRAINT suppressions_kind_value_key UNIQUE (kind, value)
+);
+
+-- 기본 역할 계정 (개인이 아닌 공용 수신함)
+INSERT INTO suppressions(kind, value, reason) VALUES
+  ('role', 'abuse', 'role account'),
+  ('role', 'postmaster', 'role account'),
+  ('role', 'mailer-daemon', 'role account'),
+  ('role', 'noreply', 'role account'),
+  ('role', 'no-reply', 'role account')
+ON CONFLICT (kind, value) DO NOTHING;
+
+-- 기존 스팸 신고 구독자를 주소 억제 목록에 등록
+INSERT INTO suppressions(kind, value, reason)
+SELECT 'address', lower(email), 'complaint' FROM newsletter_subscribers WHERE status = 'complained'
+ON CONFLICT (kind, value) DO NOTHING;
+
+-- 코멘트
+COMMENT ON TABLE suppressions IS '전역 발송 억제 목록 (추가 순서대로 id 증가, 앱은 id 기준으로 증분 로드)';
+COMMENT ON COLUMN suppressions.kind IS '억제 종류: address(주소), domain(도메인 및 하위 도메인), role(로컬 파트)';
+COMMENT ON COLUMN suppressions.value IS '소문자 값 (예: user@example.com, example.com, postmaster)';
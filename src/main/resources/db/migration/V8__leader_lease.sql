@@ -0,0 +1,15 @@
+-- ========================================
+-- V8: 스케줄러 리더 선출용 임대(lease) 테이블
+-- 여러 인스턴스 중 임대를 가진 인스턴스만 RSS 폴링 등 단일 실행 작업을 수행
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS leader_leases (
+  name VARCHAR(100) PRIMARY KEY,
+  holder VARCHAR(255) NOT NULL,
+  expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+  acquired_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- 코멘트
+COMMENT ON TABLE leader_leases IS '리더 임대 (holder가 expires_at 전에 갱신하지 않으면 다른 인스턴스가 가져감)';
+COMMENT ON COLUMN leader_leases.holder IS '임대를 가진 인스턴스 ID';
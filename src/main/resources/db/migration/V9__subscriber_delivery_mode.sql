@@ -0,0 +1,18 @@
+-- ========================================
+-- V9: 구독자별 수신 방식 (즉시/일간/주간 다이제스트)
+-- 다이제스트 구독자는 포스트별 메시지 대신 기간별 다이제스트 캠페인 메시지 1통만 받음
+-- ========================================
+
+ALTER TABLE newsletter_subscribers ADD COLUMN IF NOT EXISTS delivery_mode VARCHAR(20) NOT NULL DEFAULT 'immediate';
+ALTER TABLE newsletter_subscribers DROP CONSTRAINT IF EXISTS newsletter_subscribers_delivery_mode_check;
+ALTER TABLE newsletter_subscribers ADD CONSTRAINT newsletter_subscribers_delivery_mode_check
+  CHECK (delivery_mode IN ('immediate', 'daily', 'weekly'));
+
+-- 인덱스: 팬아웃 대상 조회 (활성 구독자를 수신 방식별로)
+CREATE INDEX IF NOT EXISTS idx_newsletter_active_mode ON newsletter_subscribers(delivery_mode, id) WHERE status = 'active';
+
+-- 인덱스: 다이제스트 기간 내 포스트 캠페인 조회
+CREATE INDEX IF NOT EXISTS idx_campaigns_created ON campaigns(created_at);
+
+-- 코멘트
+COMMENT ON COLUMN newsletter_subscribers.delivery_mode IS '수신 방식: immediate(포스트마다), daily(일간 다이제스트), weekly(주간 다이제스트)';
@@ -0,0 +1,117 @@
+package app.ramsbaby.newsletter.mail;
+
+import app.ramsbaby.newsletter.campaign.CampaignContent;
+import app.ramsbaby.newsletter.config.AppProps;
+import app.ramsbaby.newsletter.tracking.TrackedLinks;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * 본문 크기별 수신자 1명당 DKIM 서명 비용 측정
+ *
+ * 일반 테스트에서는 빠지며 ./gradlew benchmark 로 실행합니다.
+ * - render+write: 수신자 메일 생성부터 서명 포함 전송 바이트 출력까지
+ * - bodyHash: 준비된 고정 구간에 수신자 값만 이어 해시 (bh=)
+ * - sign: 헤더 정규화 + RSA 서명 (b=)
+ * - full hash: 비교용, 수신자마다 본문 전체를 정규화해 해시하는 경우
+ */
+@Tag("benchmark")
+class DkimSigningBenchmark {
+    private static final String UNSUBSCRIBE = "{{unsubscribe_link}}";
+    private static final List<String> PLACEHOLDERS =
+            List.of(TrackedLinks.SUBSCRIBER_PLACEHOLDER, TrackedLinks.TOKEN_PLACEHOLDER, UNSUBSCRIBE);
+
+    // 본문 크기(바이트) -> 측정 횟수
+    private static final int[][] RUNS = {{1 << 10, 2000}, {10 << 10, 1000}, {100 << 10, 200}, {1 << 20, 20}};
+
+    @Test
+    void signingCostByBodySize() throws Exception {
+        AppProps props = DkimSignerTest.props();
+        DkimSigner signer = new DkimSigner(props);
+        CampaignMailRenderer renderer = new CampaignMailRenderer(
+                new JavaMailSenderImpl(), signer, new TrackedLinks(null, props), props);
+
+        System.out.printf("%10s %10s %16s %14s %10s %14s%n",
+                "body", "messages", "render+write us", "bodyHash us", "sign us", "full hash us");
+        for (int[] run : RUNS) {
+            String html = html(run[0]);
+            CampaignContent content = new CampaignContent(run[0], "Benchmark", html, "text");
+            BodyTemplate template = BodyTemplate.build("=_benchmark", "text", html, PLACEHOLDERS);
+            DkimSigner.BodyHash prepared = signer.prepare(template);
+            List<String> headers = List.of("From: news@example.com", "To: a@example.com", "Subject: Benchmark",
+                    "Date: Mon, 19 Oct 2026 09:00:00 +0900", "MIME-Version: 1.0",
+                    "Content-Type: " + template.contentType());
+
+            // 워밍업 후 측정
+            for (int pass = 0; pass < 2; pass++) {
+                long render = 0;
+                long bodyHash = 0;
+                long sign = 0;
+                long fullHash = 0;
+                for (int i = 0; i < run[1]; i++) {
+                    long subscriberId = 1_000_000L + i;
+                    byte[][] values = template.encodeValues(placeholder -> Long.toString(subscriberId));
+
+                    long start = System.nanoTime();
+                    MimeMessage mail = renderer.render(content, subscriberId, "user" + i + "@example.com");
+                    mail.writeTo(OutputStream.nullOutputStream());
+                    long rendered = System.nanoTime();
+                    String hash = signer.bodyHash(prepared, values);
+                    long hashed = System.nanoTime();
+                    signer.sign(headers, hash);
+                    long signed = System.nanoTime();
+                    MessageDigest.getInstance("SHA-256").digest(DkimSigner.canonicalizeBody(join(template.fixed(), values)));
+                    long full = System.nanoTime();
+
+                    render += rendered - start;
+                    bodyHash += hashed - rendered;
+                    sign += signed - hashed;
+                    fullHash += full - signed;
+                }
+                if (pass == 1) {
+                    System.out.printf("%10s %10d %16.1f %14.1f %10.1f %14.1f%n", size(run[0]), run[1],
+                            micros(render, run[1]), micros(bodyHash, run[1]), micros(sign, run[1]),
+                            micros(fullHash, run[1]));
+                }
+            }
+        }
+    }
+
+    // 추적 링크가 들어간 문단을 반복해 대략 size 바이트의 HTML 생성
+    private static String html(int size) {
+        String paragraph = "<p>이번 주 새 글 소개입니다. Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+                + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.</p>\n"
+                + "<a href=\"https://api.example.com/api/track/click?c=1&s=" + TrackedLinks.SUBSCRIBER_PLACEHOLDER
+                + "&t=" + TrackedLinks.TOKEN_PLACEHOLDER + "&u=https%3A%2F%2Fblog.example.com%2Fposts\">읽기</a>\n";
+        StringBuilder html = new StringBuilder(size + paragraph.length());
+        while (html.length() < size) {
+            html.append(paragraph);
+        }
+        return html.append("<a href=\"").append(UNSUBSCRIBE).append("\">구독 해제</a>").toString();
+    }
+
+    private static byte[] join(byte[][] fixed, byte[][] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(fixed[0]);
+        for (int i = 0; i < values.length; i++) {
+            out.writeBytes(values[i]);
+            out.writeBytes(fixed[i + 1]);
+        }
+        return out.toByteArray();
+    }
+
+    private static String size(int bytes) {
+        return bytes >= 1 << 20 ? (bytes >> 20) + "MB" : (bytes >> 10) + "KB";
+    }
+
+    private static double micros(long nanos, int count) {
+        return nanos / 1000.0 / count;
+    }
+}
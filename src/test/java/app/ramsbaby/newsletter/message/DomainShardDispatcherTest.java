@@ -0,0 +1,54 @@
+package app.ramsbaby.newsletter.message;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.util.MailConnectException;
+import org.eclipse.angus.mail.util.SocketConnectException;
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 일시 장애(도메인 백오프 대상) 판별 검증
+ */
+class DomainShardDispatcherTest {
+
+    @Test
+    void greetingReplyCodeDecides() {
+        assertTrue(DomainShardDispatcher.isTransient(new MessagingException(
+                "Got bad greeting from SMTP host: mx.example.com, port: 25, response: 421 4.7.0 Try again later")));
+        assertTrue(DomainShardDispatcher.isTransient(new MessagingException(
+                "Got bad greeting from SMTP host: mx.example.com, port: 25, response: 450")));
+        assertFalse(DomainShardDispatcher.isTransient(new MessagingException(
+                "Got bad greeting from SMTP host: mx.example.com, port: 25, response: 554 5.7.1 No service")));
+        // 포트 번호의 숫자는 응답 코드로 보지 않음
+        assertFalse(DomainShardDispatcher.isTransient(new MessagingException(
+                "Got bad greeting from SMTP host: mx.example.com, port: 421, response: 554 blocked")));
+    }
+
+    @Test
+    void connectFailuresAreTransient() {
+        assertTrue(DomainShardDispatcher.isTransient(new MailConnectException(new SocketConnectException(
+                "Using socket factory", new ConnectException("Connection refused"), "mx.example.com", 25, 0))));
+        assertTrue(DomainShardDispatcher.isTransient(
+                new MessagingException("Could not connect to SMTP host", new SocketTimeoutException("connect timed out"))));
+    }
+
+    @Test
+    void replyCodesComeOnlyFromSmtpExceptions() throws Exception {
+        InternetAddress rcpt = new InternetAddress("a@example.com");
+        assertTrue(DomainShardDispatcher.isTransient(new SMTPAddressFailedException(rcpt, "RCPT TO", 452, "452 too many")));
+        assertFalse(DomainShardDispatcher.isTransient(new SMTPAddressFailedException(rcpt, "RCPT TO", 550, "550 no user")));
+        // 수신자별 예외가 cause 로 이어진 경우
+        assertTrue(DomainShardDispatcher.isTransient(new MessagingException("Invalid Addresses",
+                new SMTPAddressFailedException(rcpt, "RCPT TO", 421, "421 slow down"))));
+        // 메시지 문자열 속 숫자는 보지 않음
+        assertFalse(DomainShardDispatcher.isTransient(new MessagingException("421 mailbox 4.2.1 temporarily busy")));
+        assertFalse(DomainShardDispatcher.isTransient(new MessagingException("Mail server connection failed")));
+    }
+}
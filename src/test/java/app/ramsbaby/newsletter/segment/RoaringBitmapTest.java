@@ -0,0 +1,227 @@
+package app.ramsbaby.newsletter.segment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RoaringBitmap 을 TreeSet 과 비교하여 검증
+ *
+ * 컨테이너 하나에 4096개가 넘으면 비트맵 컨테이너, 그 이하로 줄면 배열 컨테이너가 되므로
+ * 경계(4096/4097) 전후와 두 형태가 섞인 연산을 중점적으로 확인합니다.
+ */
+class RoaringBitmapTest {
+    private static final int ARRAY_MAX = 4096;
+
+    @Test
+    void addRemoveContains() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertTrue(bitmap.add(7));
+        assertFalse(bitmap.add(7));
+        assertTrue(bitmap.add(1 << 16));
+        assertTrue(bitmap.add(Integer.MAX_VALUE));
+        assertTrue(bitmap.contains(7));
+        assertFalse(bitmap.contains(8));
+        assertEquals(3, bitmap.cardinality());
+        assertArrayEquals(new int[]{7, 1 << 16, Integer.MAX_VALUE}, bitmap.toArray());
+
+        assertTrue(bitmap.remove(1 << 16));
+        assertFalse(bitmap.remove(1 << 16));
+        assertArrayEquals(new int[]{7, Integer.MAX_VALUE}, bitmap.toArray());
+        bitmap.remove(7);
+        bitmap.remove(Integer.MAX_VALUE);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void arrayToBitmapAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // 한 컨테이너에 4096개 (배열), 하나 더 넣으면 비트맵으로 바뀜
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            bitmap.add(i * 3);
+            expected.add(i * 3);
+        }
+        assertBitmap(expected, bitmap);
+        bitmap.add(1);
+        expected.add(1);
+        assertBitmap(expected, bitmap);
+        assertFalse(bitmap.add(1));
+
+        // 다시 4096개 이하로 줄이면 배열로 돌아가도 값은 그대로
+        bitmap.remove(1);
+        expected.remove(1);
+        assertBitmap(expected, bitmap);
+        for (int i = 0; i < 100; i++) {
+            bitmap.remove(i * 3);
+            expected.remove(i * 3);
+        }
+        assertBitmap(expected, bitmap);
+
+        // 배열로 돌아간 뒤에도 추가/삭제가 정상 동작
+        for (int i = 0; i < 200; i++) {
+            bitmap.add(i * 3 + 1);
+            expected.add(i * 3 + 1);
+        }
+        assertBitmap(expected, bitmap);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        RoaringBitmap bitmap = bitmapOf(range(0, ARRAY_MAX + 10));
+        RoaringBitmap copy = bitmap.copy();
+        copy.remove(5);
+        copy.add(1 << 20);
+        assertTrue(bitmap.contains(5));
+        assertFalse(bitmap.contains(1 << 20));
+        assertEquals(ARRAY_MAX + 10, bitmap.cardinality());
+    }
+
+    @Test
+    void andOrAndNotMatchSets() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Integer> a = randomSet(random);
+            TreeSet<Integer> b = randomSet(random);
+            RoaringBitmap ra = bitmapOf(a);
+            RoaringBitmap rb = bitmapOf(b);
+
+            TreeSet<Integer> and = new TreeSet<>(a);
+            and.retainAll(b);
+            TreeSet<Integer> or = new TreeSet<>(a);
+            or.addAll(b);
+            TreeSet<Integer> andNot = new TreeSet<>(a);
+            andNot.removeAll(b);
+
+            assertBitmap(and, ra.and(rb));
+            assertBitmap(or, ra.or(rb));
+            assertBitmap(andNot, ra.andNot(rb));
+            assertBitmap(or, RoaringBitmap.union(List.of(ra, rb)));
+
+            // 입력 비트맵은 바뀌지 않음
+            assertBitmap(a, ra);
+            assertBitmap(b, rb);
+        }
+    }
+
+    @Test
+    void operationsAcrossContainerKinds() {
+        // 밀집(비트맵) x 희소(배열), 결과가 경계를 넘나드는 경우
+        TreeSet<Integer> dense = range(0, 10_000);
+        TreeSet<Integer> sparse = new TreeSet<>();
+        for (int i = 0; i < 20_000; i += 7) {
+            sparse.add(i);
+        }
+        TreeSet<Integer> half = range(5_000, 15_000);
+
+        RoaringBitmap rd = bitmapOf(dense);
+        RoaringBitmap rs = bitmapOf(sparse);
+        RoaringBitmap rh = bitmapOf(half);
+
+        TreeSet<Integer> expected = new TreeSet<>(dense);
+        expected.retainAll(sparse);
+        assertBitmap(expected, rd.and(rs));
+        assertBitmap(expected, rs.and(rd));
+
+        // 비트맵 AND 비트맵 -> 5000개 (비트맵 유지)
+        expected = new TreeSet<>(dense);
+        expected.retainAll(half);
+        assertBitmap(expected, rd.and(rh));
+
+        // 비트맵 ANDNOT 비트맵 -> 5000개, 다시 빼서 4096개 이하 (배열로 전환)
+        expected = new TreeSet<>(dense);
+        expected.removeAll(half);
+        RoaringBitmap rest = rd.andNot(rh);
+        assertBitmap(expected, rest);
+        TreeSet<Integer> smaller = new TreeSet<>(expected);
+        smaller.removeAll(range(0, 1_000));
+        assertBitmap(smaller, rest.andNot(bitmapOf(range(0, 1_000))));
+
+        // 배열 OR 배열 -> 4096개 초과 (비트맵으로 전환)
+        TreeSet<Integer> left = range(0, 3_000);
+        TreeSet<Integer> right = range(2_500, 6_000);
+        expected = new TreeSet<>(left);
+        expected.addAll(right);
+        assertBitmap(expected, bitmapOf(left).or(bitmapOf(right)));
+
+        // 배열 ANDNOT 비트맵
+        expected = new TreeSet<>(sparse);
+        expected.removeAll(dense);
+        assertBitmap(expected, rs.andNot(rd));
+
+        // 전부 지우면 컨테이너도 사라짐
+        assertTrue(rd.andNot(rd).isEmpty());
+        assertTrue(rs.and(new RoaringBitmap()).isEmpty());
+    }
+
+    @Test
+    void unionOfManyBitmaps() {
+        Random random = new Random(7);
+        TreeSet<Integer> expected = new TreeSet<>();
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (int day = 0; day < 300; day++) {
+            TreeSet<Integer> ids = new TreeSet<>();
+            for (int i = 0; i < 30; i++) {
+                ids.add(random.nextInt(200_000));
+            }
+            expected.addAll(ids);
+            bitmaps.add(bitmapOf(ids));
+        }
+        assertBitmap(expected, RoaringBitmap.union(bitmaps));
+        assertTrue(RoaringBitmap.union(List.of()).isEmpty());
+
+        // 합친 결과가 한 컨테이너에서 4096개를 넘는 경우
+        RoaringBitmap low = bitmapOf(range(0, 4_000));
+        RoaringBitmap high = bitmapOf(range(4_000, 8_000));
+        assertBitmap(range(0, 8_000), RoaringBitmap.union(List.of(low, high)));
+    }
+
+    private static TreeSet<Integer> randomSet(Random random) {
+        TreeSet<Integer> set = new TreeSet<>();
+        // 희소 구간, 밀집 구간, 경계 근처 구간을 섞음
+        int sparse = random.nextInt(500);
+        for (int i = 0; i < sparse; i++) {
+            set.add(random.nextInt(1 << 22));
+        }
+        int denseBase = random.nextInt(4) << 16;
+        int dense = ARRAY_MAX - 50 + random.nextInt(100);
+        for (int i = 0; i < dense; i++) {
+            set.add(denseBase + random.nextInt(1 << 16));
+        }
+        return set;
+    }
+
+    private static TreeSet<Integer> range(int from, int to) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int i = from; i < to; i++) {
+            set.add(i);
+        }
+        return set;
+    }
+
+    private static RoaringBitmap bitmapOf(Iterable<Integer> values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static void assertBitmap(TreeSet<Integer> expected, RoaringBitmap actual) {
+        assertEquals(expected.size(), actual.cardinality());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual.toArray());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        for (int value : expected) {
+            assertTrue(actual.contains(value), () -> "missing " + value);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package app.ramsbaby.newsletter.segment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 세그먼트 식 파싱/평가 검증 (우선순위 NOT &gt; AND &gt; OR, 괄호, 오류)
+ */
+class SegmentExpressionTest {
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+    // 구독자 1~8
+    private final Bitmaps bitmaps = new Bitmaps(
+        bitmapOf(1, 2, 3, 4, 5, 6, 7, 8),
+        Map.of("a", bitmapOf(1, 2, 3, 4), "b", bitmapOf(3, 4, 5, 6), "c", bitmapOf(2, 4, 6, 8),
+               "blog footer", bitmapOf(7)),
+        Map.of("daily", bitmapOf(5, 6))
+    );
+
+    @Test
+    void andBindsTighterThanOr() {
+        // a OR (b AND c) = {1,2,3,4} ∪ {4,6}
+        assertIds("tag:a OR tag:b AND tag:c", 1, 2, 3, 4, 6);
+        // (b AND c) OR a
+        assertIds("tag:b AND tag:c OR tag:a", 1, 2, 3, 4, 6);
+        // 괄호로 묶으면 (a OR b) AND c = {2,4,6}
+        assertIds("(tag:a OR tag:b) AND tag:c", 2, 4, 6);
+    }
+
+    @Test
+    void notBindsTighterThanAnd() {
+        // (NOT a) AND b = {5,6}
+        assertIds("NOT tag:a AND tag:b", 5, 6);
+        // NOT (a AND b) = 전체 - {3,4}
+        assertIds("NOT (tag:a AND tag:b)", 1, 2, 5, 6, 7, 8);
+        // NOT a OR c = {5,6,7,8} ∪ {2,4,6,8}
+        assertIds("NOT tag:a OR tag:c", 2, 4, 5, 6, 7, 8);
+        // 이중 부정
+        assertIds("NOT NOT tag:a", 1, 2, 3, 4);
+    }
+
+    @Test
+    void leftAssociativeChains() {
+        assertIds("tag:a AND tag:b AND tag:c", 4);
+        assertIds("tag:a OR tag:b OR tag:c", 1, 2, 3, 4, 5, 6, 8);
+        assertIds("tag:a AND NOT tag:b OR tag:c AND NOT tag:a", 1, 2, 6, 8);
+    }
+
+    @Test
+    void keywordsAreCaseInsensitiveAndNamesQuoted() {
+        assertIds("tag:a and not tag:b", 1, 2);
+        assertIds("ALL AND NOT mode:daily", 1, 2, 3, 4, 7, 8);
+        assertIds("source:\"blog footer\" OR tag:unknown", 7);
+        assertIds("((tag:a))", 1, 2, 3, 4);
+    }
+
+    @Test
+    void relativeDatesUseToday() {
+        Bitmaps dated = new Bitmaps(bitmapOf(1, 2), Map.of(), Map.of()) {
+            @Override
+            public RoaringBitmap signup(LocalDate from, LocalDate until) {
+                return from != null && from.equals(TODAY.minusDays(14)) && until == null ? bitmapOf(1) : bitmapOf();
+            }
+
+            @Override
+            public RoaringBitmap engaged(LocalDate from) {
+                return from.equals(TODAY.minusDays(30)) ? bitmapOf(2) : bitmapOf();
+            }
+        };
+        assertArrayEquals(new int[]{1, 2},
+                SegmentExpression.parse("signup:14d OR engaged:30d").evaluate(dated, TODAY).toArray());
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+        for (String invalid : new String[]{
+                "", "   ", "tag:a AND", "tag:a OR OR tag:b", "(tag:a", "tag:a)", "tag:a tag:b",
+                "color:red", "tag:", "mode:hourly", "signup:14", "engaged:xd", "signup>=2026-13-01",
+                "source:\"open", "NOT"}) {
+            assertThrows(IllegalArgumentException.class, () -> SegmentExpression.parse(invalid), invalid);
+        }
+        assertThrows(IllegalArgumentException.class, () -> SegmentExpression.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> SegmentExpression.parse("tag:a OR ".repeat(200) + "tag:b"));
+    }
+
+    private void assertIds(String expression, int... expected) {
+        assertArrayEquals(expected, SegmentExpression.parse(expression).evaluate(bitmaps, TODAY).toArray(), expression);
+    }
+
+    private static RoaringBitmap bitmapOf(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static class Bitmaps implements SegmentExpression.Bitmaps {
+        private final RoaringBitmap all;
+        private final Map<String, RoaringBitmap> tagsAndSources;
+        private final Map<String, RoaringBitmap> modes;
+
+        private Bitmaps(RoaringBitmap all, Map<String, RoaringBitmap> tagsAndSources, Map<String, RoaringBitmap> modes) {
+            this.all = all;
+            this.tagsAndSources = tagsAndSources;
+            this.modes = modes;
+        }
+
+        @Override
+        public RoaringBitmap all() {
+            return all;
+        }
+
+        @Override
+        public RoaringBitmap tag(String tag) {
+            return tagsAndSources.getOrDefault(tag, new RoaringBitmap());
+        }
+
+        @Override
+        public RoaringBitmap source(String source) {
+            return tagsAndSources.getOrDefault(source, new RoaringBitmap());
+        }
+
+        @Override
+        public RoaringBitmap mode(String mode) {
+            return modes.getOrDefault(mode, new RoaringBitmap());
+        }
+
+        @Override
+        public RoaringBitmap signup(LocalDate from, LocalDate until) {
+            return new RoaringBitmap();
+        }
+
+        @Override
+        public RoaringBitmap engaged(LocalDate from) {
+            return new RoaringBitmap();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package app.ramsbaby.newsletter.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 건너뛴 id 추적 검증 (늦게 커밋된 id, 전체 로드 후 최근 범위)
+ */
+class IdTailTest {
+
+    @Test
+    void tracksGapsUntilLateCommitsArrive() {
+        IdTail tail = new IdTail();
+        // 11, 13 은 아직 커밋되지 않음
+        assertEquals(14, tail.advance(10, List.of(12L, 14L)));
+        assertEquals(2, tail.missingCount());
+
+        // 늦게 커밋된 13 은 afterId(14) 보다 작아도 반영되고, afterId 는 그대로
+        assertEquals(14, tail.advance(14, List.of(13L)));
+        assertEquals(1, tail.missingCount());
+
+        assertEquals(15, tail.advance(14, List.of(11L, 15L)));
+        assertEquals(0, tail.missingCount());
+    }
+
+    @Test
+    void resetTracksOnlyRecentWindow() {
+        IdTail tail = new IdTail();
+        tail.advance(0, List.of(5L));
+        assertEquals(4, tail.missingCount());
+
+        // 전체 로드 후에는 이전 기록을 버리고 최근 1000개 범위의 빈 id 만 추적
+        assertEquals(4_000, tail.windowStart(5_000));
+        tail.reset(5_000, List.of(3_000L, 4_001L, 4_002L, 4_998L, 5_000L));
+        assertEquals(996, tail.missingCount());
+        assertEquals(0, tail.windowStart(10));
+    }
+}